@@ -0,0 +1,93 @@
+package sqlancer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sqlancer.common.query.ExpectedErrors;
+import sqlancer.postgres.gen.PostgresCommon;
+import sqlancer.sqlite3.SQLite3Errors;
+
+/**
+ * Compares matching error messages against the expected errors of the PostgreSQL and SQLite3 providers using
+ * {@link ExpectedErrors} and using a loop over all substrings and regular expressions, as ExpectedErrors did before it
+ * compiled them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpectedErrorsBenchmark {
+
+    private final Set<String> substrings = new HashSet<>();
+    private final Set<Pattern> regexes = new HashSet<>();
+    private final List<String> errorMessages = new ArrayList<>();
+    private int i;
+
+    @Setup
+    public void setup() {
+        substrings.addAll(PostgresCommon.getCommonExpressionErrors());
+        substrings.addAll(PostgresCommon.getCommonFetchErrors());
+        substrings.addAll(PostgresCommon.getCommonInsertUpdateErrors());
+        substrings.addAll(SQLite3Errors.getExpectedExpressionErrors());
+        substrings.addAll(SQLite3Errors.getQueryErrors());
+        regexes.addAll(PostgresCommon.getCommonExpressionRegexErrors());
+        // messages as reported by the DBMSs, most of which are expected
+        errorMessages.add("ERROR: division by zero");
+        errorMessages.add("ERROR: operator does not exist: boolean + integer\n  Hint: No operator matches the given "
+                + "name and argument types. You might need to add explicit type casts.\n  Position: 35");
+        errorMessages.add("ERROR: invalid input syntax for type integer: \"abc\"");
+        errorMessages.add("ERROR: cannot convert infinity to numeric");
+        errorMessages.add("[SQLITE_ERROR] SQL error or missing database (ambiguous column name: c0)");
+        errorMessages.add("[SQLITE_ERROR] SQL error or missing database (no such table: t1)");
+        errorMessages.add("ERROR: relation \"t42\" does not exist\n  Position: 15");
+        errorMessages.add("[SQLITE_CORRUPT] The database disk image is malformed (database disk image is malformed)");
+    }
+
+    private String nextErrorMessage() {
+        i = (i + 1) % errorMessages.size();
+        return errorMessages.get(i);
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        // constructed for each statement, as done by the generators
+        ExpectedErrors errors = new ExpectedErrors(substrings, regexes);
+        return errors.errorIsExpected(nextErrorMessage());
+    }
+
+    @Benchmark
+    public boolean loop() {
+        Set<String> errors = new HashSet<>(substrings);
+        Set<Pattern> patterns = new HashSet<>(regexes);
+        String error = nextErrorMessage();
+        for (String s : errors) {
+            if (error.contains(s)) {
+                return true;
+            }
+        }
+        for (Pattern p : patterns) {
+            if (p.matcher(error).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,128 @@
+package sqlancer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sqlancer.MainOptions;
+import sqlancer.Randomly;
+import sqlancer.common.ast.newast.Node;
+import sqlancer.duckdb.DuckDBOptions;
+import sqlancer.duckdb.DuckDBProvider.DuckDBGlobalState;
+import sqlancer.duckdb.DuckDBSchema.DuckDBColumn;
+import sqlancer.duckdb.DuckDBSchema.DuckDBCompositeDataType;
+import sqlancer.duckdb.DuckDBSchema.DuckDBDataType;
+import sqlancer.duckdb.DuckDBSchema.DuckDBTable;
+import sqlancer.duckdb.DuckDBToStringVisitor;
+import sqlancer.duckdb.ast.DuckDBExpression;
+import sqlancer.duckdb.gen.DuckDBExpressionGenerator;
+import sqlancer.sqlite3.SQLite3GlobalState;
+import sqlancer.sqlite3.SQLite3Options;
+import sqlancer.sqlite3.SQLite3Visitor;
+import sqlancer.sqlite3.ast.SQLite3Expression;
+import sqlancer.sqlite3.gen.SQLite3ExpressionGenerator;
+import sqlancer.sqlite3.schema.SQLite3DataType;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Column;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Column.SQLite3CollateSequence;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Table;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Table.TableKind;
+
+/**
+ * Measures how many expressions the generators produce per second, and how fast the generated expressions are
+ * serialized to SQL, both for the SQLite3 AST ({@link sqlancer.sqlite3.SQLite3ToStringVisitor}) and for the generic
+ * AST ({@link sqlancer.common.ast.newast.NewToStringVisitor}). The generators use a fixed seed and a schema that does
+ * not require a database, so that the results are comparable across commits. Use {@code -prof gc} (enabled by default
+ * in the benchmarks profile) to obtain the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpressionGenerationBenchmark {
+
+    private static final long SEED = 0;
+    private static final int NR_COLUMNS = 5;
+    private static final int NR_SERIALIZED_EXPRESSIONS = 1024;
+
+    private SQLite3ExpressionGenerator sqliteGenerator;
+    private DuckDBExpressionGenerator duckDBGenerator;
+
+    private final List<SQLite3Expression> sqliteExpressions = new ArrayList<>();
+    private final List<Node<DuckDBExpression>> duckDBExpressions = new ArrayList<>();
+    private int i;
+
+    @Setup
+    public void setup() {
+        MainOptions options = new MainOptions();
+        Randomly.initialize(options);
+        Randomly r = new Randomly(SEED);
+
+        SQLite3GlobalState sqliteState = new SQLite3GlobalState();
+        sqliteState.setMainOptions(options);
+        sqliteState.setDbmsSpecificOptions(new SQLite3Options());
+        sqliteState.setRandomly(r);
+        List<SQLite3Column> sqliteColumns = new ArrayList<>();
+        for (int j = 0; j < NR_COLUMNS; j++) {
+            sqliteColumns.add(new SQLite3Column("c" + j, SQLite3DataType.values()[j % SQLite3DataType.values().length],
+                    j % 2 == 0, false, SQLite3CollateSequence.BINARY));
+        }
+        SQLite3Table sqliteTable = new SQLite3Table("t0", sqliteColumns, TableKind.MAIN, false, false, false, false);
+        sqliteColumns.forEach(c -> c.setTable(sqliteTable));
+        sqliteGenerator = new SQLite3ExpressionGenerator(sqliteState).setColumns(sqliteColumns);
+
+        DuckDBGlobalState duckDBState = new DuckDBGlobalState();
+        duckDBState.setMainOptions(options);
+        duckDBState.setDbmsSpecificOptions(new DuckDBOptions());
+        duckDBState.setRandomly(r);
+        List<DuckDBColumn> duckDBColumns = new ArrayList<>();
+        for (int j = 0; j < NR_COLUMNS; j++) {
+            DuckDBDataType type = DuckDBDataType.values()[j % (DuckDBDataType.values().length - 1)];
+            duckDBColumns.add(new DuckDBColumn("c" + j, new DuckDBCompositeDataType(type, 4), false, true));
+        }
+        DuckDBTable duckDBTable = new DuckDBTable("t0", duckDBColumns, false);
+        duckDBColumns.forEach(c -> c.setTable(duckDBTable));
+        duckDBGenerator = new DuckDBExpressionGenerator(duckDBState);
+        duckDBGenerator.setColumns(duckDBColumns);
+
+        for (int j = 0; j < NR_SERIALIZED_EXPRESSIONS; j++) {
+            sqliteExpressions.add(sqliteGenerator.generateExpression());
+            duckDBExpressions.add(duckDBGenerator.generateExpression());
+        }
+    }
+
+    @Benchmark
+    public SQLite3Expression generateSQLite3Expression() {
+        return sqliteGenerator.generateExpression();
+    }
+
+    @Benchmark
+    public Node<DuckDBExpression> generateDuckDBExpression() {
+        return duckDBGenerator.generateExpression();
+    }
+
+    @Benchmark
+    public String serializeSQLite3Expression() {
+        i = (i + 1) % NR_SERIALIZED_EXPRESSIONS;
+        return SQLite3Visitor.asString(sqliteExpressions.get(i));
+    }
+
+    @Benchmark
+    public String serializeDuckDBExpression() {
+        i = (i + 1) % NR_SERIALIZED_EXPRESSIONS;
+        return DuckDBToStringVisitor.asString(duckDBExpressions.get(i));
+    }
+
+}
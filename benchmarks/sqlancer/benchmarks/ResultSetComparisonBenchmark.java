@@ -0,0 +1,75 @@
+package sqlancer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sqlancer.ComparatorHelper;
+import sqlancer.MainOptions;
+import sqlancer.ResultSetFingerprint;
+import sqlancer.sqlite3.SQLite3GlobalState;
+
+/**
+ * Measures comparing two equal result sets, once materialized as lists and once as {@link ResultSetFingerprint}s,
+ * which the TLP and DQP oracles compute while reading the rows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSetComparisonBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    private int nrRows;
+
+    private final List<String> combinedString = List.of("SELECT c0 FROM t0 WHERE c0", "SELECT c0 FROM t0 WHERE NOT c0");
+    private SQLite3GlobalState state;
+    private List<String> resultSet;
+    private List<String> secondResultSet;
+
+    @Setup
+    public void setup() {
+        state = new SQLite3GlobalState();
+        state.setMainOptions(new MainOptions());
+        Random r = new Random(0);
+        resultSet = new ArrayList<>(nrRows);
+        for (int i = 0; i < nrRows; i++) {
+            resultSet.add(r.nextInt(10) == 0 ? null : Long.toString(r.nextLong()));
+        }
+        secondResultSet = new ArrayList<>(resultSet);
+        Collections.shuffle(secondResultSet, r);
+    }
+
+    @Benchmark
+    public List<String> compareLists() {
+        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, "SELECT c0 FROM t0", combinedString,
+                state);
+        return resultSet;
+    }
+
+    @Benchmark
+    public boolean compareFingerprints() {
+        ResultSetFingerprint fingerprint = new ResultSetFingerprint();
+        resultSet.forEach(fingerprint::add);
+        ResultSetFingerprint secondFingerprint = new ResultSetFingerprint();
+        secondResultSet.forEach(secondFingerprint::add);
+        return fingerprint.hasSameContent(secondFingerprint);
+    }
+
+}
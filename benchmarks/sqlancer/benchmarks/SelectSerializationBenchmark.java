@@ -0,0 +1,114 @@
+package sqlancer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import sqlancer.MainOptions;
+import sqlancer.Randomly;
+import sqlancer.common.visitor.FragmentCache;
+import sqlancer.sqlite3.SQLite3GlobalState;
+import sqlancer.sqlite3.SQLite3Options;
+import sqlancer.sqlite3.SQLite3Visitor;
+import sqlancer.sqlite3.ast.SQLite3Expression;
+import sqlancer.sqlite3.ast.SQLite3Expression.SQLite3PostfixUnaryOperation;
+import sqlancer.sqlite3.ast.SQLite3Expression.SQLite3PostfixUnaryOperation.PostfixUnaryOperator;
+import sqlancer.sqlite3.ast.SQLite3Expression.SQLite3TableReference;
+import sqlancer.sqlite3.ast.SQLite3Select;
+import sqlancer.sqlite3.ast.SQLite3UnaryOperation;
+import sqlancer.sqlite3.ast.SQLite3UnaryOperation.UnaryOperator;
+import sqlancer.sqlite3.gen.SQLite3ExpressionGenerator;
+import sqlancer.sqlite3.schema.SQLite3DataType;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Column;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Column.SQLite3CollateSequence;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Table;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Table.TableKind;
+
+/**
+ * Measures how fast a TLP oracle prints the variants of a SELECT statement, that is, the query without a WHERE clause
+ * and the three queries whose WHERE clauses are a predicate, its negation, and its ISNULL check, with and without a
+ * {@link FragmentCache}. The statements use a fixed seed and a schema that does not require a database, so that the
+ * results are comparable across commits.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SelectSerializationBenchmark {
+
+    private static final long SEED = 0;
+    private static final int NR_COLUMNS = 5;
+    private static final int NR_SELECTS = 256;
+
+    private final List<SQLite3Select> selects = new ArrayList<>();
+    private final List<SQLite3Expression> predicates = new ArrayList<>();
+    private int i;
+
+    @Setup
+    public void setup() {
+        MainOptions options = new MainOptions();
+        Randomly.initialize(options);
+        Randomly r = new Randomly(SEED);
+
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        state.setMainOptions(options);
+        state.setDbmsSpecificOptions(new SQLite3Options());
+        state.setRandomly(r);
+        List<SQLite3Column> columns = new ArrayList<>();
+        for (int j = 0; j < NR_COLUMNS; j++) {
+            columns.add(new SQLite3Column("c" + j, SQLite3DataType.values()[j % SQLite3DataType.values().length],
+                    j % 2 == 0, false, SQLite3CollateSequence.BINARY));
+        }
+        SQLite3Table table = new SQLite3Table("t0", columns, TableKind.MAIN, false, false, false, false);
+        columns.forEach(c -> c.setTable(table));
+        SQLite3ExpressionGenerator gen = new SQLite3ExpressionGenerator(state).setColumns(columns);
+
+        for (int j = 0; j < NR_SELECTS; j++) {
+            SQLite3Select select = new SQLite3Select();
+            select.setFetchColumns(gen.getRandomExpressions(NR_COLUMNS));
+            select.setFromList(List.of(new SQLite3TableReference(table)));
+            selects.add(select);
+            predicates.add(gen.generateExpression());
+        }
+    }
+
+    @Benchmark
+    public void printVariants(Blackhole bh) {
+        printVariants(bh, selects.get(i), predicates.get(i));
+        i = (i + 1) % NR_SELECTS;
+    }
+
+    @Benchmark
+    public void printVariantsWithFragmentCache(Blackhole bh) {
+        try (FragmentCache cache = FragmentCache.open()) {
+            printVariants(bh, selects.get(i), predicates.get(i));
+        }
+        i = (i + 1) % NR_SELECTS;
+    }
+
+    private static void printVariants(Blackhole bh, SQLite3Select select, SQLite3Expression predicate) {
+        select.setWhereClause(null);
+        bh.consume(SQLite3Visitor.asString(select));
+        select.setWhereClause(predicate);
+        bh.consume(SQLite3Visitor.asString(select));
+        select.setWhereClause(new SQLite3UnaryOperation(UnaryOperator.NOT, predicate));
+        bh.consume(SQLite3Visitor.asString(select));
+        select.setWhereClause(new SQLite3PostfixUnaryOperation(PostfixUnaryOperator.ISNULL, predicate));
+        bh.consume(SQLite3Visitor.asString(select));
+    }
+
+}
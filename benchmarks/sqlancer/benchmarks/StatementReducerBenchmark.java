@@ -0,0 +1,102 @@
+package sqlancer.benchmarks;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.beust.jcommander.JCommander;
+
+import sqlancer.Main;
+import sqlancer.MainOptions;
+import sqlancer.Randomly;
+import sqlancer.Reproducer;
+import sqlancer.StateToReproduce;
+import sqlancer.StatementReducer;
+import sqlancer.common.query.Query;
+import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.sqlite3.SQLite3GlobalState;
+import sqlancer.sqlite3.SQLite3Options;
+import sqlancer.sqlite3.SQLite3Provider;
+
+/**
+ * Measures how long the {@link StatementReducer} takes to reduce a SQLite database of a table and its rows to the
+ * statements that insert two given rows, sequentially and with several reduction threads, each of which replays the
+ * candidates on its own scratch database. The statements are fixed, so that the results are comparable across commits.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class StatementReducerBenchmark {
+
+    private static final String DATABASE_NAME = "reducerbenchmark";
+    private static final int NR_ROWS = 256;
+
+    @Param({ "1", "4" })
+    private int reducerThreads;
+
+    private final SQLite3Provider provider = new SQLite3Provider();
+    private final List<Query<?>> statements = new ArrayList<>();
+    private final Reproducer<SQLite3GlobalState> reproducer = state -> {
+        try (Statement s = state.getConnection().createStatement();
+                ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM t0 WHERE c0 IN (17, 203)")) {
+            return rs.next() && rs.getInt(1) == 2;
+        } catch (Exception e) {
+            return false;
+        }
+    };
+    private MainOptions options;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        options = new MainOptions();
+        JCommander.newBuilder().addObject(options).build()
+                .parse("--use-reducer", "--reducer-threads", String.valueOf(reducerThreads), "--random-seed", "0");
+        Randomly.initialize(options);
+        statements.add(new SQLQueryAdapter("CREATE TABLE t0(c0 INT)", true));
+        for (int i = 0; i < NR_ROWS; i++) {
+            statements.add(new SQLQueryAdapter("INSERT INTO t0 VALUES (" + i + ")"));
+        }
+    }
+
+    @Benchmark
+    public List<Query<?>> reduce() throws Exception {
+        SQLite3GlobalState state = createState();
+        state.getState().setStatements(new ArrayList<>(statements));
+        SQLite3GlobalState newGlobalState = createState();
+        new StatementReducer<>(provider).reduce(state, reproducer, newGlobalState);
+        provider.dropDatabase(newGlobalState);
+        return newGlobalState.getState().getStatements();
+    }
+
+    private SQLite3GlobalState createState() {
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        StateToReproduce stateToReproduce = new StateToReproduce(DATABASE_NAME, provider);
+        stateToReproduce.createLocalState();
+        state.setState(stateToReproduce);
+        state.setDatabaseName(DATABASE_NAME);
+        state.setRandomly(new Randomly(0));
+        state.setMainOptions(options);
+        state.setDbmsSpecificOptions(new SQLite3Options());
+        state.setStateLogger(new Main.StateLogger(DATABASE_NAME, provider, options));
+        return state;
+    }
+
+}
@@ -7,6 +7,7 @@ import java.util.List;
 
 import sqlancer.common.query.Query;
 import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.transformations.ReductionContext;
 import sqlancer.transformations.RemoveClausesOfSelect;
 import sqlancer.transformations.RemoveColumnsOfSelect;
 import sqlancer.transformations.RemoveElementsOfExpressionList;
@@ -30,6 +31,8 @@ public class ASTBasedReducer<G extends GlobalState<O, ?, C>, O extends DBMSSpeci
     private List<Query<C>> reducedStatements;
     // statement after reduction.
 
+    private SnapshotCache<G, C> snapshotCache;
+
     public ASTBasedReducer(DatabaseProvider<G, O, C> provider) {
         this.provider = provider;
     }
@@ -64,7 +67,8 @@ public class ASTBasedReducer<G extends GlobalState<O, ?, C>, O extends DBMSSpeci
         transformations.add(new SimplifyConstant());
         transformations.add(new RoundDoubleConstant());
 
-        Transformation.setBugJudgement(() -> {
+        // the transformations of this reduction share its state, so that reductions can run concurrently
+        ReductionContext context = new ReductionContext(() -> {
             try {
                 return this.bugStillTriggers();
             } catch (Exception ignored) {
@@ -72,12 +76,30 @@ public class ASTBasedReducer<G extends GlobalState<O, ?, C>, O extends DBMSSpeci
             return false;
         });
 
-        boolean observeChange;
         reducedStatements = new ArrayList<>();
         for (Query<?> query : initialBugInducingStatements) {
             reducedStatements.add((Query<C>) query);
         }
 
+        if (state.getOptions().reducerUseSnapshots() && provider instanceof SnapshotSupport) {
+            snapshotCache = new SnapshotCache<>((SnapshotSupport<G, C>) provider);
+        }
+        try {
+            reduceStatements(context, transformations, maxReduceTime, maxReduceSteps);
+        } finally {
+            if (snapshotCache != null) {
+                snapshotCache.close();
+                snapshotCache = null;
+            }
+        }
+
+        newGlobalState.getState().setStatements(new ArrayList<>(reducedStatements));
+        newGlobalState.getLogger().logReduced(newGlobalState.getState());
+    }
+
+    private void reduceStatements(ReductionContext context, List<Transformation> transformations, long maxReduceTime,
+            long maxReduceSteps) {
+        boolean observeChange;
         Instant startTime = Instant.now();
         reduceProcess: do {
             observeChange = false;
@@ -90,13 +112,12 @@ public class ASTBasedReducer<G extends GlobalState<O, ?, C>, O extends DBMSSpeci
                         break reduceProcess;
                     }
 
-                    if (maxReduceSteps != MainOptions.NO_REDUCE_LIMIT
-                            && Transformation.getReduceSteps() >= maxReduceSteps) {
+                    if (maxReduceSteps != MainOptions.NO_REDUCE_LIMIT && context.getReduceSteps() >= maxReduceSteps) {
                         break reduceProcess;
                     }
 
                     Query<?> query = reducedStatements.get(i);
-                    boolean initFlag = t.init(query.getQueryString());
+                    boolean initFlag = t.init(context, i, query.getQueryString());
                     int index = i;
                     t.setStatementChangedCallBack((statementString) -> {
                         updateStatements(statementString, index);
@@ -112,9 +133,6 @@ public class ASTBasedReducer<G extends GlobalState<O, ?, C>, O extends DBMSSpeci
                 }
             }
         } while (observeChange);
-
-        newGlobalState.getState().setStatements(new ArrayList<>(reducedStatements));
-        newGlobalState.getLogger().logReduced(newGlobalState.getState());
     }
 
     public boolean bugStillTriggers() throws Exception {
@@ -123,11 +141,15 @@ public class ASTBasedReducer<G extends GlobalState<O, ?, C>, O extends DBMSSpeci
             List<Query<C>> candidateStatements = new ArrayList<>(reducedStatements);
             newGlobalState.getState().setStatements(new ArrayList<>(candidateStatements));
 
-            for (Query<C> s : candidateStatements) {
-                try {
-                    s.execute(newGlobalState);
-                } catch (Throwable ignoredException) {
-                    // ignore
+            if (snapshotCache != null) {
+                snapshotCache.replay(newGlobalState, candidateStatements);
+            } else {
+                for (Query<C> s : candidateStatements) {
+                    try {
+                        s.execute(newGlobalState);
+                    } catch (Throwable ignoredException) {
+                        // ignore
+                    }
                 }
             }
             try {
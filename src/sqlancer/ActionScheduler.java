@@ -0,0 +1,192 @@
+package sqlancer;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Selects the actions that the {@link StatementExecutor} performs when generating a database, based on their cost and
+ * success rate (see {@link MainOptions#useAdaptiveActionScheduling()}). The numbers of actions that the providers map
+ * are used as a prior: an action is drawn with a probability proportional to its mapped number, weighted by the number
+ * of successful statements per second that it achieved so far, relative to the best action of the DBMS. Thus, expensive
+ * actions or ones that usually fail with an expected error are performed less often, and cheap and successful ones up
+ * to {@value #MAX_COUNT_FACTOR} times as often as mapped, while the total number of actions stays the same.
+ *
+ * The statistics are shared by all threads that test the same DBMS. Actions with fewer than {@value #MIN_SAMPLES}
+ * executions have the maximum weight, so that they are explored, and the weights never drop below {@value #MIN_WEIGHT},
+ * so that no action is starved.
+ */
+public final class ActionScheduler {
+
+    static final int MIN_SAMPLES = 20;
+    static final double MIN_WEIGHT = 0.05;
+    static final int MAX_COUNT_FACTOR = 2;
+    private static final int REFRESH_INTERVAL = 16;
+
+    // DBMS -> action -> statistics
+    private static final Map<String, Map<String, ActionStatistics>> STATISTICS = new ConcurrentHashMap<>();
+
+    static final class ActionStatistics {
+
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        void record(boolean success, long elapsedNanos) {
+            executions.increment();
+            if (success) {
+                successes.increment();
+            }
+            nanos.add(elapsedNanos);
+        }
+
+        long getExecutions() {
+            return executions.sum();
+        }
+
+        double getSuccessRate() {
+            long nrExecutions = executions.sum();
+            return nrExecutions == 0 ? 0 : (double) successes.sum() / nrExecutions;
+        }
+
+        double getMeanNanos() {
+            long nrExecutions = executions.sum();
+            return nrExecutions == 0 ? 0 : (double) nanos.sum() / nrExecutions;
+        }
+
+        // successful statements per second, with one success and one microsecond as a prior to avoid zeros
+        double getValue() {
+            return (successes.sum() + 1) / ((nanos.sum() + TimeUnit.MICROSECONDS.toNanos(1)) / 1e9);
+        }
+    }
+
+    private final Map<String, ActionStatistics> statistics;
+    private final String[] names;
+    private final int[] counts;
+    private final int[] nrRemaining;
+    private final double[] weights;
+    private int total;
+    private int nrDraws;
+
+    /**
+     * Creates a scheduler for the actions of a single database.
+     *
+     * @param dbms
+     *            the name of the DBMS, whose statistics are used
+     * @param names
+     *            the names of the actions
+     * @param counts
+     *            the numbers of the actions that the provider mapped
+     */
+    public ActionScheduler(String dbms, String[] names, int[] counts) {
+        this.statistics = STATISTICS.computeIfAbsent(dbms, d -> new ConcurrentHashMap<>());
+        this.names = names.clone();
+        this.counts = counts.clone();
+        this.nrRemaining = new int[counts.length];
+        this.weights = new double[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            nrRemaining[i] = counts[i] * MAX_COUNT_FACTOR;
+            total += counts[i];
+        }
+    }
+
+    /**
+     * Selects the next action.
+     *
+     * @return the index of the action, or -1 if all actions have been performed
+     */
+    public int next() {
+        if (total == 0) {
+            return -1;
+        }
+        if (nrDraws++ % REFRESH_INTERVAL == 0) {
+            refreshWeights();
+        }
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (nrRemaining[i] != 0) {
+                sum += counts[i] * weights[i];
+            }
+        }
+        double selection = Randomly.getPercentage() * sum;
+        int last = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (nrRemaining[i] == 0 || counts[i] == 0) {
+                continue;
+            }
+            last = i;
+            selection -= counts[i] * weights[i];
+            if (selection < 0) {
+                break;
+            }
+        }
+        assert last != -1;
+        nrRemaining[last]--;
+        total--;
+        return last;
+    }
+
+    /**
+     * Records the execution of an action.
+     *
+     * @param action
+     *            the name of the action
+     * @param success
+     *            whether the statement of the action was executed successfully
+     * @param nanos
+     *            the time it took to generate and execute the statement, including retries
+     */
+    public void record(String action, boolean success, long nanos) {
+        statistics.computeIfAbsent(action, a -> new ActionStatistics()).record(success, nanos);
+    }
+
+    private void refreshWeights() {
+        double maxValue = getMaxValue(statistics);
+        for (int i = 0; i < names.length; i++) {
+            weights[i] = getWeight(statistics.get(names[i]), maxValue);
+        }
+    }
+
+    private static double getMaxValue(Map<String, ActionStatistics> actions) {
+        double maxValue = 0;
+        for (ActionStatistics s : actions.values()) {
+            if (s.getExecutions() >= MIN_SAMPLES) {
+                maxValue = Math.max(maxValue, s.getValue());
+            }
+        }
+        return maxValue;
+    }
+
+    private static double getWeight(ActionStatistics s, double maxValue) {
+        if (s == null || s.getExecutions() < MIN_SAMPLES || maxValue == 0) {
+            return 1;
+        }
+        return Math.max(MIN_WEIGHT, s.getValue() / maxValue);
+    }
+
+    /**
+     * Returns a report of the statistics and the learned weights of the actions of all DBMSs.
+     *
+     * @return the report, or an empty string if no actions have been scheduled
+     */
+    public static String getReport() {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(STATISTICS).forEach((dbms, actions) -> {
+            double maxValue = getMaxValue(actions);
+            sb.append(String.format("%-30s %10s %8s %12s %7s%n", dbms, "executions", "success", "mean (ms)", "weight"));
+            for (Map.Entry<String, ActionStatistics> entry : new TreeMap<>(actions).entrySet()) {
+                ActionStatistics s = entry.getValue();
+                sb.append(String.format("%-30s %10d %7.1f%% %12.3f %7.2f%n", entry.getKey(), s.getExecutions(),
+                        100 * s.getSuccessRate(), s.getMeanNanos() / 1e6, getWeight(s, maxValue)));
+            }
+        });
+        return sb.toString();
+    }
+
+    static void clear() {
+        STATISTICS.clear();
+    }
+
+}
@@ -0,0 +1,197 @@
+package sqlancer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import sqlancer.MainOptions.LogDurability;
+
+/**
+ * A {@link Writer} that does not write to its target itself, but that appends the written strings to a bounded ring
+ * buffer, which a single writer thread shared by all instances drains to the target. The writer thread writes all
+ * strings that have accumulated since it last drained the buffer at once and, depending on the {@link LogDurability},
+ * flushes the target after each such batch (group commit).
+ *
+ * Appending to the ring buffer does not take a lock, and multiple threads can write to the same instance. When the ring
+ * buffer is full, the writing thread drains it itself. {@link #sync()} writes and flushes all strings written so far
+ * before it returns, which is used to make sure that the log is complete when a bug is found.
+ */
+final class AsyncLogWriter extends Writer {
+
+    private static final int CAPACITY = 1 << 12;
+    private static final long BATCH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static final Set<AsyncLogWriter> WRITERS = ConcurrentHashMap.newKeySet();
+    private static Thread writerThread;
+
+    private final Writer target;
+    private final boolean flushEachBatch;
+    private final AtomicReferenceArray<String> entries = new AtomicReferenceArray<>(CAPACITY);
+    // the sequence number of each slot; a slot can be written at position p if its sequence is p, and read if p + 1
+    private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private final AtomicLong tail = new AtomicLong();
+    // only accessed while holding the lock of this object
+    private long head;
+    private volatile boolean closed;
+
+    private AsyncLogWriter(Writer target, LogDurability durability) {
+        this.target = target;
+        this.flushEachBatch = durability == LogDurability.GROUP_COMMIT;
+        for (int i = 0; i < CAPACITY; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Returns a writer that asynchronously writes to the given target.
+     *
+     * @param target
+     *            the writer to which the strings are eventually written
+     * @param durability
+     *            when the target is flushed; must not be {@link LogDurability#SYNC}
+     *
+     * @return the asynchronous writer
+     */
+    static AsyncLogWriter create(Writer target, LogDurability durability) {
+        if (durability == LogDurability.SYNC) {
+            throw new IllegalArgumentException(durability.toString());
+        }
+        AsyncLogWriter writer = new AsyncLogWriter(target, durability);
+        WRITERS.add(writer);
+        startWriterThread();
+        return writer;
+    }
+
+    private static synchronized void startWriterThread() {
+        if (writerThread == null) {
+            writerThread = new Thread(AsyncLogWriter::drainLoop, "sqlancer-log-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    private static void drainLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            for (AsyncLogWriter writer : WRITERS) {
+                try {
+                    writer.drain(writer.flushEachBatch);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    WRITERS.remove(writer);
+                }
+            }
+            // wait so that the next batch is large enough to amortize writing and flushing it
+            LockSupport.parkNanos(BATCH_INTERVAL_NANOS);
+        }
+    }
+
+    /**
+     * Writes and flushes the pending strings of all asynchronous writers, for example, before exiting.
+     */
+    static void syncAll() {
+        for (AsyncLogWriter writer : WRITERS) {
+            try {
+                writer.sync();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void write(String str) throws IOException {
+        if (closed) {
+            throw new IOException("writer closed");
+        }
+        while (true) {
+            long pos = tail.get();
+            int index = (int) (pos & (CAPACITY - 1));
+            long sequence = sequences.get(index);
+            if (sequence == pos) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    entries.set(index, str);
+                    sequences.set(index, pos + 1);
+                    return;
+                }
+            } else if (sequence < pos) {
+                // the buffer is full
+                drain(false);
+            }
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        write(new String(cbuf, off, len));
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        write(str.substring(off, off + len));
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        write(String.valueOf((char) c));
+    }
+
+    @Override
+    public Writer append(CharSequence csq) throws IOException {
+        write(String.valueOf(csq));
+        return this;
+    }
+
+    /**
+     * Does nothing, since the writer thread flushes the target; use {@link #sync()} to flush it immediately.
+     */
+    @Override
+    public void flush() {
+        // the callers flush after every statement, which is what this class avoids
+    }
+
+    /**
+     * Writes all strings written so far to the target, and flushes it.
+     *
+     * @throws IOException
+     *             if the target cannot be written
+     */
+    public synchronized void sync() throws IOException {
+        drain(false);
+        target.flush();
+    }
+
+    private synchronized void drain(boolean flush) throws IOException {
+        boolean drained = false;
+        while (true) {
+            int index = (int) (head & (CAPACITY - 1));
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            String str = entries.getAndSet(index, null);
+            sequences.set(index, head + CAPACITY);
+            head++;
+            target.write(str);
+            drained = true;
+        }
+        if (drained && flush) {
+            target.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        WRITERS.remove(this);
+        synchronized (this) {
+            drain(false);
+            target.close();
+        }
+    }
+
+}
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
@@ -38,6 +39,85 @@ public final class ComparatorHelper {
 
     public static List<String> getResultSetFirstColumnAsString(String queryString, ExpectedErrors errors,
             SQLGlobalState<?, ?> state) throws SQLException {
+        logQueryString(queryString, state);
+        return readFirstColumnAsString(queryString, errors, state, state.getConnection());
+    }
+
+    /**
+     * Starts reading the first column of the result set on the side connection, so that another query can be executed
+     * until its result is requested (see {@link ConcurrentQuery}).
+     *
+     * @param queryString
+     *            the query to be executed
+     * @param errors
+     *            the errors that are expected when executing the query
+     * @param state
+     *            the global state
+     *
+     * @return the computation of the first column's values
+     */
+    public static ConcurrentQuery<List<String>> submitResultSetFirstColumnAsString(String queryString,
+            ExpectedErrors errors, SQLGlobalState<?, ?> state) {
+        logQueryString(queryString, state);
+        return ConcurrentQuery.submit(state, con -> readFirstColumnAsString(queryString, errors, state, con));
+    }
+
+    private static List<String> readFirstColumnAsString(String queryString, ExpectedErrors errors,
+            SQLGlobalState<?, ?> state, SQLConnection con) throws SQLException {
+        List<String> resultSet = new ArrayList<>();
+        forEachFirstColumnValue(queryString, errors, state, con, resultSet::add);
+        return resultSet;
+    }
+
+    /**
+     * Computes the fingerprint of the first column of the result set while streaming over it, without materializing its
+     * rows.
+     *
+     * @param queryString
+     *            the query to be executed
+     * @param errors
+     *            the errors that are expected when executing the query
+     * @param state
+     *            the global state
+     *
+     * @return the fingerprint of the first column's values
+     *
+     * @throws SQLException
+     *             if the result set cannot be read
+     */
+    public static ResultSetFingerprint getResultSetFirstColumnFingerprint(String queryString, ExpectedErrors errors,
+            SQLGlobalState<?, ?> state) throws SQLException {
+        logQueryString(queryString, state);
+        return readFirstColumnFingerprint(queryString, errors, state, state.getConnection());
+    }
+
+    /**
+     * Starts computing the fingerprint of the first column of the result set on the side connection, so that another
+     * query can be executed until its result is requested (see {@link ConcurrentQuery}).
+     *
+     * @param queryString
+     *            the query to be executed
+     * @param errors
+     *            the errors that are expected when executing the query
+     * @param state
+     *            the global state
+     *
+     * @return the computation of the fingerprint of the first column's values
+     */
+    public static ConcurrentQuery<ResultSetFingerprint> submitResultSetFirstColumnFingerprint(String queryString,
+            ExpectedErrors errors, SQLGlobalState<?, ?> state) {
+        logQueryString(queryString, state);
+        return ConcurrentQuery.submit(state, con -> readFirstColumnFingerprint(queryString, errors, state, con));
+    }
+
+    private static ResultSetFingerprint readFirstColumnFingerprint(String queryString, ExpectedErrors errors,
+            SQLGlobalState<?, ?> state, SQLConnection con) throws SQLException {
+        ResultSetFingerprint fingerprint = new ResultSetFingerprint();
+        forEachFirstColumnValue(queryString, errors, state, con, fingerprint::add);
+        return fingerprint;
+    }
+
+    private static void logQueryString(String queryString, SQLGlobalState<?, ?> state) {
         if (state.getOptions().logEachSelect()) {
             // TODO: refactor me
             state.getLogger().writeCurrent(queryString);
@@ -48,12 +128,15 @@ public final class ComparatorHelper {
                 e.printStackTrace();
             }
         }
+    }
+
+    private static void forEachFirstColumnValue(String queryString, ExpectedErrors errors, SQLGlobalState<?, ?> state,
+            SQLConnection con, Consumer<String> consumer) throws SQLException {
         boolean canonicalizeString = state.getOptions().canonicalizeSqlString();
         SQLQueryAdapter q = new SQLQueryAdapter(queryString, errors, true, canonicalizeString);
-        List<String> resultSet = new ArrayList<>();
         SQLancerResultSet result = null;
         try {
-            result = q.executeAndGet(state);
+            result = q.executeAndGet(state, con);
             if (result == null) {
                 throw new IgnoreMeException();
             }
@@ -63,7 +146,7 @@ public final class ComparatorHelper {
                     resultTemp = resultTemp.replaceAll("[\\.]0+$", ""); // Remove the trailing zeros as many DBMS treat
                     // it as non-bugs
                 }
-                resultSet.add(resultTemp);
+                consumer.accept(resultTemp);
             }
         } catch (Exception e) {
             if (e instanceof IgnoreMeException) {
@@ -82,26 +165,12 @@ public final class ComparatorHelper {
                 result.close();
             }
         }
-        return resultSet;
     }
 
     public static void assumeResultSetsAreEqual(List<String> resultSet, List<String> secondResultSet,
             String originalQueryString, List<String> combinedString, SQLGlobalState<?, ?> state) {
         if (resultSet.size() != secondResultSet.size()) {
-            String queryFormatString = "-- %s;" + System.lineSeparator() + "-- cardinality: %d"
-                    + System.lineSeparator();
-            String firstQueryString = String.format(queryFormatString, originalQueryString, resultSet.size());
-            String combinedQueryString = String.join(";", combinedString);
-            String secondQueryString = String.format(queryFormatString, combinedQueryString, secondResultSet.size());
-            state.getState().getLocalState()
-                    .log(String.format("%s" + System.lineSeparator() + "%s", firstQueryString, secondQueryString));
-            String assertionMessage = String.format(
-                    "The size of the result sets mismatch (%d and %d)!" + System.lineSeparator()
-                            + "First query: \"%s\", whose cardinality is: %d" + System.lineSeparator()
-                            + "Second query:\"%s\", whose cardinality is: %d",
-                    resultSet.size(), secondResultSet.size(), originalQueryString, resultSet.size(),
-                    combinedQueryString, secondResultSet.size());
-            throw new AssertionError(assertionMessage);
+            throwSizeMismatch(resultSet.size(), secondResultSet.size(), originalQueryString, combinedString, state);
         }
 
         Set<String> firstHashSet = new HashSet<>(resultSet);
@@ -128,6 +197,80 @@ public final class ComparatorHelper {
         }
     }
 
+    /**
+     * Checks that two result sets, given by their fingerprints, are equal. Only if the fingerprints differ, the queries
+     * are executed again to materialize the result sets, which are then compared using
+     * {@link #assumeResultSetsAreEqual(List, List, String, List, SQLGlobalState)} to determine the difference. If the
+     * materialized result sets do not have the fingerprints of the first execution, for example, because a query is
+     * non-deterministic, the mismatch of the first execution is reported.
+     *
+     * @param fingerprint
+     *            the fingerprint of the original query's result set
+     * @param secondFingerprint
+     *            the fingerprint of the combined result set of the queries in combinedString
+     * @param originalQueryString
+     *            the original query
+     * @param combinedString
+     *            the queries whose result sets together should be equal to the one of the original query
+     * @param state
+     *            the global state
+     * @param errors
+     *            the errors that are expected when executing the queries again
+     *
+     * @throws SQLException
+     *             if the result sets cannot be read when executing the queries again
+     */
+    public static void assumeResultSetFingerprintsAreEqual(ResultSetFingerprint fingerprint,
+            ResultSetFingerprint secondFingerprint, String originalQueryString, List<String> combinedString,
+            SQLGlobalState<?, ?> state, ExpectedErrors errors) throws SQLException {
+        if (fingerprint.getNrRows() != secondFingerprint.getNrRows()) {
+            throwSizeMismatch(fingerprint.getNrRows(), secondFingerprint.getNrRows(), originalQueryString,
+                    combinedString, state);
+        }
+        if (state.getOptions().validateResultSizeOnly() || fingerprint.hasSameContent(secondFingerprint)) {
+            return;
+        }
+        List<String> resultSet = getResultSetFirstColumnAsString(originalQueryString, errors, state);
+        List<String> secondResultSet = new ArrayList<>();
+        for (String queryString : combinedString) {
+            secondResultSet.addAll(getResultSetFirstColumnAsString(queryString, errors, state));
+        }
+        if (!getFingerprint(resultSet).hasSameContent(fingerprint)
+                || !getFingerprint(secondResultSet).hasSameContent(secondFingerprint)) {
+            // the results changed between the executions, so the materialized ones cannot explain the mismatch
+            String assertionMessage = String.format("The content of the result sets mismatch!" + System.lineSeparator()
+                    + "First query : \"%s\"" + System.lineSeparator() + "Second query: \"%s\"" + System.lineSeparator()
+                    + "The result sets differed when executing the queries again, so the difference cannot be shown.",
+                    originalQueryString, String.join(";", combinedString));
+            state.getState().getLocalState().log(String.format("-- %s;" + System.lineSeparator() + "-- %s;",
+                    originalQueryString, String.join(";", combinedString)));
+            throw new AssertionError(assertionMessage);
+        }
+        assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString, state);
+    }
+
+    private static ResultSetFingerprint getFingerprint(List<String> resultSet) {
+        ResultSetFingerprint fingerprint = new ResultSetFingerprint();
+        resultSet.forEach(fingerprint::add);
+        return fingerprint;
+    }
+
+    private static void throwSizeMismatch(long size, long secondSize, String originalQueryString,
+            List<String> combinedString, SQLGlobalState<?, ?> state) {
+        String queryFormatString = "-- %s;" + System.lineSeparator() + "-- cardinality: %d" + System.lineSeparator();
+        String firstQueryString = String.format(queryFormatString, originalQueryString, size);
+        String combinedQueryString = String.join(";", combinedString);
+        String secondQueryString = String.format(queryFormatString, combinedQueryString, secondSize);
+        state.getState().getLocalState()
+                .log(String.format("%s" + System.lineSeparator() + "%s", firstQueryString, secondQueryString));
+        String assertionMessage = String.format(
+                "The size of the result sets mismatch (%d and %d)!" + System.lineSeparator()
+                        + "First query: \"%s\", whose cardinality is: %d" + System.lineSeparator()
+                        + "Second query:\"%s\", whose cardinality is: %d",
+                size, secondSize, originalQueryString, size, combinedQueryString, secondSize);
+        throw new AssertionError(assertionMessage);
+    }
+
     public static void assumeResultSetsAreEqual(List<String> resultSet, List<String> secondResultSet,
             String originalQueryString, List<String> combinedString, SQLGlobalState<?, ?> state,
             UnaryOperator<String> canonicalizationRule) {
@@ -161,6 +304,27 @@ public final class ComparatorHelper {
         return secondResultSet;
     }
 
+    public static ResultSetFingerprint getCombinedResultSetFingerprint(String firstQueryString,
+            String secondQueryString, String thirdQueryString, List<String> combinedString, boolean asUnion,
+            SQLGlobalState<?, ?> state, ExpectedErrors errors) throws SQLException {
+        ResultSetFingerprint secondFingerprint;
+        if (asUnion) {
+            String unionString = firstQueryString + " UNION ALL " + secondQueryString + " UNION ALL "
+                    + thirdQueryString;
+            combinedString.add(unionString);
+            secondFingerprint = getResultSetFirstColumnFingerprint(unionString, errors, state);
+        } else {
+            secondFingerprint = new ResultSetFingerprint();
+            secondFingerprint.addAll(getResultSetFirstColumnFingerprint(firstQueryString, errors, state));
+            secondFingerprint.addAll(getResultSetFirstColumnFingerprint(secondQueryString, errors, state));
+            secondFingerprint.addAll(getResultSetFirstColumnFingerprint(thirdQueryString, errors, state));
+            combinedString.add(firstQueryString);
+            combinedString.add(secondQueryString);
+            combinedString.add(thirdQueryString);
+        }
+        return secondFingerprint;
+    }
+
     public static List<String> getCombinedResultSetNoDuplicates(String firstQueryString, String secondQueryString,
             String thirdQueryString, List<String> combinedString, boolean asUnion, SQLGlobalState<?, ?> state,
             ExpectedErrors errors) throws SQLException {
@@ -0,0 +1,106 @@
+package sqlancer;
+
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A read-only computation on the database of a worker, such as executing one of the queries of an oracle check and
+ * reading its result, that is started on the worker's {@link SQLGlobalState#getSideConnection() side connection}, so
+ * that the worker can execute another query on the main connection in the meantime. For DBMSs that run as a server,
+ * this saves the round trip and execution time of one of the queries.
+ *
+ * If the side connection is not available, the computation is executed on the main connection when its result is
+ * requested, which executes the queries in the same order as without this class. If the computation fails on the side
+ * connection, it is repeated on the main connection, so that only the errors of the main connection are reported.
+ *
+ * @param <T>
+ *            the type of the result
+ */
+public final class ConcurrentQuery<T> {
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "sqlancer-side-connection");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final SQLGlobalState<?, ?> state;
+    private final QueryFunction<T> function;
+    private final Future<T> future;
+
+    @FunctionalInterface
+    public interface QueryFunction<T> {
+
+        /**
+         * Executes the computation.
+         *
+         * @param con
+         *            the connection on which the queries must be executed
+         *
+         * @return the result
+         *
+         * @throws SQLException
+         *             if the result cannot be read
+         */
+        T apply(SQLConnection con) throws SQLException;
+
+    }
+
+    private ConcurrentQuery(SQLGlobalState<?, ?> state, QueryFunction<T> function, Future<T> future) {
+        this.state = state;
+        this.function = function;
+        this.future = future;
+    }
+
+    /**
+     * Starts the computation on the side connection of the given state, if it is available.
+     *
+     * @param <T>
+     *            the type of the result
+     * @param state
+     *            the state of the database
+     * @param function
+     *            the computation, which must not modify the database or the state
+     *
+     * @return the computation
+     */
+    public static <T> ConcurrentQuery<T> submit(SQLGlobalState<?, ?> state, QueryFunction<T> function) {
+        SQLConnection sideConnection = state.getSideConnection();
+        Future<T> future = null;
+        if (sideConnection != null) {
+            ExecutionCounters counters = ExecutionCounters.current();
+            future = EXECUTOR.submit(() -> {
+                ExecutionCounters.bind(counters);
+                return function.apply(sideConnection);
+            });
+            state.setSideConnectionTask(future);
+        }
+        return new ConcurrentQuery<>(state, function, future);
+    }
+
+    /**
+     * Returns the result of the computation, waiting for it to finish on the side connection.
+     *
+     * @return the result
+     *
+     * @throws SQLException
+     *             if the result cannot be read on the main connection
+     */
+    public T get() throws SQLException {
+        if (future != null) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IgnoreMeException();
+            } catch (ExecutionException e) {
+                // repeat it on the main connection
+            }
+        }
+        return function.apply(state.getConnection());
+    }
+
+}
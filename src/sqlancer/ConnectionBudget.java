@@ -0,0 +1,82 @@
+package sqlancer;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of databases (and thus connections) that the worker threads of a single {@link DatabaseProvider}
+ * can have open at the same time. This is mainly useful together with a large number of (virtual) worker threads, to
+ * avoid overwhelming a DBMS server.
+ */
+public final class ConnectionBudget {
+
+    public static final int UNLIMITED = -1;
+
+    private final Semaphore permits;
+    private final AtomicInteger nrBlocked = new AtomicInteger();
+    private final AtomicInteger nrRunning = new AtomicInteger();
+
+    public ConnectionBudget(int maxConnections) {
+        if (maxConnections == UNLIMITED) {
+            permits = null;
+        } else if (maxConnections <= 0) {
+            throw new AssertionError(maxConnections);
+        } else {
+            permits = new Semaphore(maxConnections, true);
+        }
+    }
+
+    public void acquire() throws InterruptedException {
+        if (permits != null) {
+            nrBlocked.incrementAndGet();
+            try {
+                permits.acquire();
+            } finally {
+                nrBlocked.decrementAndGet();
+            }
+        }
+        nrRunning.incrementAndGet();
+    }
+
+    public void release() {
+        nrRunning.decrementAndGet();
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Reserves a connection for a database that is created in advance, unless no connection is available or a worker is
+     * waiting for one. Unlike {@link #acquire()}, the connection does not count as a running worker.
+     *
+     * @return true if the connection was reserved
+     */
+    public boolean tryReserve() {
+        return permits == null || nrBlocked.get() == 0 && permits.tryAcquire();
+    }
+
+    public void unreserve() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Gets the number of workers that are waiting for a connection to become available.
+     *
+     * @return the number of blocked workers
+     */
+    public int getNrBlocked() {
+        return nrBlocked.get();
+    }
+
+    /**
+     * Gets the number of workers that currently hold a connection.
+     *
+     * @return the number of running workers
+     */
+    public int getNrRunning() {
+        return nrRunning.get();
+    }
+
+}
@@ -0,0 +1,267 @@
+package sqlancer;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Creates the databases of the worker threads ahead of time, so that a worker that has finished testing a database does
+ * not have to wait for the DBMS server to drop it and to create and connect to the next one. There is one pool for each
+ * DBMS and database prefix, which is shared by the worker threads and the reducer. Each pool has as many background
+ * threads as it creates databases in advance, which are handed out in the order in which they were requested, and the
+ * background threads drop each database that was handed out once its connection is closed.
+ *
+ * The options with which a database is created are drawn by the worker that triggers its creation, which is not
+ * necessarily the worker that gets the database. Thus, the options cannot be derived from the seed of the worker that
+ * tests the database; however, the log of each database contains them. A database that is created in advance holds a
+ * connection, and thus counts towards the {@link ConnectionBudget} until it is handed out; no database is created in
+ * advance if the budget is exhausted. The databases that have not been handed out when the JVM exits are dropped.
+ */
+public final class DatabasePool {
+
+    private static final Map<String, DatabasePool> POOLS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> POOLS.values().forEach(DatabasePool::close)));
+    }
+
+    private final String databasePrefix;
+    private final int size;
+    private final DatabaseCreator creator;
+    // null if the number of connections is not limited
+    private final ConnectionBudget budget;
+    private final ExecutorService executor;
+    private final Deque<Future<PooledDatabase>> pending = new ArrayDeque<>();
+    private int nextIndex;
+    // the databases that could not be dropped, which are dropped again when the pool is closed
+    private final Set<String> undroppedDatabaseNames = ConcurrentHashMap.newKeySet();
+
+    public interface DatabaseCreator {
+
+        /**
+         * Creates a database, replacing any database with the same name, and connects to it.
+         *
+         * @param databaseName
+         *            the name of the database
+         * @param createOptions
+         *            the DBMS-specific options with which the database is created
+         *
+         * @return a connection to the database
+         *
+         * @throws SQLException
+         *             if the database cannot be created
+         */
+        SQLConnection create(String databaseName, String createOptions) throws SQLException;
+
+        void drop(String databaseName) throws SQLException;
+
+    }
+
+    public static final class PooledDatabase {
+
+        private final String name;
+        private final String createOptions;
+        private final SQLConnection connection;
+
+        PooledDatabase(String name, String createOptions, SQLConnection connection) {
+            this.name = name;
+            this.createOptions = createOptions;
+            this.connection = connection;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getCreateOptions() {
+            return createOptions;
+        }
+
+        public SQLConnection getConnection() {
+            return connection;
+        }
+
+    }
+
+    private DatabasePool(String databasePrefix, int size, DatabaseCreator creator, ConnectionBudget budget) {
+        if (size <= 0) {
+            throw new AssertionError(size);
+        }
+        this.databasePrefix = databasePrefix;
+        this.size = size;
+        this.creator = creator;
+        this.budget = budget;
+        AtomicInteger nrThreads = new AtomicInteger();
+        // the databases are created concurrently, like by the workers without a pool
+        this.executor = Executors.newFixedThreadPool(size, r -> {
+            Thread t = new Thread(r, "sqlancer-database-pool-" + databasePrefix + "-" + nrThreads.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Returns the pool of the given DBMS and database prefix, creating it if necessary.
+     *
+     * @param key
+     *            identifies the DBMS and the database prefix
+     * @param databasePrefix
+     *            the prefix of the names of the pooled databases
+     * @param size
+     *            the number of databases that are created in advance
+     * @param creator
+     *            creates and drops the databases
+     *
+     * @return the pool
+     */
+    public static DatabasePool get(String key, String databasePrefix, int size, DatabaseCreator creator) {
+        return get(key, databasePrefix, size, creator, Main.getConnectionBudget());
+    }
+
+    static DatabasePool get(String key, String databasePrefix, int size, DatabaseCreator creator,
+            ConnectionBudget budget) {
+        return POOLS.computeIfAbsent(key, k -> new DatabasePool(databasePrefix, size, creator, budget));
+    }
+
+    /**
+     * Returns the next database, which is created in the calling thread only if no database has been created in
+     * advance. The database is dropped in the background once its connection is closed. The pool is not locked while
+     * the database is created or awaited, so that the workers do not wait for each other.
+     *
+     * @param createOptions
+     *            supplies the options of each database that is requested; called once for each database that is created
+     *
+     * @return the database
+     *
+     * @throws SQLException
+     *             if the database could not be created
+     */
+    public PooledDatabase acquire(Supplier<String> createOptions) throws SQLException {
+        Future<PooledDatabase> next;
+        String name = null;
+        String options = null;
+        synchronized (this) {
+            next = pending.poll();
+            if (next == null) {
+                name = getNextName();
+                options = createOptions.get();
+            }
+            createInAdvance(createOptions);
+        }
+        PooledDatabase database = next == null ? create(name, options) : await(next);
+        String databaseName = database.getName();
+        database.getConnection().setCloseHook(() -> dropLater(databaseName));
+        return database;
+    }
+
+    private void createInAdvance(Supplier<String> createOptions) {
+        while (pending.size() < size && (budget == null || budget.tryReserve())) {
+            String name = getNextName();
+            String options = createOptions.get();
+            pending.add(executor.submit(() -> {
+                try {
+                    return create(name, options);
+                } catch (SQLException | RuntimeException e) {
+                    release();
+                    throw e;
+                }
+            }));
+        }
+    }
+
+    private String getNextName() {
+        return databasePrefix + "_" + nextIndex++;
+    }
+
+    private PooledDatabase create(String name, String createOptions) throws SQLException {
+        return new PooledDatabase(name, createOptions, creator.create(name, createOptions));
+    }
+
+    private void dropLater(String name) {
+        try {
+            executor.execute(() -> drop(name));
+        } catch (RejectedExecutionException e) {
+            // the pool has been closed
+            drop(name);
+        }
+    }
+
+    private void drop(String name) {
+        try {
+            creator.drop(name);
+            undroppedDatabaseNames.remove(name);
+        } catch (SQLException e) {
+            undroppedDatabaseNames.add(name);
+            e.printStackTrace();
+        }
+    }
+
+    private void release() {
+        if (budget != null) {
+            budget.unreserve();
+        }
+    }
+
+    /**
+     * Closes and drops the databases that were created in advance but not handed out, and tries again to drop the
+     * databases that could not be dropped before.
+     */
+    synchronized void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Future<PooledDatabase> future : pending) {
+            if (!future.isDone()) {
+                future.cancel(true);
+                continue;
+            }
+            try {
+                PooledDatabase database = future.get();
+                release();
+                database.getConnection().close();
+                drop(database.getName());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // the database was not created, and its permit has been released
+            }
+        }
+        pending.clear();
+        for (String name : List.copyOf(undroppedDatabaseNames)) {
+            drop(name);
+        }
+    }
+
+    private PooledDatabase await(Future<PooledDatabase> database) throws SQLException {
+        try {
+            PooledDatabase result = database.get();
+            // the database is handed out to a thread that has acquired a connection of its own
+            release();
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IgnoreMeException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new AssertionError(e.getCause());
+        }
+    }
+
+}
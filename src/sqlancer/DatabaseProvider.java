@@ -46,6 +46,20 @@ public interface DatabaseProvider<G extends GlobalState<O, ?, C>, O extends DBMS
 
     C createDatabase(G globalState) throws Exception;
 
+    /**
+     * Drops a database that was created by {@link #createDatabase(GlobalState)} and whose connection has been closed,
+     * for example, a scratch database of the reducer. DBMSs that do not keep databases beyond their connection do not
+     * need to drop them.
+     *
+     * @param globalState
+     *            the state whose database is dropped.
+     *
+     * @throws Exception
+     *             if dropping the database fails.
+     */
+    default void dropDatabase(G globalState) throws Exception {
+    }
+
     /**
      * The DBMS name is used to name the log directory and command to test the respective DBMS.
      *
@@ -0,0 +1,115 @@
+package sqlancer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the executed queries, databases, and statements. Each worker has its own set of counters, which avoids
+ * contention on shared counters between the threads, and which allows attributing the throughput to workers and DBMSs.
+ * The totals are aggregated only when they are read, for example, by the progress monitor.
+ */
+public final class ExecutionCounters {
+
+    public enum Counter {
+        QUERIES, DATABASES, SUCCESSFUL_STATEMENTS, UNSUCCESSFUL_STATEMENTS, TIMED_OUT_STATEMENTS, NOVEL_QUERIES,
+        DUPLICATE_QUERIES, DUPLICATE_FAILURES
+    }
+
+    static final String UNKNOWN = "unknown";
+
+    private static final Map<String, ExecutionCounters> ALL_COUNTERS = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<ExecutionCounters> CURRENT = ThreadLocal
+            .withInitial(() -> get(UNKNOWN, Thread.currentThread().getName()));
+
+    private final String dbms;
+    private final String worker;
+    // LongAdders rather than plain fields, since threads that are not bound to a worker share counters
+    private final LongAdder[] counts = new LongAdder[Counter.values().length];
+
+    private ExecutionCounters(String dbms, String worker) {
+        this.dbms = dbms;
+        this.worker = worker;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    private static ExecutionCounters get(String dbms, String worker) {
+        return ALL_COUNTERS.computeIfAbsent(dbms + "/" + worker, k -> new ExecutionCounters(dbms, worker));
+    }
+
+    /**
+     * Attributes the counts of the current thread to the given DBMS and worker, until another worker is bound to it.
+     *
+     * @param dbms
+     *            the name of the DBMS under test
+     * @param worker
+     *            the name of the worker, for example, the name of its database
+     */
+    public static void bind(String dbms, String worker) {
+        CURRENT.set(get(dbms, worker));
+    }
+
+    static ExecutionCounters current() {
+        return CURRENT.get();
+    }
+
+    static void bind(ExecutionCounters counters) {
+        CURRENT.set(counters);
+    }
+
+    public static void increment(Counter counter) {
+        CURRENT.get().counts[counter.ordinal()].increment();
+    }
+
+    public static long getTotal(Counter counter) {
+        long sum = 0;
+        for (ExecutionCounters counters : ALL_COUNTERS.values()) {
+            sum += counters.get(counter);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the totals of the given counter by DBMS.
+     *
+     * @param counter
+     *            the counter
+     *
+     * @return the totals, sorted by the name of the DBMS
+     */
+    public static Map<String, Long> getTotalsByDBMS(Counter counter) {
+        Map<String, Long> totals = new TreeMap<>();
+        for (ExecutionCounters counters : ALL_COUNTERS.values()) {
+            totals.merge(counters.dbms, counters.get(counter), Long::sum);
+        }
+        return totals;
+    }
+
+    /**
+     * Returns the counters of all workers.
+     *
+     * @return the counters, sorted by DBMS and worker
+     */
+    public static List<ExecutionCounters> getAll() {
+        return new ArrayList<>(new TreeMap<>(ALL_COUNTERS).values());
+    }
+
+    public long get(Counter counter) {
+        return counts[counter.ordinal()].sum();
+    }
+
+    public String getDBMS() {
+        return dbms;
+    }
+
+    public String getWorker() {
+        return worker;
+    }
+
+}
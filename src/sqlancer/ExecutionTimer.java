@@ -1,15 +1,36 @@
 package sqlancer;
 
+import java.util.concurrent.TimeUnit;
+
 public final class ExecutionTimer {
 
     private long startTime;
     private long endTime;
+    private long startNanos;
 
     public ExecutionTimer start() {
-        startTime = System.currentTimeMillis();
+        return start(0);
+    }
+
+    /**
+     * Starts the timer as if it had been started the given time ago, for example, for a statement that was timed as
+     * part of a batch.
+     *
+     * @param elapsedNanos
+     *            the time that has already elapsed
+     *
+     * @return the timer
+     */
+    public ExecutionTimer start(long elapsedNanos) {
+        startTime = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        startNanos = System.nanoTime() - elapsedNanos;
         return this;
     }
 
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
     public ExecutionTimer end() {
         endTime = System.currentTimeMillis();
         return this;
@@ -0,0 +1,113 @@
+package sqlancer;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import sqlancer.ExecutionCounters.Counter;
+import sqlancer.common.oracle.CompositeTestOracle;
+import sqlancer.common.oracle.TestOracle;
+
+/**
+ * Deduplicates the failures that are found when testing continues after a bug (see
+ * {@link MainOptions#continueAfterBug()}), so that a bug that is found repeatedly is logged and reduced only once.
+ *
+ * A failure is identified by a fingerprint that consists of the DBMS, the oracle that detected it, the types of the
+ * exception and its causes, and the set of words and operators in the first lines of their messages. The queries that
+ * the oracles include in their messages, which follow the first line or make up the whole message, are not part of the
+ * fingerprint, since they differ for each failure, so that, for example, two result set mismatches of the TLP oracle
+ * are duplicates independently of the queries that exposed them. The first lines are normalized like the queries of the
+ * {@link QueryNoveltyFilter}, and words that contain digits are not included, so that two failures with the same error
+ * message are duplicates independently of the tables, columns, and constants that it mentions.
+ */
+public final class FailureIndex {
+
+    private static final int MAX_CAUSES = 5;
+    // words without digits, which excludes the normalized table and column names, and operators
+    private static final Pattern WORD = Pattern.compile("\\b[A-Za-z_]+\\b|[<>=!|&+\\-*/%~]+");
+    // a message that is a query, such as the message of an error that a query caused unexpectedly; the generated
+    // queries are upper case, unlike error messages such as "Check constraint 'c0' is violated."
+    private static final Pattern QUERY = Pattern.compile(
+            "\\s*(?:--\\s*)?(?:SELECT|WITH|VALUES|INSERT|UPDATE|DELETE|REPLACE|MERGE|CREATE|ALTER|DROP|TRUNCATE|EXPLAIN|"
+                    + "PRAGMA|SET|SHOW|ANALYZE|VACUUM|REINDEX|OPTIMIZE|CHECK|REPAIR|GRANT|REVOKE|BEGIN|START|COMMIT|"
+                    + "ROLLBACK|DISCARD|RESET|COMMENT|CLUSTER)\\b");
+
+    private static final Map<String, LongAdder> FAILURES = new ConcurrentHashMap<>();
+
+    private FailureIndex() {
+    }
+
+    /**
+     * Discards a failure that has already been found by any thread, by throwing an {@link IgnoreMeException}, so that
+     * the thread continues with the next database without logging or reducing the failure again.
+     *
+     * @param globalState
+     *            the state of the database on which the failure was found
+     * @param oracle
+     *            the oracle that detected the failure, or null if it occurred while generating the database
+     * @param failure
+     *            the failure
+     *
+     * @throws IgnoreMeException
+     *             if the failure is a duplicate
+     */
+    public static void ignoreIfKnown(GlobalState<?, ?, ?> globalState, TestOracle<?> oracle, Throwable failure) {
+        if (!globalState.getOptions().continueAfterBug()) {
+            return;
+        }
+        LongAdder count = FAILURES.putIfAbsent(getFingerprint(globalState, oracle, failure), new LongAdder());
+        if (count != null) {
+            count.increment();
+            ExecutionCounters.increment(Counter.DUPLICATE_FAILURES);
+            throw new IgnoreMeException();
+        }
+    }
+
+    static String getFingerprint(GlobalState<?, ?, ?> globalState, TestOracle<?> oracle, Throwable failure) {
+        TestOracle<?> failedOracle = oracle;
+        if (failedOracle instanceof CompositeTestOracle) {
+            failedOracle = ((CompositeTestOracle<?>) failedOracle).getCurrentOracle();
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(globalState.getClass().getName());
+        sb.append('|');
+        sb.append(failedOracle == null ? "generation" : failedOracle.getClass().getName());
+        Set<String> words = new TreeSet<>();
+        int depth = 0;
+        for (Throwable t = failure; t != null && depth < MAX_CAUSES; t = t.getCause(), depth++) {
+            sb.append('|');
+            sb.append(t.getClass().getName());
+            if (t.getMessage() == null) {
+                // for example, a NullPointerException in a generator
+                StackTraceElement[] stackTrace = t.getStackTrace();
+                if (stackTrace.length != 0) {
+                    sb.append('@');
+                    sb.append(stackTrace[0]);
+                }
+            } else {
+                Matcher matcher = WORD.matcher(QueryNoveltyFilter.normalize(getHeadline(t.getMessage())));
+                while (matcher.find()) {
+                    words.add(matcher.group());
+                }
+            }
+        }
+        sb.append('|');
+        sb.append(String.join(" ", words));
+        return sb.toString();
+    }
+
+    // the part of a message that precedes the queries in it
+    private static String getHeadline(String message) {
+        String firstLine = message.split("\\R", 2)[0];
+        return QUERY.matcher(firstLine).lookingAt() ? "" : firstLine;
+    }
+
+    static void clear() {
+        FAILURES.clear();
+    }
+
+}
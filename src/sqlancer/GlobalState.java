@@ -1,21 +1,43 @@
 package sqlancer;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
 import sqlancer.common.query.Query;
 import sqlancer.common.query.SQLancerResultSet;
 import sqlancer.common.schema.AbstractSchema;
 import sqlancer.common.schema.AbstractTable;
+import sqlancer.common.schema.RowCountEstimate;
 
 public abstract class GlobalState<O extends DBMSSpecificOptions<?>, S extends AbstractSchema<?, ?>, C extends SQLancerDBConnection> {
 
+    private static final Pattern BEGIN = Pattern.compile("(?:BEGIN|START\\s+TRANSACTION)\\b");
+    private static final Pattern END = Pattern.compile("(?:COMMIT|END|ROLLBACK(?!.*\\bTO\\b))\\b");
+
     protected C databaseConnection;
     private Randomly r;
     private MainOptions options;
     private O dbmsSpecificOptions;
     private S schema;
+    private boolean schemaIsStale;
+    private RowCountEstimate rowCountEstimate;
     private Main.StateLogger logger;
     private StateToReproduce state;
     private Main.QueryManager<C> manager;
     private String databaseName;
+    private String statementKind;
+    private boolean transactionMightBeActive;
+
+    /**
+     * Is notified of the outcome of each statement of a batch, in the order of the statements, as soon as it has taken
+     * effect and before the next statements of the batch are executed, together with its latency. The statements that
+     * are sent to the DBMS at once share the latency of their batch.
+     */
+    @FunctionalInterface
+    public interface BatchListener {
+        void executed(int index, boolean success, long nanos) throws Exception;
+    }
 
     public void setConnection(C con) {
         this.databaseConnection = con;
@@ -82,11 +104,30 @@ public abstract class GlobalState<O extends DBMSSpecificOptions<?>, S extends Ab
         this.databaseName = databaseName;
     }
 
+    /**
+     * Sets the kind of the statements that are executed next (e.g., the action of the generator), by which their
+     * latencies are tagged in the {@link StatementMetrics}.
+     *
+     * @param statementKind
+     *            the kind of the statements, or null if unknown
+     */
+    public void setStatementKind(String statementKind) {
+        this.statementKind = statementKind;
+    }
+
+    public String getStatementKind() {
+        return statementKind;
+    }
+
     private ExecutionTimer executePrologue(Query<?> q) throws Exception {
+        return executePrologue(q, 0);
+    }
+
+    private ExecutionTimer executePrologue(Query<?> q, long elapsedNanos) throws Exception {
         boolean logExecutionTime = getOptions().logExecutionTime();
         ExecutionTimer timer = null;
-        if (logExecutionTime) {
-            timer = new ExecutionTimer().start();
+        if (logExecutionTime || StatementMetrics.isEnabled()) {
+            timer = new ExecutionTimer().start(elapsedNanos);
         }
         if (getOptions().printAllStatements()) {
             System.out.println(q.getLogString());
@@ -106,30 +147,130 @@ public abstract class GlobalState<O extends DBMSSpecificOptions<?>, S extends Ab
     public boolean executeStatement(Query<C> q, String... fills) throws Exception {
         ExecutionTimer timer = executePrologue(q);
         boolean success = manager.execute(q, fills);
+        recordLatency(success, timer);
         executeEpilogue(q, success, timer);
+        updateTransactionState(q, success);
         return success;
     }
 
+    private void updateTransactionState(Query<C> q, boolean success) {
+        String sql = q.getQueryString().trim().toUpperCase(Locale.ROOT);
+        if (BEGIN.matcher(sql).lookingAt()) {
+            transactionMightBeActive = true;
+        } else if (success && END.matcher(sql).lookingAt()) {
+            transactionMightBeActive = false;
+        }
+    }
+
+    /**
+     * Returns whether a transaction that was started by an executed statement (e.g., BEGIN) might still be active, in
+     * which case other connections might not see the changes made by the statements.
+     *
+     * @return whether a transaction might be active
+     */
+    public boolean transactionMightBeActive() {
+        return transactionMightBeActive;
+    }
+
     public SQLancerResultSet executeStatementAndGet(Query<C> q, String... fills) throws Exception {
         ExecutionTimer timer = executePrologue(q);
         SQLancerResultSet result = manager.executeAndGet(q, fills);
         boolean success = result != null;
         if (success) {
             result.registerEpilogue(() -> {
+                recordLatency(success, timer);
                 try {
                     executeEpilogue(q, success, timer);
                 } catch (Exception e) {
                     throw new AssertionError(e);
                 }
             });
+        } else {
+            recordLatency(success, timer);
         }
         return result;
     }
 
+    /**
+     * Executes the given statements, which cannot affect the schema, in order as a single batch. Since the statements
+     * of a batch are sent to the DBMS at once, each statement is logged and its latency recorded only once it has taken
+     * effect.
+     *
+     * @param queries
+     *            the statements
+     * @param statementKinds
+     *            the kind of each statement (see {@link #setStatementKind(String)}), under which its latency is
+     *            recorded
+     * @param listener
+     *            is notified of each statement once it has taken effect, which allows, for example, executing another
+     *            statement in place of a failed one
+     *
+     * @return for each statement, whether it was executed successfully
+     *
+     * @throws Exception
+     *             if a statement failed with an unexpected error
+     */
+    public boolean[] executeStatements(List<Query<C>> queries, List<String> statementKinds, BatchListener listener)
+            throws Exception {
+        return manager.executeBatch(queries, (i, success, nanos) -> {
+            ExecutionTimer timer = executePrologue(queries.get(i), nanos);
+            recordLatency(statementKinds.get(i), success, timer);
+            executeEpilogue(queries.get(i), success, timer);
+            listener.executed(i, success, nanos);
+        });
+    }
+
+    /**
+     * Executes the given statements in order. DBMSs that {@link #supportsBatchedStatements() support batches} send them
+     * in as few round trips as possible, but must behave as if they were executed one by one.
+     *
+     * @param queries
+     *            the statements
+     * @param listener
+     *            is notified of each statement once it has taken effect
+     *
+     * @return for each statement, whether it was executed successfully
+     *
+     * @throws Exception
+     *             if a statement failed with an unexpected error
+     */
+    protected boolean[] executeBatch(List<Query<C>> queries, BatchListener listener) throws Exception {
+        boolean[] success = new boolean[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            long startNanos = System.nanoTime();
+            success[i] = queries.get(i).execute(this);
+            listener.executed(i, success[i], System.nanoTime() - startNanos);
+        }
+        return success;
+    }
+
+    /**
+     * Returns whether the {@link StatementExecutor} can send consecutive INSERT, UPDATE, and DELETE statements as a
+     * batch (see {@link MainOptions#getBatchSize()}), which requires that the DBMS can roll back their effects.
+     *
+     * @return whether statements can be batched
+     */
+    protected boolean supportsBatchedStatements() {
+        return false;
+    }
+
+    private void recordLatency(boolean success, ExecutionTimer timer) {
+        recordLatency(statementKind, success, timer);
+    }
+
+    private void recordLatency(String kind, boolean success, ExecutionTimer timer) {
+        if (timer != null && StatementMetrics.isEnabled()) {
+            StatementMetrics.record(kind, success ? StatementMetrics.SUCCESS : StatementMetrics.EXPECTED_ERROR,
+                    timer.getElapsedNanos());
+        }
+    }
+
     public S getSchema() {
-        if (schema == null) {
+        if (schema == null || schemaIsStale) {
             try {
                 updateSchema();
+            } catch (IgnoreMeException e) {
+                throw e;
             } catch (Exception e) {
                 throw new AssertionError(e.getMessage());
             }
@@ -141,13 +282,65 @@ public abstract class GlobalState<O extends DBMSSpecificOptions<?>, S extends Ab
         this.schema = schema;
     }
 
+    /**
+     * Returns the schema that was last read, without reading it again if it is stale. Implementations of
+     * {@link #readSchema()} can use it to reuse the parts of the schema that have not changed.
+     *
+     * @return the last schema, or null if it has not been read yet
+     */
+    protected S getCachedSchema() {
+        return schema;
+    }
+
     public void updateSchema() throws Exception {
         setSchema(readSchema());
+        schemaIsStale = false;
         for (AbstractTable<?, ?, ?> table : schema.getDatabaseTables()) {
             table.recomputeCount();
         }
     }
 
+    /**
+     * Marks the schema as stale, so that it is read again only when it is next requested. Executing several statements
+     * that could affect the schema in a row thus reads it only once.
+     */
+    public void invalidateSchema() {
+        schemaIsStale = true;
+    }
+
+    /**
+     * Returns whether a statement that failed with an expected error could nevertheless have changed the schema. DBMSs
+     * whose DDL statements are atomic can return false, so that the schema is not read again after failed statements.
+     *
+     * @return whether the schema must be read again after a failed statement
+     */
+    protected boolean failedStatementsCanAffectSchema() {
+        return true;
+    }
+
     protected abstract S readSchema() throws Exception;
 
+    /**
+     * Returns the number of rows of the tables as tracked from the executed statements, which can be obtained without
+     * querying the database.
+     *
+     * @return the row count estimate of this database
+     */
+    public RowCountEstimate getRowCountEstimate() {
+        if (rowCountEstimate == null) {
+            rowCountEstimate = new RowCountEstimate(canTrackRowCounts());
+        }
+        return rowCountEstimate;
+    }
+
+    /**
+     * Returns whether the number of rows of the tables can be tracked from the update counts of the executed
+     * statements, which requires that single statements are atomic, and that views cannot be updated.
+     *
+     * @return whether the {@link RowCountEstimate} is enabled
+     */
+    protected boolean canTrackRowCounts() {
+        return false;
+    }
+
 }
@@ -5,6 +5,8 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -22,7 +24,10 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.JCommander.Builder;
+import com.sun.net.httpserver.HttpServer;
 
+import sqlancer.ExecutionCounters.Counter;
+import sqlancer.MainOptions.LogDurability;
 import sqlancer.citus.CitusProvider;
 import sqlancer.clickhouse.ClickHouseProvider;
 import sqlancer.cnosdb.CnosDBProvider;
@@ -52,12 +57,9 @@ import sqlancer.yugabyte.ysql.YSQLProvider;
 public final class Main {
 
     public static final File LOG_DIRECTORY = new File("logs");
-    public static volatile AtomicLong nrQueries = new AtomicLong();
-    public static volatile AtomicLong nrDatabases = new AtomicLong();
-    public static volatile AtomicLong nrSuccessfulActions = new AtomicLong();
-    public static volatile AtomicLong nrUnsuccessfulActions = new AtomicLong();
     public static volatile AtomicLong threadsShutdown = new AtomicLong();
     static boolean progressMonitorStarted;
+    private static volatile ConnectionBudget connectionBudget;
 
     static {
         System.setProperty(org.slf4j.simple.SimpleLogger.DEFAULT_LOG_LEVEL_KEY, "ERROR");
@@ -66,23 +68,30 @@ public final class Main {
         }
     }
 
+    // the budget of the DBMS that is being tested, or null if none is tested
+    static ConnectionBudget getConnectionBudget() {
+        return connectionBudget;
+    }
+
     private Main() {
     }
 
     public static final class StateLogger {
 
+        private final String name;
         private final File loggerFile;
         private File curFile;
         private File queryPlanFile;
         private File reduceFile;
         private FileWriter logFileWriter;
-        public FileWriter currentFileWriter;
-        private FileWriter queryPlanFileWriter;
+        public Writer currentFileWriter;
+        private Writer queryPlanFileWriter;
         private FileWriter reduceFileWriter;
 
         private static final List<String> INITIALIZED_PROVIDER_NAMES = new ArrayList<>();
         private final boolean logEachSelect;
         private final boolean logQueryPlan;
+        private final LogDurability logDurability;
 
         private final boolean useReducer;
         private final DatabaseProvider<?, ?, ?> databaseProvider;
@@ -112,12 +121,14 @@ public final class Main {
                 throw new AssertionError(dir);
             }
             ensureExistsAndIsEmpty(dir, provider);
+            name = databaseName;
             loggerFile = new File(dir, databaseName + ".log");
             logEachSelect = options.logEachSelect();
             if (logEachSelect) {
                 curFile = new File(dir, databaseName + "-cur.log");
             }
             logQueryPlan = options.logQueryPlan();
+            logDurability = options.getLogDurability();
             if (logQueryPlan) {
                 queryPlanFile = new File(dir, databaseName + "-plan.log");
             }
@@ -133,6 +144,15 @@ public final class Main {
             this.databaseProvider = provider;
         }
 
+        /**
+         * Gets the name of the logs, which is the name of the database whose statements they contain.
+         *
+         * @return the name of the logs, without a file extension
+         */
+        public String getName() {
+            return name;
+        }
+
         private void ensureExistsAndIsEmpty(File dir, DatabaseProvider<?, ?, ?> provider) {
             if (INITIALIZED_PROVIDER_NAMES.contains(provider.getDBMSName())) {
                 return;
@@ -167,34 +187,55 @@ public final class Main {
             return logFileWriter;
         }
 
-        public FileWriter getCurrentFileWriter() {
+        public Writer getCurrentFileWriter() {
             if (!logEachSelect) {
                 throw new UnsupportedOperationException();
             }
             if (currentFileWriter == null) {
-                try {
-                    currentFileWriter = new FileWriter(curFile, false);
-                } catch (IOException e) {
-                    throw new AssertionError(e);
-                }
+                currentFileWriter = openLogFile(curFile, false);
             }
             return currentFileWriter;
         }
 
-        public FileWriter getQueryPlanFileWriter() {
+        public Writer getQueryPlanFileWriter() {
             if (!logQueryPlan) {
                 throw new UnsupportedOperationException();
             }
             if (queryPlanFileWriter == null) {
-                try {
-                    queryPlanFileWriter = new FileWriter(queryPlanFile, true);
-                } catch (IOException e) {
-                    throw new AssertionError(e);
-                }
+                queryPlanFileWriter = openLogFile(queryPlanFile, true);
             }
             return queryPlanFileWriter;
         }
 
+        private Writer openLogFile(File file, boolean append) {
+            FileWriter writer;
+            try {
+                writer = new FileWriter(file, append);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            if (logDurability == LogDurability.SYNC) {
+                return writer;
+            }
+            return AsyncLogWriter.create(writer, logDurability);
+        }
+
+        /**
+         * Writes the statements that have been logged asynchronously so far to the disk, so that the logs are complete
+         * when a bug is reported.
+         */
+        public void sync() {
+            for (Writer writer : new Writer[] { currentFileWriter, queryPlanFileWriter }) {
+                if (writer instanceof AsyncLogWriter) {
+                    try {
+                        ((AsyncLogWriter) writer).sync();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+
         public FileWriter getReduceFileWriter() {
             if (!useReducer) {
                 throw new UnsupportedOperationException();
@@ -299,6 +340,7 @@ public final class Main {
         }
 
         public void logException(Throwable reduce, StateToReproduce state) {
+            sync();
             Loggable stackTrace = getStackTrace(reduce);
             FileWriter logFileWriter2 = getLogFileWriter();
             try {
@@ -319,7 +361,7 @@ public final class Main {
             return databaseProvider.getLoggableFactory().convertStacktraceToLoggable(e1);
         }
 
-        private void printState(FileWriter writer, StateToReproduce state) {
+        private void printState(Writer writer, StateToReproduce state) {
             StringBuilder sb = new StringBuilder();
 
             sb.append(databaseProvider.getLoggableFactory()
@@ -355,31 +397,39 @@ public final class Main {
         public boolean execute(Query<C> q, String... fills) throws Exception {
             boolean success;
             success = q.execute(globalState, fills);
-            Main.nrSuccessfulActions.addAndGet(1);
             if (globalState.getOptions().loggerPrintFailed() || success) {
                 globalState.getState().logStatement(q);
             }
             return success;
         }
 
+        public boolean[] executeBatch(List<Query<C>> queries, GlobalState.BatchListener listener) throws Exception {
+            // each statement is logged once it has taken effect, so that the log is complete if a later one fails
+            return globalState.executeBatch(queries, (i, success, nanos) -> {
+                if (globalState.getOptions().loggerPrintFailed() || success) {
+                    globalState.getState().logStatement(queries.get(i));
+                }
+                listener.executed(i, success, nanos);
+            });
+        }
+
         public SQLancerResultSet executeAndGet(Query<C> q, String... fills) throws Exception {
             globalState.getState().logStatement(q);
             SQLancerResultSet result;
             result = q.executeAndGet(globalState, fills);
-            Main.nrSuccessfulActions.addAndGet(1);
             return result;
         }
 
         public void incrementSelectQueryCount() {
-            Main.nrQueries.addAndGet(1);
+            ExecutionCounters.increment(Counter.QUERIES);
         }
 
         public Long getSelectQueryCount() {
-            return Main.nrQueries.get();
+            return ExecutionCounters.getTotal(Counter.QUERIES);
         }
 
         public void incrementCreateDatabase() {
-            Main.nrDatabases.addAndGet(1);
+            ExecutionCounters.increment(Counter.DATABASES);
         }
 
     }
@@ -430,6 +480,9 @@ public final class Main {
             G state = createGlobalState();
             stateToRepro = provider.getStateToReproduce(databaseName);
             stateToRepro.seedValue = r.getSeed();
+            if (options.spillStatements()) {
+                stateToRepro.setJournal(StatementJournal.forCurrentThread());
+            }
             state.setState(stateToRepro);
             logger = new StateLogger(databaseName, provider, options);
             state.setRandomly(r);
@@ -528,6 +581,7 @@ public final class Main {
         private final DatabaseProvider<G, O, C> provider;
         private final MainOptions options;
         private final O command;
+        private ConnectionBudget connectionBudget;
 
         public DBMSExecutorFactory(DatabaseProvider<G, O, C> provider, MainOptions options) {
             this.provider = provider;
@@ -561,6 +615,14 @@ public final class Main {
             return provider;
         }
 
+        public synchronized ConnectionBudget getConnectionBudget() {
+            // created lazily, since the options are only parsed after the factory has been created
+            if (connectionBudget == null) {
+                connectionBudget = new ConnectionBudget(options.getMaxConnectionsPerDBMS());
+            }
+            return connectionBudget;
+        }
+
     }
 
     public static int executeMain(String... args) throws AssertionError {
@@ -592,12 +654,35 @@ public final class Main {
                     public void run() {
                         System.out.println("Overall execution statistics");
                         System.out.println("============================");
-                        System.out.println(formatInteger(nrQueries.get()) + " queries");
-                        System.out.println(formatInteger(nrDatabases.get()) + " databases");
-                        System.out.println(
-                                formatInteger(nrSuccessfulActions.get()) + " successfully-executed statements");
-                        System.out.println(
-                                formatInteger(nrUnsuccessfulActions.get()) + " unsuccessfuly-executed statements");
+                        System.out.println(formatInteger(ExecutionCounters.getTotal(Counter.QUERIES)) + " queries");
+                        System.out.println(formatInteger(ExecutionCounters.getTotal(Counter.DATABASES)) + " databases");
+                        System.out.println(formatInteger(ExecutionCounters.getTotal(Counter.SUCCESSFUL_STATEMENTS))
+                                + " successfully-executed statements");
+                        System.out.println(formatInteger(ExecutionCounters.getTotal(Counter.UNSUCCESSFUL_STATEMENTS))
+                                + " unsuccessfuly-executed statements");
+                        System.out.println(formatInteger(ExecutionCounters.getTotal(Counter.TIMED_OUT_STATEMENTS))
+                                + " timed-out statements");
+                        System.out.println(formatInteger(ExecutionCounters.getTotal(Counter.DUPLICATE_FAILURES))
+                                + " duplicate failures");
+                        String actionReport = ActionScheduler.getReport();
+                        if (!actionReport.isEmpty()) {
+                            System.out.println();
+                            System.out.println("Actions by DBMS");
+                            System.out.print(actionReport);
+                        }
+                        System.out.println();
+                        System.out.println("Queries by DBMS");
+                        ExecutionCounters.getTotalsByDBMS(Counter.QUERIES)
+                                .forEach((dbms, nr) -> System.out.println(formatInteger(nr) + " " + dbms));
+                        System.out.println();
+                        System.out.println("Queries, databases, and statements by worker");
+                        for (ExecutionCounters counters : ExecutionCounters.getAll()) {
+                            System.out.println(formatInteger(counters.get(Counter.QUERIES))
+                                    + formatInteger(counters.get(Counter.DATABASES))
+                                    + formatInteger(counters.get(Counter.SUCCESSFUL_STATEMENTS)
+                                            + counters.get(Counter.UNSUCCESSFUL_STATEMENTS))
+                                    + " " + counters.getDBMS() + "/" + counters.getWorker());
+                        }
                     }
 
                     private String formatInteger(long intValue) {
@@ -611,8 +696,23 @@ public final class Main {
             }
         }
 
-        ExecutorService execService = Executors.newFixedThreadPool(options.getNumberConcurrentThreads());
+        StatementMetrics.setEnabled(options.collectMetrics());
+        HttpServer metricsServer = null;
+        if (options.getMetricsPort() != MainOptions.NO_SET_PORT) {
+            try {
+                metricsServer = StatementMetrics.startServer(options.getMetricsPort());
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+        ScheduledExecutorService metricsDumper = null;
+        if (options.getMetricsFile() != null) {
+            metricsDumper = startMetricsDumper(Paths.get(options.getMetricsFile()));
+        }
+
+        ExecutorService execService = createExecutorService(options);
         DBMSExecutorFactory<?, ?, ?> executorFactory = nameToProvider.get(jc.getParsedCommand());
+        connectionBudget = executorFactory.getConnectionBudget();
 
         if (options.performConnectionTest()) {
             try {
@@ -640,6 +740,7 @@ public final class Main {
                 @Override
                 public void run() {
                     Thread.currentThread().setName(databaseName);
+                    ExecutionCounters.bind(executorFactory.getProvider().getDBMSName(), databaseName);
                     runThread(databaseName);
                 }
 
@@ -647,15 +748,24 @@ public final class Main {
                     Randomly r = new Randomly(seed);
                     try {
                         int maxNrDbs = options.getMaxGeneratedDatabases();
+                        int nrBugs = 0;
                         // run without a limit if maxNrDbs == -1
-                        for (int i = 0; i < maxNrDbs || maxNrDbs == -1; i++) {
-                            Boolean continueRunning = run(options, execService, executorFactory, r, databaseName);
+                        for (int i = 0; (i < maxNrDbs || maxNrDbs == -1)
+                                && !Thread.currentThread().isInterrupted(); i++) {
+                            // the logs and the database of each bug that the thread found are kept when it continues
+                            // after a bug
+                            String name = nrBugs == 0 ? databaseName : databaseName + "_" + nrBugs;
+                            Boolean continueRunning = run(options, execService, executorFactory, r, name);
                             if (!continueRunning) {
                                 someOneFails.set(true);
-                                break;
+                                if (!options.continueAfterBug() || Thread.currentThread().isInterrupted()) {
+                                    break;
+                                }
+                                nrBugs++;
                             }
                         }
                     } finally {
+                        StatementJournal.closeForCurrentThread();
                         threadsShutdown.addAndGet(1);
                         if (threadsShutdown.get() == options.getTotalNumberTries()) {
                             execService.shutdown();
@@ -666,6 +776,14 @@ public final class Main {
                 private boolean run(MainOptions options, ExecutorService execService,
                         DBMSExecutorFactory<?, ?, ?> executorFactory, Randomly r, final String databaseName) {
                     DBMSExecutor<?, ?, ?> executor = executorFactory.getDBMSExecutor(databaseName, r);
+                    ConnectionBudget budget = executorFactory.getConnectionBudget();
+                    try {
+                        budget.acquire();
+                    } catch (InterruptedException e) {
+                        // the thread is being shut down, which is not a bug
+                        Thread.currentThread().interrupt();
+                        return true;
+                    }
                     try {
                         executor.run();
                         return true;
@@ -678,6 +796,7 @@ public final class Main {
                         executor.getLogger().logException(reduce, executor.getStateToReproduce());
                         return false;
                     } finally {
+                        budget.release();
                         try {
                             if (options.logEachSelect()) {
                                 if (executor.getLogger().currentFileWriter != null) {
@@ -701,10 +820,64 @@ public final class Main {
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
+        AsyncLogWriter.syncAll();
+        if (metricsServer != null) {
+            metricsServer.stop(0);
+        }
+        if (metricsDumper != null) {
+            metricsDumper.shutdownNow();
+            dumpMetrics(Paths.get(options.getMetricsFile()));
+        }
 
         return someOneFails.get() ? options.getErrorExitCode() : 0;
     }
 
+    private static ScheduledExecutorService startMetricsDumper(Path file) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dumper");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(() -> dumpMetrics(file), 5, 5, TimeUnit.SECONDS);
+        return scheduler;
+    }
+
+    private static void dumpMetrics(Path file) {
+        try {
+            StatementMetrics.dumpJson(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static ExecutorService createExecutorService(MainOptions options) {
+        if (options.getExecutorType() == MainOptions.ExecutorType.VIRTUAL) {
+            ExecutorService virtualThreadExecutor = getVirtualThreadExecutor();
+            if (virtualThreadExecutor != null) {
+                // every try runs on its own virtual thread; --max-connections-per-dbms, which defaults to
+                // --num-threads, bounds how many are active
+                return virtualThreadExecutor;
+            }
+            System.err.println("Virtual threads are not supported by this Java version (" + Runtime.version()
+                    + "), falling back to platform threads.");
+        }
+        return Executors.newFixedThreadPool(options.getNumberConcurrentThreads());
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task via reflection, since SQLancer is compiled for
+     * an older Java version.
+     *
+     * @return the executor, or null if virtual threads are not available
+     */
+    private static ExecutorService getVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
     /**
      * To register a new provider, it is necessary to implement the DatabaseProvider interface and add an additional
      * configuration file, see https://docs.oracle.com/javase/9/docs/api/java/util/ServiceLoader.html. Currently, we use
@@ -770,6 +943,8 @@ public final class Main {
             private long timeMillis = System.currentTimeMillis();
             private long lastNrQueries;
             private long lastNrDbs;
+            private long lastNrNovelQueries;
+            private long lastNrDuplicateQueries;
 
             {
                 timeMillis = System.currentTimeMillis();
@@ -778,22 +953,37 @@ public final class Main {
             @Override
             public void run() {
                 long elapsedTimeMillis = System.currentTimeMillis() - timeMillis;
-                long currentNrQueries = nrQueries.get();
+                long currentNrQueries = ExecutionCounters.getTotal(Counter.QUERIES);
                 long nrCurrentQueries = currentNrQueries - lastNrQueries;
                 double throughput = nrCurrentQueries / (elapsedTimeMillis / 1000d);
-                long currentNrDbs = nrDatabases.get();
+                long currentNrDbs = ExecutionCounters.getTotal(Counter.DATABASES);
                 long nrCurrentDbs = currentNrDbs - lastNrDbs;
                 double throughputDbs = nrCurrentDbs / (elapsedTimeMillis / 1000d);
-                long successfulStatementsRatio = (long) (100.0 * nrSuccessfulActions.get()
-                        / (nrSuccessfulActions.get() + nrUnsuccessfulActions.get()));
+                long nrSuccessfulStatements = ExecutionCounters.getTotal(Counter.SUCCESSFUL_STATEMENTS);
+                long successfulStatementsRatio = (long) (100.0 * nrSuccessfulStatements
+                        / (nrSuccessfulStatements + ExecutionCounters.getTotal(Counter.UNSUCCESSFUL_STATEMENTS)));
                 DateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
                 Date date = new Date();
+                ConnectionBudget budget = connectionBudget;
                 System.out.println(String.format(
-                        "[%s] Executed %d queries (%d queries/s; %.2f/s dbs, successful statements: %2d%%). Threads shut down: %d.",
+                        "[%s] Executed %d queries (%d queries/s; %.2f/s dbs, successful statements: %2d%%). Threads shut down: %d. Workers running: %d, blocked: %d.",
                         dateFormat.format(date), currentNrQueries, (int) throughput, throughputDbs,
-                        successfulStatementsRatio, threadsShutdown.get()));
+                        successfulStatementsRatio, threadsShutdown.get(), budget == null ? 0 : budget.getNrRunning(),
+                        budget == null ? 0 : budget.getNrBlocked()));
+                long currentNrNovelQueries = ExecutionCounters.getTotal(Counter.NOVEL_QUERIES);
+                long currentNrDuplicateQueries = ExecutionCounters.getTotal(Counter.DUPLICATE_QUERIES);
+                long nrNovelQueries = currentNrNovelQueries - lastNrNovelQueries;
+                long nrDuplicateQueries = currentNrDuplicateQueries - lastNrDuplicateQueries;
+                if (nrNovelQueries + nrDuplicateQueries != 0) {
+                    System.out.println(String.format(
+                            "[%s] Novelty filter: %d unique queries/s, %.1f%% duplicates (%d unique queries in total).",
+                            dateFormat.format(date), (long) (nrNovelQueries / (elapsedTimeMillis / 1000d)),
+                            100.0 * nrDuplicateQueries / (nrNovelQueries + nrDuplicateQueries), currentNrNovelQueries));
+                }
                 timeMillis = System.currentTimeMillis();
                 lastNrQueries = currentNrQueries;
+                lastNrNovelQueries = currentNrNovelQueries;
+                lastNrDuplicateQueries = currentNrDuplicateQueries;
                 lastNrDbs = currentNrDbs;
             }
         }, 5, 5, TimeUnit.SECONDS);
@@ -1,5 +1,6 @@
 package sqlancer;
 
+import java.sql.Connection;
 import java.util.Objects;
 
 import com.beust.jcommander.Parameter;
@@ -13,6 +14,29 @@ public class MainOptions {
     public static final int NO_REDUCE_LIMIT = -1;
     public static final MainOptions DEFAULT_OPTIONS = new MainOptions();
 
+    public enum ExecutorType {
+        FIXED, VIRTUAL
+    }
+
+    public enum LogDurability {
+        SYNC, GROUP_COMMIT, ASYNC
+    }
+
+    public enum IsolationLevel {
+        DEFAULT(-1), READ_COMMITTED(Connection.TRANSACTION_READ_COMMITTED),
+        REPEATABLE_READ(Connection.TRANSACTION_REPEATABLE_READ), SERIALIZABLE(Connection.TRANSACTION_SERIALIZABLE);
+
+        private final int level;
+
+        IsolationLevel(int level) {
+            this.level = level;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+    }
+
     @Parameter(names = { "--help", "-h" }, description = "Lists all supported options and commands", help = true)
     private boolean help; // NOPMD
 
@@ -20,6 +44,48 @@ public class MainOptions {
             "--num-threads" }, description = "How many threads should run concurrently to test separate databases")
     private int nrConcurrentThreads = 16; // NOPMD
 
+    @Parameter(names = "--executor", description = "How worker threads are created. VIRTUAL runs each try on its own virtual thread (requires Java 21 or later) instead of --num-threads platform threads, so that --max-connections-per-dbms (by default --num-threads) bounds the concurrency, which allows using a large number of workers for DBMSs that are accessed over the network")
+    private ExecutorType executorType = ExecutorType.FIXED; // NOPMD
+
+    @Parameter(names = "--max-connections-per-dbms", description = "The maximum number of databases that all threads together can have open at the same time (-1 for no limit, or --num-threads with --executor VIRTUAL)")
+    private int maxConnectionsPerDBMS = ConnectionBudget.UNLIMITED; // NOPMD
+
+    @Parameter(names = "--database-pool-size", description = "The number of databases that are created in advance in the background and shared by all threads, for DBMSs that run as a server (0 to create each database when it is needed)")
+    private int databasePoolSize; // NOPMD
+
+    @Parameter(names = "--concurrent-queries", description = "Executes independent queries of an oracle check (e.g., the two queries of NoREC) concurrently, one of them on a second, read-only connection to the database, for DBMSs that run as a server. This doubles the number of connections", arity = 1)
+    private boolean concurrentQueries; // NOPMD
+
+    @Parameter(names = "--concurrent-queries-isolation", description = "The transaction isolation level of the read-only connection used by --concurrent-queries (DEFAULT keeps the DBMS's default)")
+    private IsolationLevel concurrentQueriesIsolation = IsolationLevel.DEFAULT; // NOPMD
+
+    @Parameter(names = "--in-memory", description = "Keeps the databases of embedded DBMSs in memory rather than in files, and writes a database to the databases directory only when a bug is found. Features that depend on the storage, such as journal modes, are not tested in this mode", arity = 1)
+    private boolean inMemory; // NOPMD
+
+    @Parameter(names = "--spill-statements", description = "Keeps the statements that are logged to reproduce a bug in a temporary file of each thread rather than in memory, which reduces the memory usage of long-running databases", arity = 1)
+    private boolean spillStatements; // NOPMD
+
+    @Parameter(names = "--statement-timeout-ms", description = "Cancels statements that take longer than the given number of milliseconds and discards the current test case (-1 for no timeout)")
+    private int statementTimeoutMillis = -1; // NOPMD
+
+    @Parameter(names = "--adaptive-statement-timeout", description = "Cancels statements already when they take ten times as long as the 99th percentile of the previous statements of the same kind (at most --statement-timeout-ms)", arity = 1)
+    private boolean adaptiveStatementTimeout; // NOPMD
+
+    @Parameter(names = "--novelty-filter", description = "Regenerates the queries of the NoREC and TLP oracles whose shape (i.e., the query without its constants and table and column numbers) has already been tested by any thread", arity = 1)
+    private boolean noveltyFilter; // NOPMD
+
+    @Parameter(names = "--novelty-filter-capacity", description = "The number of query shapes for which the novelty filter is sized; the filter uses about 1.25 bytes per query shape")
+    private long noveltyFilterCapacity = 10_000_000; // NOPMD
+
+    @Parameter(names = "--continue-after-bug", description = "Continues with a new database rather than stopping a thread when it finds a bug, and only logs and reduces the bugs whose fingerprint (i.e., the oracle and the normalized error message) has not been found before", arity = 1)
+    private boolean continueAfterBug; // NOPMD
+
+    @Parameter(names = "--adaptive-action-scheduling", description = "Performs the actions that generate a database, such as INSERT or CREATE INDEX, more or less often than the provider specifies, depending on the number of successful statements per second that they achieved so far (this makes the generation nondeterministic)", arity = 1)
+    private boolean adaptiveActionScheduling; // NOPMD
+
+    @Parameter(names = "--action-time-budget-ms", description = "Stops performing the actions that generate a database after the given number of milliseconds (-1 for no limit)")
+    private int actionTimeBudgetMillis = -1; // NOPMD
+
     @Parameter(names = {
             "--random-seed" }, description = "A seed value != -1 that can be set to make the query and database generation deterministic")
     private long randomSeed = -1; // NOPMD
@@ -42,9 +108,15 @@ public class MainOptions {
             "--num-statement-kind-retries" }, description = "Specifies the number of times a specific statement kind (e.g., INSERT) should be retried when the DBMS indicates that it failed")
     private int nrStatementRetryCount = 1000; // NOPMD
 
+    @Parameter(names = "--batch-size", description = "The maximum number of consecutive INSERT, UPDATE, and DELETE statements that are sent to the DBMS as a single batch when generating a database, for DBMSs that support it. Each batch is executed in a transaction, which is rolled back and split when a statement fails, so that each statement's error is checked on its own (1 to send each statement on its own)")
+    private int batchSize = 1; // NOPMD
+
     @Parameter(names = "--log-each-select", description = "Logs every statement issued", arity = 1)
     private boolean logEachSelect = true; // NOPMD
 
+    @Parameter(names = "--log-durability", description = "When the statements logged by --log-each-select and --log-query-plan are written to disk. SYNC flushes each statement, GROUP_COMMIT and ASYNC write them in a background thread, which flushes after each batch of statements (GROUP_COMMIT) or when its buffer is full (ASYNC). The log is always flushed before a bug is reported")
+    private LogDurability logDurability = LogDurability.SYNC; // NOPMD
+
     @Parameter(names = "--log-execution-time", description = "Logs the execution time of each statement (requires --log-each-select to be enabled)", arity = 1)
     private boolean logExecutionTime = true; // NOPMD
 
@@ -66,6 +138,9 @@ public class MainOptions {
     @Parameter(names = "--qpg-selection-probability", description = "The probability (0-1) of the random selection of mutators. A higher value (>0.5) favors exploration over exploitation. (requires --qpg-enable)")
     private static double qpgProbability = 0.7;
 
+    @Parameter(names = "--qpg-max-plans", description = "The maximum number of query plans in the query plan pool of each database (requires --qpg-enable)")
+    private static int qpgMaxPlans = 100000;
+
     @Parameter(names = "--username", description = "The user name used to log into the DBMS")
     private String userName = "sqlancer"; // NOPMD
 
@@ -84,6 +159,12 @@ public class MainOptions {
     @Parameter(names = "--print-progress-summary", description = "Whether to print an execution summary when exiting SQLancer", arity = 1)
     private boolean printProgressSummary; // NOPMD
 
+    @Parameter(names = "--metrics-port", description = "Serves per-statement latency metrics in the OpenMetrics format at http://localhost:<port>/metrics (-1 to disable)")
+    private int metricsPort = MainOptions.NO_SET_PORT; // NOPMD
+
+    @Parameter(names = "--metrics-file", description = "Periodically writes per-statement latency metrics as JSON to the given file")
+    private String metricsFile; // NOPMD
+
     @Parameter(names = "--timeout-seconds", description = "The timeout in seconds")
     private int timeoutSeconds = -1; // NOPMD
 
@@ -141,6 +222,12 @@ public class MainOptions {
     @Parameter(names = "--ast-reducer-max-time", description = "EXPERIMENTAL Maximum time duration (secs) the statement reducer will do")
     private long maxStatementReduceTime = NO_REDUCE_LIMIT; // NOPMD
 
+    @Parameter(names = "--reducer-threads", description = "EXPERIMENTAL Number of reduction candidates that the statement reducer evaluates in parallel, each on its own database")
+    private int reducerThreads = 1; // NOPMD
+
+    @Parameter(names = "--reducer-use-snapshots", description = "EXPERIMENTAL Restore database snapshots of common statement prefixes instead of re-executing them during reduction (only for DBMS that support snapshots)", arity = 1)
+    private boolean reducerUseSnapshots; // NOPMD
+
     @Parameter(names = "--validate-result-size-only", description = "Should validate result size only and skip comparing content of the result set ", arity = 1)
     private boolean validateResultSizeOnly = false; // NOPMD
 
@@ -159,10 +246,86 @@ public class MainOptions {
         return nrConcurrentThreads;
     }
 
+    public ExecutorType getExecutorType() {
+        return executorType;
+    }
+
+    public int getMaxConnectionsPerDBMS() {
+        if (maxConnectionsPerDBMS == ConnectionBudget.UNLIMITED && executorType == ExecutorType.VIRTUAL) {
+            // otherwise, all tries would start at once, each with its own connection
+            return nrConcurrentThreads;
+        }
+        return maxConnectionsPerDBMS;
+    }
+
+    public int getDatabasePoolSize() {
+        return databasePoolSize;
+    }
+
+    public boolean useConcurrentQueries() {
+        return concurrentQueries;
+    }
+
+    public IsolationLevel getConcurrentQueriesIsolation() {
+        return concurrentQueriesIsolation;
+    }
+
+    public boolean isInMemory() {
+        return inMemory;
+    }
+
+    public boolean spillStatements() {
+        return spillStatements;
+    }
+
+    public int getStatementTimeoutMillis() {
+        return statementTimeoutMillis;
+    }
+
+    public boolean useAdaptiveStatementTimeout() {
+        return adaptiveStatementTimeout;
+    }
+
+    public boolean useNoveltyFilter() {
+        return noveltyFilter;
+    }
+
+    public long getNoveltyFilterCapacity() {
+        return noveltyFilterCapacity;
+    }
+
+    public boolean continueAfterBug() {
+        return continueAfterBug;
+    }
+
+    public boolean useAdaptiveActionScheduling() {
+        return adaptiveActionScheduling;
+    }
+
+    public int getActionTimeBudgetMillis() {
+        return actionTimeBudgetMillis;
+    }
+
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    public boolean collectMetrics() {
+        return metricsPort != NO_SET_PORT || metricsFile != null;
+    }
+
     public boolean logEachSelect() {
         return logEachSelect;
     }
 
+    public LogDurability getLogDurability() {
+        return logDurability;
+    }
+
     public boolean printAllStatements() {
         if (printSucceedingStatements && printStatements) {
             throw new AssertionError();
@@ -208,6 +371,10 @@ public class MainOptions {
         return qpgProbability;
     }
 
+    public int getQPGMaxPlans() {
+        return qpgMaxPlans;
+    }
+
     public int getNrQueries() {
         return nrQueries;
     }
@@ -220,6 +387,10 @@ public class MainOptions {
         return nrStatementRetryCount;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
     public String getUserName() {
         return userName;
     }
@@ -328,6 +499,14 @@ public class MainOptions {
         return maxASTReduceTime;
     }
 
+    public int getReducerThreads() {
+        return reducerThreads;
+    }
+
+    public boolean reducerUseSnapshots() {
+        return reducerUseSnapshots;
+    }
+
     public boolean validateResultSizeOnly() {
         return validateResultSizeOnly;
     }
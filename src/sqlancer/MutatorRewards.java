@@ -0,0 +1,63 @@
+package sqlancer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The weighted average rewards of the mutation operators of Query Plan Guidance (QPG), shared by all threads that test
+ * the same DBMS. Unlike the query plans, which depend on the database under test, how likely a mutation operator is to
+ * change query plans is learned across databases.
+ */
+final class MutatorRewards {
+
+    // the weighted average rewards, stored as the bits of doubles to update them atomically
+    private final AtomicLongArray rewards;
+
+    MutatorRewards(double[] initialRewards) {
+        this.rewards = new AtomicLongArray(initialRewards.length);
+        for (int i = 0; i < initialRewards.length; i++) {
+            rewards.set(i, Double.doubleToLongBits(initialRewards[i]));
+        }
+    }
+
+    double[] getRewards() {
+        double[] result = new double[rewards.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = Double.longBitsToDouble(rewards.get(i));
+        }
+        return result;
+    }
+
+    int getNrMutators() {
+        return rewards.length();
+    }
+
+    void addReward(int actionIndex, double delta) {
+        long current;
+        long updated;
+        do {
+            current = rewards.get(actionIndex);
+            updated = Double.doubleToLongBits(Double.longBitsToDouble(current) + delta);
+        } while (!rewards.compareAndSet(actionIndex, current, updated));
+    }
+
+    /**
+     * Moves the weighted average reward of the mutation operator towards the given reward.
+     *
+     * @param actionIndex
+     *            the index of the mutation operator
+     * @param reward
+     *            the last reward of the mutation operator
+     * @param weight
+     *            the weight of the last reward
+     */
+    void updateReward(int actionIndex, double reward, double weight) {
+        long current;
+        long updated;
+        do {
+            current = rewards.get(actionIndex);
+            double average = Double.longBitsToDouble(current);
+            updated = Double.doubleToLongBits(average + (reward - average) * weight);
+        } while (!rewards.compareAndSet(actionIndex, current, updated));
+    }
+
+}
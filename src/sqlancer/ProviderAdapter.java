@@ -1,10 +1,10 @@
 package sqlancer;
 
+import java.io.File;
 import java.sql.SQLException;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import sqlancer.StateToReproduce.OracleRunReproductionState;
@@ -20,8 +20,9 @@ public abstract class ProviderAdapter<G extends GlobalState<O, ? extends Abstrac
     private final Class<O> optionClass;
 
     // Variables for QPG
-    Map<String, String> queryPlanPool = new HashMap<>();
-    static double[] weightedAverageReward; // static variable for sharing across all threads
+    private static final Map<Class<?>, MutatorRewards> MUTATOR_REWARDS = new ConcurrentHashMap<>();
+    MutatorRewards mutatorRewards; // shared by all threads that test the same DBMS
+    QueryPlanPool queryPlanPool; // of the database under test
     int currentSelectRewards;
     int currentSelectCounts;
     int currentMutationOperator = -1;
@@ -48,22 +49,34 @@ public abstract class ProviderAdapter<G extends GlobalState<O, ? extends Abstrac
 
     @Override
     public Reproducer<G> generateAndTestDatabase(G globalState) throws Exception {
+        TestOracle<G> oracle = null;
         try {
             generateDatabase(globalState);
             checkViewsAreValid(globalState);
             globalState.getManager().incrementCreateDatabase();
 
-            TestOracle<G> oracle = getTestOracle(globalState);
+            oracle = getTestOracle(globalState);
             for (int i = 0; i < globalState.getOptions().getNrQueries(); i++) {
                 try (OracleRunReproductionState localState = globalState.getState().createLocalState()) {
                     assert localState != null;
                     try {
-                        oracle.check();
+                        checkOracle(oracle, globalState);
                         globalState.getManager().incrementSelectQueryCount();
                     } catch (IgnoreMeException ignored) {
                     } catch (AssertionError e) {
+                        if (e.getCause() instanceof IgnoreMeException) {
+                            // the oracle wrapped the exception of a query, for example, one that timed out
+                            localState.executedWithoutError();
+                            continue;
+                        }
                         Reproducer<G> reproducer = oracle.getLastReproducer();
                         if (reproducer != null) {
+                            FailureIndex.ignoreIfKnown(globalState, oracle, e);
+                            Exception saveFailure = saveInMemoryDatabase(globalState);
+                            if (saveFailure != null && globalState.getOptions().useReducer()) {
+                                globalState.getLogger()
+                                        .logReducer("could not save the database: " + saveFailure + "\n");
+                            }
                             return reproducer;
                         }
                         throw e;
@@ -71,6 +84,15 @@ public abstract class ProviderAdapter<G extends GlobalState<O, ? extends Abstrac
                     localState.executedWithoutError();
                 }
             }
+        } catch (IgnoreMeException e) {
+            throw e;
+        } catch (Exception | AssertionError e) {
+            FailureIndex.ignoreIfKnown(globalState, oracle, e);
+            Exception saveFailure = saveInMemoryDatabase(globalState);
+            if (saveFailure != null) {
+                e.addSuppressed(saveFailure);
+            }
+            throw e;
         } finally {
             globalState.getConnection().close();
         }
@@ -79,6 +101,78 @@ public abstract class ProviderAdapter<G extends GlobalState<O, ? extends Abstrac
 
     protected abstract void checkViewsAreValid(G globalState) throws SQLException;
 
+    // Saves the database under the name of the bug's log, which is unique also when a thread continues after a bug.
+    // Returns the exception if the database cannot be saved, which is logged together with the bug, whose log still
+    // allows reproducing it.
+    private Exception saveInMemoryDatabase(G globalState) {
+        if (!globalState.getOptions().isInMemory()) {
+            return null;
+        }
+        try {
+            saveDatabase(globalState, globalState.getLogger().getName());
+            return null;
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    /**
+     * Writes the database of the given state, which is kept in memory (see {@link MainOptions#isInMemory()}), to the
+     * databases directory after a bug was found, so that it can be inspected. Providers that do not support in-memory
+     * databases ignore the option and do not need to override this method.
+     *
+     * @param globalState
+     *            the state whose connection is used
+     * @param name
+     *            the name of the saved database, without a file extension
+     *
+     * @throws Exception
+     *             if the database cannot be written
+     */
+    protected void saveDatabase(G globalState, String name) throws Exception {
+    }
+
+    /**
+     * Returns a file in the directory in which the embedded DBMSs store their databases, which is created if it does
+     * not exist.
+     *
+     * @param fileName
+     *            the name of the file
+     *
+     * @return the file
+     */
+    protected static File getDatabaseFile(String fileName) {
+        File dir = new File("." + File.separator + "databases");
+        if (!dir.exists()) {
+            dir.mkdir();
+        }
+        return new File(dir, fileName);
+    }
+
+    // Executes a check of the oracle and records its latency, tagged by the name of the oracle, which also determines
+    // the adaptive timeout of its queries
+    private static <G extends GlobalState<?, ?, ?>> void checkOracle(TestOracle<G> oracle, G globalState)
+            throws Exception {
+        if (!StatementMetrics.isEnabled() && globalState.getOptions().getStatementTimeoutMillis() <= 0) {
+            oracle.check();
+            return;
+        }
+        globalState.setStatementKind(oracle.getClass().getSimpleName());
+        String outcome = StatementMetrics.FAILURE;
+        long startNanos = System.nanoTime();
+        try {
+            oracle.check();
+            outcome = StatementMetrics.SUCCESS;
+        } catch (IgnoreMeException e) {
+            outcome = StatementMetrics.IGNORED;
+            throw e;
+        } finally {
+            // a composite oracle sets the name of the oracle that it delegated to
+            StatementMetrics.record(globalState.getStatementKind(), outcome, System.nanoTime() - startNanos);
+            globalState.setStatementKind(null);
+        }
+    }
+
     protected TestOracle<G> getTestOracle(G globalState) throws Exception {
         List<? extends OracleFactory<G>> testOracleFactory = globalState.getDbmsSpecificOptions()
                 .getTestOracleFactory();
@@ -111,9 +205,10 @@ public abstract class ProviderAdapter<G extends GlobalState<O, ? extends Abstrac
     // QPG: entry function
     @Override
     public void generateAndTestDatabaseWithQueryPlanGuidance(G globalState) throws Exception {
-        if (weightedAverageReward == null) {
-            weightedAverageReward = initializeWeightedAverageReward(); // Same length as the list of mutators
-        }
+        mutatorRewards = MUTATOR_REWARDS.computeIfAbsent(getClass(),
+                c -> new MutatorRewards(initializeWeightedAverageReward()));
+        queryPlanPool = new QueryPlanPool(globalState.getOptions().getQPGMaxPlans());
+        TestOracle<G> oracle = null;
         try {
             generateDatabase(globalState);
             checkViewsAreValid(globalState);
@@ -122,12 +217,12 @@ public abstract class ProviderAdapter<G extends GlobalState<O, ? extends Abstrac
             Long executedQueryCount = 0L;
             while (executedQueryCount < globalState.getOptions().getNrQueries()) {
                 int numOfNoNewQueryPlans = 0;
-                TestOracle<G> oracle = getTestOracle(globalState);
+                oracle = getTestOracle(globalState);
                 while (executedQueryCount < globalState.getOptions().getNrQueries()) {
                     try (OracleRunReproductionState localState = globalState.getState().createLocalState()) {
                         assert localState != null;
                         try {
-                            oracle.check();
+                            checkOracle(oracle, globalState);
                             String query = oracle.getLastQueryString();
                             executedQueryCount += 1;
                             if (addQueryPlan(query, globalState)) {
@@ -148,37 +243,51 @@ public abstract class ProviderAdapter<G extends GlobalState<O, ? extends Abstrac
                     }
                 }
             }
+        } catch (IgnoreMeException e) {
+            throw e;
+        } catch (Exception | AssertionError e) {
+            FailureIndex.ignoreIfKnown(globalState, oracle, e);
+            Exception saveFailure = saveInMemoryDatabase(globalState);
+            if (saveFailure != null) {
+                e.addSuppressed(saveFailure);
+            }
+            throw e;
         } finally {
             globalState.getConnection().close();
         }
     }
 
     // QPG: mutate tables for a new database state
-    private synchronized boolean mutateTables(G globalState) throws Exception {
+    private boolean mutateTables(G globalState) throws Exception {
         // Update rewards based on a set of newly generated queries in last iteration
         if (currentMutationOperator != -1) {
-            weightedAverageReward[currentMutationOperator] += ((double) currentSelectRewards
-                    / (double) currentSelectCounts) * globalState.getOptions().getQPGk();
+            mutatorRewards.addReward(currentMutationOperator,
+                    ((double) currentSelectRewards / (double) currentSelectCounts)
+                            * globalState.getOptions().getQPGk());
         }
         currentMutationOperator = -1;
 
         // Choose mutator based on the rewards
         int selectedActionIndex = 0;
         if (Randomly.getPercentage() < globalState.getOptions().getQPGProbability()) {
-            selectedActionIndex = globalState.getRandomly().getInteger(0, weightedAverageReward.length);
+            selectedActionIndex = globalState.getRandomly().getInteger(0, mutatorRewards.getNrMutators());
         } else {
-            selectedActionIndex = DBMSCommon.getMaxIndexInDoubleArray(weightedAverageReward);
+            selectedActionIndex = DBMSCommon.getMaxIndexInDoubleArray(mutatorRewards.getRewards());
         }
         int reward = 0;
+        int nrCheckedQueryPlans = 0;
 
         try {
             executeMutator(selectedActionIndex, globalState);
             checkViewsAreValid(globalState); // Remove the invalid views
-            reward = checkQueryPlan(globalState);
+            List<Map.Entry<Long, String>> queries = queryPlanPool.getQueries();
+            nrCheckedQueryPlans = queries.size();
+            reward = checkQueryPlan(queries, globalState);
         } catch (IgnoreMeException | AssertionError e) {
         } finally {
             // Update rewards based on existing queries associated with the query plan pool
-            updateReward(selectedActionIndex, (double) reward / (double) queryPlanPool.size(), globalState);
+            mutatorRewards.updateReward(selectedActionIndex,
+                    (double) reward / (double) Math.max(nrCheckedQueryPlans, 1), globalState.getOptions().getQPGk());
             currentMutationOperator = selectedActionIndex;
         }
 
@@ -197,44 +306,38 @@ public abstract class ProviderAdapter<G extends GlobalState<O, ? extends Abstrac
         }
 
         currentSelectCounts += 1;
-        if (queryPlanPool.containsKey(queryPlan)) {
-            return false;
-        } else {
-            queryPlanPool.put(queryPlan, selectStr);
+        if (queryPlanPool.add(queryPlan, selectStr)) {
             currentSelectRewards += 1;
             return true;
+        } else {
+            return false;
         }
     }
 
     // Obtain the reward of the current action based on the queries associated with the query plan pool
-    private int checkQueryPlan(G globalState) throws Exception {
+    private int checkQueryPlan(List<Map.Entry<Long, String>> queries, G globalState) throws Exception {
         int newQueryPlanFound = 0;
-        HashMap<String, String> modifiedQueryPlan = new HashMap<>();
-        for (Iterator<Map.Entry<String, String>> it = queryPlanPool.entrySet().iterator(); it.hasNext();) {
-            Map.Entry<String, String> item = it.next();
-            String queryPlan = item.getKey();
+        for (Map.Entry<Long, String> item : queries) {
+            long queryPlanFingerprint = item.getKey();
             String selectStr = item.getValue();
             String newQueryPlan = getQueryPlan(selectStr, globalState);
-            if (newQueryPlan.isEmpty()) { // Invalid query
-                it.remove();
-            } else if (!queryPlan.equals(newQueryPlan)) { // A query plan has been changed
-                it.remove();
-                modifiedQueryPlan.put(newQueryPlan, selectStr);
-                if (!queryPlanPool.containsKey(newQueryPlan)) { // A new query plan is found
+            if (newQueryPlan.isEmpty()) {
+                // the EXPLAIN failed, for example, because a table of the query was dropped, so that it would fail
+                // again after each following mutation
+                queryPlanPool.remove(queryPlanFingerprint, selectStr);
+                continue;
+            }
+            if (queryPlanFingerprint != QueryPlanPool.fingerprint(newQueryPlan)) {
+                // A query plan has been changed
+                queryPlanPool.remove(queryPlanFingerprint, selectStr);
+                if (queryPlanPool.add(newQueryPlan, selectStr)) { // A new query plan is found
                     newQueryPlanFound++;
                 }
             }
         }
-        queryPlanPool.putAll(modifiedQueryPlan);
         return newQueryPlanFound;
     }
 
-    // QPG: update the reward of current action
-    private void updateReward(int actionIndex, double reward, G globalState) {
-        weightedAverageReward[actionIndex] += (reward - weightedAverageReward[actionIndex])
-                * globalState.getOptions().getQPGk();
-    }
-
     // QPG: initialize the weighted average reward of all mutation operators (required implementation in specific DBMS)
     protected double[] initializeWeightedAverageReward() {
         throw new UnsupportedOperationException();
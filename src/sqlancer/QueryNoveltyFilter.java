@@ -0,0 +1,169 @@
+package sqlancer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import sqlancer.ExecutionCounters.Counter;
+
+/**
+ * Skips the oracle checks of queries whose shape has already been tested (see {@link MainOptions#useNoveltyFilter()}).
+ * The queries are normalized by replacing their constants with placeholders and by numbering all tables, views,
+ * indexes, and columns alike, similar to {@link Main.StateLogger}'s normalization of query plans. The normalized
+ * queries are recorded in a Bloom filter that is shared by all threads that test the same DBMS, so that a query can
+ * erroneously be considered a duplicate with a small probability, but a new query shape is never tested twice.
+ *
+ * The oracles regenerate a query whose shape is a duplicate before executing it, and give up on the check after
+ * {@value #MAX_ATTEMPTS} attempts, for example, when the schema is so small that most shapes have been tested.
+ */
+public final class QueryNoveltyFilter {
+
+    static final int MAX_ATTEMPTS = 10;
+
+    private static final int NR_HASHES = 7;
+    // about 1% false positives when the filter contains as many queries as its capacity
+    private static final int BITS_PER_QUERY = 10;
+
+    private static final Map<Class<?>, QueryNoveltyFilter> FILTERS = new ConcurrentHashMap<>();
+
+    private final AtomicLongArray bits;
+    private final long nrBits;
+
+    QueryNoveltyFilter(long capacity) {
+        int nrWords = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, capacity * BITS_PER_QUERY / Long.SIZE));
+        this.bits = new AtomicLongArray(nrWords);
+        this.nrBits = (long) nrWords * Long.SIZE;
+    }
+
+    /**
+     * Records the shape of a query that is about to be checked by an oracle, and determines whether the query should be
+     * regenerated, because a query with the same shape has already been checked. Oracles call this method in a loop
+     * that generates the query, until it returns false.
+     *
+     * @param state
+     *            the state of the database on which the query is checked, whose class identifies the DBMS
+     * @param query
+     *            the query string, or a string that determines the shape of the oracle's queries
+     * @param attempt
+     *            the number of queries that have been generated for the check before
+     *
+     * @return whether the query is a duplicate and should be regenerated; false if the filter is disabled
+     *
+     * @throws IgnoreMeException
+     *             if the query is a duplicate and the maximum number of attempts has been reached
+     */
+    public static boolean isDuplicate(GlobalState<?, ?, ?> state, String query, int attempt) {
+        MainOptions options = state.getOptions();
+        if (!options.useNoveltyFilter()) {
+            return false;
+        }
+        QueryNoveltyFilter filter = FILTERS.computeIfAbsent(state.getClass(),
+                c -> new QueryNoveltyFilter(options.getNoveltyFilterCapacity()));
+        if (filter.add(normalize(query))) {
+            ExecutionCounters.increment(Counter.NOVEL_QUERIES);
+            return false;
+        }
+        ExecutionCounters.increment(Counter.DUPLICATE_QUERIES);
+        if (attempt + 1 >= MAX_ATTEMPTS) {
+            throw new IgnoreMeException();
+        }
+        return true;
+    }
+
+    /**
+     * Adds the given normalized query to the filter.
+     *
+     * @param normalizedQuery
+     *            the query
+     *
+     * @return true if the query has not been added before, false if it probably has
+     */
+    boolean add(String normalizedQuery) {
+        long hash = hash(normalizedQuery);
+        long h1 = mix(hash);
+        // odd, so that the probed bits are distinct
+        long h2 = mix(hash ^ 0xC2B2AE3D27D4EB4FL) | 1;
+        boolean added = false;
+        for (int i = 0; i < NR_HASHES; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, nrBits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long old = bits.get(word);
+            if ((old & mask) == 0) {
+                old = bits.getAndAccumulate(word, mask, (a, b) -> a | b);
+                added |= (old & mask) == 0;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Normalizes a query, so that queries that differ only in their constants or in the numbers of the tables and
+     * columns that they refer to are equal. String literals are replaced by ?, numbers by 0, and the digits at the end
+     * of identifiers by 0 (e.g., t1.c2 becomes t0.c0).
+     *
+     * @param query
+     *            the query
+     *
+     * @return the normalized query
+     */
+    static String normalize(String query) {
+        StringBuilder sb = new StringBuilder(query.length());
+        int i = 0;
+        int length = query.length();
+        while (i < length) {
+            char c = query.charAt(i);
+            if (c == '\'') {
+                i++;
+                while (i < length) {
+                    if (query.charAt(i) == '\'') {
+                        if (i + 1 < length && query.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                sb.append('?');
+            } else if (Character.isDigit(c)) {
+                while (i < length && (Character.isDigit(query.charAt(i)) || query.charAt(i) == '.')) {
+                    i++;
+                }
+                sb.append('0');
+            } else if (Character.isLetter(c) || c == '_') {
+                while (i < length && (Character.isLetter(query.charAt(i)) || query.charAt(i) == '_')) {
+                    sb.append(query.charAt(i++));
+                }
+                if (i < length && Character.isDigit(query.charAt(i))) {
+                    while (i < length && Character.isDigit(query.charAt(i))) {
+                        i++;
+                    }
+                    sb.append('0');
+                }
+            } else {
+                sb.append(c);
+                i++;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static long hash(String s) {
+        // FNV-1a
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            hash ^= s.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+}
@@ -0,0 +1,100 @@
+package sqlancer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The query plan pool of Query Plan Guidance (QPG) for the database under test. Query plans are identified by a
+ * fingerprint of their normalized text, so that each query plan is discovered only once.
+ *
+ * The pool belongs to a single database, since the query plans, and whether a query can be executed at all, depend on
+ * its schema. Only the rewards of the mutation operators are shared by the threads, see {@link MutatorRewards}.
+ */
+final class QueryPlanPool {
+
+    private final Map<Long, String> queries = new HashMap<>();
+    private final int maxSize;
+
+    QueryPlanPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Computes a fingerprint of the query plan that ignores differences in whitespace.
+     *
+     * @param queryPlan
+     *            the query plan, as returned by the DBMS
+     *
+     * @return the fingerprint of the query plan
+     */
+    static long fingerprint(String queryPlan) {
+        long hash = 0xCBF29CE484222325L;
+        boolean pendingWhitespace = false;
+        for (int i = 0; i < queryPlan.length(); i++) {
+            char c = queryPlan.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingWhitespace = true;
+                continue;
+            }
+            if (pendingWhitespace) {
+                hash = (hash ^ ' ') * 0x100000001B3L;
+                pendingWhitespace = false;
+            }
+            hash = (hash ^ c) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Adds the query plan, unless the pool already contains it or is full.
+     *
+     * @param queryPlan
+     *            the query plan of the query
+     * @param selectStr
+     *            the query
+     *
+     * @return true if the query plan is new
+     */
+    boolean add(String queryPlan, String selectStr) {
+        long fingerprint = fingerprint(queryPlan);
+        if (queries.containsKey(fingerprint) || queries.size() >= maxSize) {
+            return false;
+        }
+        queries.put(fingerprint, selectStr);
+        return true;
+    }
+
+    int size() {
+        return queries.size();
+    }
+
+    /**
+     * Returns the queries whose query plans should be checked after a mutation.
+     *
+     * @return a copy of the queries, keyed by their query plan fingerprints
+     */
+    List<Map.Entry<Long, String>> getQueries() {
+        List<Map.Entry<Long, String>> result = new ArrayList<>(queries.size());
+        for (Map.Entry<Long, String> entry : queries.entrySet()) {
+            result.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Removes the query, unless it has already been replaced.
+     *
+     * @param fingerprint
+     *            the fingerprint of the query plan of the query
+     * @param selectStr
+     *            the query
+     *
+     * @return true if the query was removed
+     */
+    boolean remove(long fingerprint, String selectStr) {
+        return queries.remove(fingerprint, selectStr);
+    }
+
+}
@@ -5,8 +5,10 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Supplier;
 
 public final class Randomly {
@@ -16,66 +18,202 @@ public final class Randomly {
     private static boolean useCaching = true;
     private static int cacheSize = 100;
 
-    private final List<Long> cachedLongs = new ArrayList<>();
-    private final List<Integer> cachedIntegers = new ArrayList<>();
+    private static final long[] INTERESTING_INTEGERS = { -1L, Long.MAX_VALUE, Long.MIN_VALUE, 1L, 0L };
+    private static final long[] INTERESTING_NON_ZERO_INTEGERS = { -1L, Long.MAX_VALUE, Long.MIN_VALUE, 1L };
+    private static final long[] INTERESTING_POSITIVE_INTEGERS = { 0L, Long.MAX_VALUE, 1L };
+    private static final int[] INTERESTING_POSITIVE_INTS = { 0, Integer.MAX_VALUE, 1 };
+    private static final double[] INTERESTING_DOUBLES = { 0.0, -0.0, Double.MAX_VALUE, -Double.MAX_VALUE,
+            Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY };
+
+    // doubles are cached by their bits, which distinguishes 0.0 from -0.0 like Double.equals()
+    private final PrimitiveCache cachedLongs = new PrimitiveCache();
+    private final PrimitiveCache cachedIntegers = new PrimitiveCache();
+    private final PrimitiveCache cachedDoubles = new PrimitiveCache();
     private final List<String> cachedStrings = new ArrayList<>();
-    private final List<Double> cachedDoubles = new ArrayList<>();
+    private final Set<String> cachedStringSet = new HashSet<>();
     private final List<byte[]> cachedBytes = new ArrayList<>();
     private Supplier<String> provider;
 
-    private static final ThreadLocal<Random> THREAD_RANDOM = new ThreadLocal<>();
+    private static final ThreadLocal<Generator> THREAD_RANDOM = new ThreadLocal<>();
+    private final Generator random;
     private long seed;
 
-    private void addToCache(long val) {
-        if (useCaching && cachedLongs.size() < cacheSize && !cachedLongs.contains(val)) {
-            cachedLongs.add(val);
+    /**
+     * A xoroshiro128++ pseudo-random number generator, which, unlike {@link java.util.Random}, is not synchronized and
+     * does not allocate when generating bounded values. A generator is used by a single thread: the one that created
+     * the {@link Randomly} instance, whose static methods use the same generator.
+     */
+    private static final class Generator {
+
+        private long s0;
+        private long s1;
+        private double nextGaussian;
+        private boolean haveNextGaussian;
+
+        Generator(long seed) {
+            // expand the seed with SplitMix64, which never results in the all-zero state
+            long z = seed;
+            z += 0x9E3779B97F4A7C15L;
+            s0 = mix(z);
+            z += 0x9E3779B97F4A7C15L;
+            s1 = mix(z);
         }
-    }
 
-    private void addToCache(int val) {
-        if (useCaching && cachedIntegers.size() < cacheSize && !cachedIntegers.contains(val)) {
-            cachedIntegers.add(val);
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
         }
-    }
 
-    private void addToCache(double val) {
-        if (useCaching && cachedDoubles.size() < cacheSize && !cachedDoubles.contains(val)) {
-            cachedDoubles.add(val);
+        long nextLong() {
+            long a = s0;
+            long b = s1;
+            long result = Long.rotateLeft(a + b, 17) + a;
+            b ^= a;
+            s0 = Long.rotateLeft(a, 49) ^ b ^ (b << 21);
+            s1 = Long.rotateLeft(b, 28);
+            return result;
+        }
+
+        int nextInt() {
+            return (int) (nextLong() >>> 32);
+        }
+
+        boolean nextBoolean() {
+            return nextLong() < 0;
+        }
+
+        double nextDouble() {
+            return (nextLong() >>> 11) * 0x1.0p-53;
+        }
+
+        // returns a value in [lower, upper)
+        long nextLong(long lower, long upper) {
+            long n = upper - lower;
+            if (n > 0) {
+                long bits;
+                long val;
+                do {
+                    bits = nextLong() >>> 1;
+                    val = bits % n;
+                } while (bits - val + (n - 1) < 0);
+                return lower + val;
+            }
+            // the range does not fit into a long
+            long val;
+            do {
+                val = nextLong();
+            } while (val < lower || val >= upper);
+            return val;
+        }
+
+        int nextInt(int bound) {
+            return (int) nextLong(0, bound);
+        }
+
+        double nextGaussian() {
+            // the polar method, as used by java.util.Random
+            if (haveNextGaussian) {
+                haveNextGaussian = false;
+                return nextGaussian;
+            }
+            double v1;
+            double v2;
+            double s;
+            do {
+                v1 = 2 * nextDouble() - 1;
+                v2 = 2 * nextDouble() - 1;
+                s = v1 * v1 + v2 * v2;
+            } while (s >= 1 || s == 0);
+            double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+            nextGaussian = v2 * multiplier;
+            haveNextGaussian = true;
+            return v1 * multiplier;
+        }
+
+        void nextBytes(byte[] bytes) {
+            int i = 0;
+            while (i < bytes.length) {
+                long val = nextLong();
+                for (int n = Math.min(bytes.length - i, Long.BYTES); n-- > 0; val >>>= Byte.SIZE) {
+                    bytes[i++] = (byte) val;
+                }
+            }
+        }
+
+        boolean smallBiasProbability() {
+            return nextInt(100) == 1;
         }
+
     }
 
-    private void addToCache(String val) {
-        if (useCaching && cachedStrings.size() < cacheSize && !cachedStrings.contains(val)) {
-            cachedStrings.add(val);
+    /**
+     * A set of up to {@link #cacheSize} distinct primitive values that supports picking a random element, without
+     * boxing the values.
+     */
+    private static final class PrimitiveCache {
+
+        private long[] values;
+        // open addressing; each slot holds the index of a value plus one, or zero if it is empty
+        private int[] slots;
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
         }
+
+        long get(Generator random) {
+            return values[random.nextInt(size)];
+        }
+
+        void add(long val) {
+            if (values == null) {
+                values = new long[cacheSize];
+                slots = new int[Integer.highestOneBit(Math.max(cacheSize, 1)) * 4];
+            }
+            if (size >= values.length) {
+                return;
+            }
+            int mask = slots.length - 1;
+            int slot = (int) (mix(val) & mask);
+            while (slots[slot] != 0) {
+                if (values[slots[slot] - 1] == val) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            values[size++] = val;
+            slots[slot] = size;
+        }
+
+        private static long mix(long val) {
+            long h = val * 0x9E3779B97F4A7C15L;
+            return h ^ (h >>> 32);
+        }
+
     }
 
-    private Long getFromLongCache() {
-        if (!useCaching || cachedLongs.isEmpty()) {
-            return null;
-        } else {
-            return Randomly.fromList(cachedLongs);
+    private void addToCache(long val) {
+        if (useCaching) {
+            cachedLongs.add(val);
         }
     }
 
-    private Integer getFromIntegerCache() {
-        if (!useCaching || cachedIntegers.isEmpty()) {
-            return null;
-        } else {
-            return Randomly.fromList(cachedIntegers);
+    private void addToCache(int val) {
+        if (useCaching) {
+            cachedIntegers.add(val);
         }
     }
 
-    private Double getFromDoubleCache() {
-        if (!useCaching) {
-            return null;
+    private void addToCache(double val) {
+        if (useCaching) {
+            cachedDoubles.add(Double.doubleToLongBits(val));
         }
-        if (Randomly.getBoolean() && !cachedLongs.isEmpty()) {
-            return (double) Randomly.fromList(cachedLongs);
-        } else if (!cachedDoubles.isEmpty()) {
-            return Randomly.fromList(cachedDoubles);
-        } else {
-            return null;
+    }
+
+    private void addToCache(String val) {
+        if (useCaching && cachedStrings.size() < cacheSize && cachedStringSet.add(val)) {
+            cachedStrings.add(val);
         }
     }
 
@@ -83,16 +221,16 @@ public final class Randomly {
         if (!useCaching) {
             return null;
         }
-        if (Randomly.getBoolean() && !cachedLongs.isEmpty()) {
-            return String.valueOf(Randomly.fromList(cachedLongs));
-        } else if (Randomly.getBoolean() && !cachedDoubles.isEmpty()) {
-            return String.valueOf(Randomly.fromList(cachedDoubles));
-        } else if (Randomly.getBoolean() && !cachedBytes.isEmpty()
+        if (random.nextBoolean() && !cachedLongs.isEmpty()) {
+            return String.valueOf(cachedLongs.get(random));
+        } else if (random.nextBoolean() && !cachedDoubles.isEmpty()) {
+            return String.valueOf(Double.longBitsToDouble(cachedDoubles.get(random)));
+        } else if (random.nextBoolean() && !cachedBytes.isEmpty()
                 && stringGenerationStrategy == StringGenerationStrategy.SOPHISTICATED) {
-            return new String(Randomly.fromList(cachedBytes));
+            return new String(cachedBytes.get(random.nextInt(cachedBytes.size())));
         } else if (!cachedStrings.isEmpty()) {
-            String randomString = Randomly.fromList(cachedStrings);
-            if (Randomly.getBoolean()) {
+            String randomString = cachedStrings.get(random.nextInt(cachedStrings.size()));
+            if (random.nextBoolean()) {
                 return randomString;
             } else {
                 return stringGenerationStrategy.transformCachedString(this, randomString);
@@ -102,8 +240,8 @@ public final class Randomly {
         }
     }
 
-    private static boolean cacheProbability() {
-        return useCaching && getNextLong(0, 3) == 1;
+    private boolean cacheProbability() {
+        return useCaching && random.nextInt(3) == 1;
     }
 
     // CACHING END
@@ -177,36 +315,35 @@ public final class Randomly {
 
     public static int smallNumber() {
         // no need to cache for small numbers
-        return (int) (Math.abs(getThreadRandom().get().nextGaussian())) * 2;
+        return (int) (Math.abs(getThreadRandom().nextGaussian())) * 2;
     }
 
     public static boolean getBoolean() {
-        return getThreadRandom().get().nextBoolean();
+        return getThreadRandom().nextBoolean();
     }
 
     public static double getPercentage() {
-        return getThreadRandom().get().nextDouble();
+        return getThreadRandom().nextDouble();
     }
 
-    private static ThreadLocal<Random> getThreadRandom() {
-        if (THREAD_RANDOM.get() == null) {
+    private static Generator getThreadRandom() {
+        Generator random = THREAD_RANDOM.get();
+        if (random == null) {
             // a static method has been called, before Randomly was instantiated
-            THREAD_RANDOM.set(new Random());
+            random = new Generator(ThreadLocalRandom.current().nextLong());
+            THREAD_RANDOM.set(random);
         }
-        return THREAD_RANDOM;
+        return random;
     }
 
     public long getInteger() {
-        if (smallBiasProbability()) {
-            return Randomly.fromOptions(-1L, Long.MAX_VALUE, Long.MIN_VALUE, 1L, 0L);
+        if (random.smallBiasProbability()) {
+            return INTERESTING_INTEGERS[random.nextInt(INTERESTING_INTEGERS.length)];
         } else {
-            if (cacheProbability()) {
-                Long l = getFromLongCache();
-                if (l != null) {
-                    return l;
-                }
+            if (cacheProbability() && !cachedLongs.isEmpty()) {
+                return cachedLongs.get(random);
             }
-            long nextLong = getThreadRandom().get().nextInt();
+            long nextLong = random.nextInt();
             addToCache(nextLong);
             return nextLong;
         }
@@ -243,10 +380,10 @@ public final class Randomly {
 
             @Override
             public String getString(Randomly r) {
-                if (smallBiasProbability()) {
+                if (r.random.smallBiasProbability()) {
                     return Randomly.fromOptions("TRUE", "FALSE", "0.0", "-0.0", "1e500", "-1e500");
                 }
-                if (cacheProbability()) {
+                if (r.cacheProbability()) {
                     String s = r.getFromStringCache();
                     if (s != null) {
                         return s;
@@ -259,13 +396,13 @@ public final class Randomly {
 
                 int chars = getStringLength(r);
                 for (int i = 0; i < chars; i++) {
-                    if (Randomly.getBooleanWithRatherLowProbability()) {
+                    if (r.random.nextInt(10) == 1) {
                         char val = (char) r.getInteger();
                         if (val != 0) {
                             sb.append(val);
                         }
                     } else {
-                        sb.append(ALPHABET.charAt(getNextInt(0, n)));
+                        sb.append(ALPHABET.charAt(r.random.nextInt(n)));
                     }
                 }
                 while (Randomly.getBooleanWithSmallProbability()) {
@@ -316,7 +453,7 @@ public final class Randomly {
 
         private static int getStringLength(Randomly r) {
             int chars;
-            if (Randomly.getBoolean()) {
+            if (r.random.nextBoolean()) {
                 chars = Randomly.smallNumber();
             } else {
                 chars = r.getInteger(0, maxStringLength);
@@ -328,7 +465,7 @@ public final class Randomly {
             int chars = getStringLength(r);
             StringBuilder sb = new StringBuilder();
             for (int i = 0; i < chars; i++) {
-                sb.append(alphabet.charAt(getNextInt(0, alphabet.length())));
+                sb.append(alphabet.charAt(r.random.nextInt(alphabet.length())));
             }
             return sb.toString();
         }
@@ -348,18 +485,18 @@ public final class Randomly {
     public byte[] getBytes() {
         int size = Randomly.smallNumber();
         byte[] arr = new byte[size];
-        getThreadRandom().get().nextBytes(arr);
+        random.nextBytes(arr);
         return arr;
     }
 
     public long getNonZeroInteger() {
         long value;
-        if (smallBiasProbability()) {
-            return Randomly.fromOptions(-1L, Long.MAX_VALUE, Long.MIN_VALUE, 1L);
+        if (random.smallBiasProbability()) {
+            return INTERESTING_NON_ZERO_INTEGERS[random.nextInt(INTERESTING_NON_ZERO_INTEGERS.length)];
         }
-        if (cacheProbability()) {
-            Long l = getFromLongCache();
-            if (l != null && l != 0) {
+        if (cacheProbability() && !cachedLongs.isEmpty()) {
+            long l = cachedLongs.get(random);
+            if (l != 0) {
                 return l;
             }
         }
@@ -371,17 +508,17 @@ public final class Randomly {
     }
 
     public long getPositiveInteger() {
-        if (cacheProbability()) {
-            Long value = getFromLongCache();
-            if (value != null && value >= 0) {
+        if (cacheProbability() && !cachedLongs.isEmpty()) {
+            long value = cachedLongs.get(random);
+            if (value >= 0) {
                 return value;
             }
         }
         long value;
-        if (smallBiasProbability()) {
-            value = Randomly.fromOptions(0L, Long.MAX_VALUE, 1L);
+        if (random.smallBiasProbability()) {
+            value = INTERESTING_POSITIVE_INTEGERS[random.nextInt(INTERESTING_POSITIVE_INTEGERS.length)];
         } else {
-            value = getNextLong(0, Long.MAX_VALUE);
+            value = random.nextLong(0, Long.MAX_VALUE);
         }
         addToCache(value);
         assert value >= 0;
@@ -389,17 +526,17 @@ public final class Randomly {
     }
 
     public int getPositiveIntegerInt() {
-        if (cacheProbability()) {
-            Integer value = getFromIntegerCache();
-            if (value != null && value >= 0) {
+        if (cacheProbability() && !cachedIntegers.isEmpty()) {
+            int value = (int) cachedIntegers.get(random);
+            if (value >= 0) {
                 return value;
             }
         }
         int value;
-        if (smallBiasProbability()) {
-            value = Randomly.fromOptions(0, Integer.MAX_VALUE, 1);
+        if (random.smallBiasProbability()) {
+            value = INTERESTING_POSITIVE_INTS[random.nextInt(INTERESTING_POSITIVE_INTS.length)];
         } else {
-            value = getNextInt(0, Integer.MAX_VALUE);
+            value = random.nextInt(Integer.MAX_VALUE);
         }
         addToCache(value);
         assert value >= 0;
@@ -416,30 +553,26 @@ public final class Randomly {
     }
 
     public double getDouble() {
-        if (smallBiasProbability()) {
-            return Randomly.fromOptions(0.0, -0.0, Double.MAX_VALUE, -Double.MAX_VALUE, Double.POSITIVE_INFINITY,
-                    Double.NEGATIVE_INFINITY);
+        if (random.smallBiasProbability()) {
+            return INTERESTING_DOUBLES[random.nextInt(INTERESTING_DOUBLES.length)];
         } else if (cacheProbability()) {
-            Double d = getFromDoubleCache();
-            if (d != null) {
-                return d;
+            if (random.nextBoolean() && !cachedLongs.isEmpty()) {
+                return cachedLongs.get(random);
+            } else if (!cachedDoubles.isEmpty()) {
+                return Double.longBitsToDouble(cachedDoubles.get(random));
             }
         }
-        double value = getThreadRandom().get().nextDouble();
+        double value = random.nextDouble();
         addToCache(value);
         return value;
     }
 
-    private static boolean smallBiasProbability() {
-        return getThreadRandom().get().nextInt(100) == 1;
-    }
-
     public static boolean getBooleanWithRatherLowProbability() {
-        return getThreadRandom().get().nextInt(10) == 1;
+        return getThreadRandom().nextInt(10) == 1;
     }
 
     public static boolean getBooleanWithSmallProbability() {
-        return smallBiasProbability();
+        return getThreadRandom().smallBiasProbability();
     }
 
     public int getInteger(int left, int right) {
@@ -454,7 +587,10 @@ public final class Randomly {
         if (left == right) {
             return left;
         }
-        return getNextLong(left, right);
+        if (left > right) {
+            throw new IllegalArgumentException(left + " " + right);
+        }
+        return random.nextLong(left, right);
     }
 
     public BigInteger getBigInteger(BigInteger left, BigInteger right) {
@@ -469,7 +605,7 @@ public final class Randomly {
     }
 
     public BigDecimal getRandomBigDecimal() {
-        return BigDecimal.valueOf(getThreadRandom().get().nextDouble());
+        return BigDecimal.valueOf(random.nextDouble());
     }
 
     public long getPositiveIntegerNotNull() {
@@ -482,7 +618,7 @@ public final class Randomly {
     }
 
     public static long getNonCachedInteger() {
-        return getThreadRandom().get().nextLong();
+        return getThreadRandom().nextLong();
     }
 
     public static long getPositiveOrZeroNonCachedInteger() {
@@ -495,19 +631,22 @@ public final class Randomly {
 
     public Randomly(Supplier<String> provider) {
         this.provider = provider;
+        this.random = getThreadRandom();
     }
 
     public Randomly() {
-        THREAD_RANDOM.set(new Random());
+        this.random = new Generator(ThreadLocalRandom.current().nextLong());
+        THREAD_RANDOM.set(random);
     }
 
     public Randomly(long seed) {
         this.seed = seed;
-        THREAD_RANDOM.set(new Random(seed));
+        this.random = new Generator(seed);
+        THREAD_RANDOM.set(random);
     }
 
     public static double getUncachedDouble() {
-        return getThreadRandom().get().nextDouble();
+        return getThreadRandom().nextDouble();
     }
 
     public String getChar() {
@@ -528,9 +667,6 @@ public final class Randomly {
         }
     }
 
-    // see https://stackoverflow.com/a/2546158
-    // uniformity does not seem to be important for us
-    // SQLancer previously used ThreadLocalRandom.current().nextLong(lower, upper)
     private static long getNextLong(long lower, long upper) {
         if (lower > upper) {
             throw new IllegalArgumentException(lower + " " + upper);
@@ -538,7 +674,7 @@ public final class Randomly {
         if (lower == upper) {
             return lower;
         }
-        return getThreadRandom().get().longs(lower, upper).findFirst().getAsLong();
+        return getThreadRandom().nextLong(lower, upper);
     }
 
     private static int getNextInt(int lower, int upper) {
@@ -0,0 +1,61 @@
+package sqlancer;
+
+/**
+ * An order-insensitive fingerprint of a multiset of result set values. Each value is hashed to 128 bits, and the hashes
+ * are combined by addition, so that the fingerprint can be computed while streaming over a result set without
+ * materializing its rows. Two fingerprints are equal if the underlying multisets are equal; unequal multisets result in
+ * unequal fingerprints with high probability.
+ */
+public final class ResultSetFingerprint {
+
+    private static final long NULL_HASH_LOW = 0x9E3779B97F4A7C15L;
+    private static final long NULL_HASH_HIGH = 0xC2B2AE3D27D4EB4FL;
+
+    private long nrRows;
+    private long hashLow;
+    private long hashHigh;
+
+    public void add(String value) {
+        nrRows++;
+        if (value == null) {
+            hashLow += NULL_HASH_LOW;
+            hashHigh += NULL_HASH_HIGH;
+            return;
+        }
+        long h1 = 0xCBF29CE484222325L; // FNV-1a offset basis
+        long h2 = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            h1 = (h1 ^ c) * 0x100000001B3L;
+            h2 = h2 * 0x9E3779B97F4A7C15L + c;
+        }
+        hashLow += mix(h1);
+        hashHigh += mix(h2 ^ NULL_HASH_HIGH);
+    }
+
+    public void addAll(ResultSetFingerprint other) {
+        nrRows += other.nrRows;
+        hashLow += other.hashLow;
+        hashHigh += other.hashHigh;
+    }
+
+    public long getNrRows() {
+        return nrRows;
+    }
+
+    public boolean hasSameContent(ResultSetFingerprint other) {
+        return nrRows == other.nrRows && hashLow == other.hashLow && hashHigh == other.hashHigh;
+    }
+
+    // finalization step of MurmurHash3
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
@@ -8,9 +8,31 @@ import java.sql.Statement;
 public class SQLConnection implements SQLancerDBConnection {
 
     private final Connection connection;
+    private final ConnectionFactory sideConnectionFactory;
+    private SQLConnection sideConnection;
+    // run after the connection is closed, for example, to drop a pooled database
+    private Runnable closeHook;
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection connect() throws SQLException;
+    }
 
     public SQLConnection(Connection connection) {
+        this(connection, null);
+    }
+
+    /**
+     * Creates a connection that can open a side connection to the same database (see {@link #openSideConnection()}).
+     *
+     * @param connection
+     *            the connection to the database
+     * @param sideConnectionFactory
+     *            opens another connection to the same database, or null if this is not supported
+     */
+    public SQLConnection(Connection connection, ConnectionFactory sideConnectionFactory) {
         this.connection = connection;
+        this.sideConnectionFactory = sideConnectionFactory;
     }
 
     @Override
@@ -21,7 +43,23 @@ public class SQLConnection implements SQLancerDBConnection {
 
     @Override
     public void close() throws SQLException {
-        connection.close();
+        try {
+            if (sideConnection != null) {
+                sideConnection.close();
+            }
+        } finally {
+            try {
+                connection.close();
+            } finally {
+                if (closeHook != null) {
+                    closeHook.run();
+                }
+            }
+        }
+    }
+
+    void setCloseHook(Runnable closeHook) {
+        this.closeHook = closeHook;
     }
 
     public Statement prepareStatement(String arg) throws SQLException {
@@ -31,4 +69,46 @@ public class SQLConnection implements SQLancerDBConnection {
     public Statement createStatement() throws SQLException {
         return connection.createStatement();
     }
+
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        connection.setAutoCommit(autoCommit);
+    }
+
+    public void commit() throws SQLException {
+        connection.commit();
+    }
+
+    public void rollback() throws SQLException {
+        connection.rollback();
+    }
+
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        connection.setReadOnly(readOnly);
+    }
+
+    public void setTransactionIsolation(int level) throws SQLException {
+        connection.setTransactionIsolation(level);
+    }
+
+    public boolean supportsSideConnection() {
+        return sideConnectionFactory != null;
+    }
+
+    /**
+     * Returns the side connection, which is a second connection to the same database that is closed together with this
+     * connection.
+     *
+     * @return the side connection, or null if it has not been opened
+     */
+    public SQLConnection getSideConnection() {
+        return sideConnection;
+    }
+
+    public SQLConnection openSideConnection() throws SQLException {
+        if (sideConnectionFactory == null || sideConnection != null) {
+            throw new AssertionError();
+        }
+        sideConnection = new SQLConnection(sideConnectionFactory.connect());
+        return sideConnection;
+    }
 }
@@ -1,6 +1,16 @@
 package sqlancer;
 
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
 import sqlancer.common.query.Query;
+import sqlancer.common.query.SQLQueryAdapter;
 import sqlancer.common.schema.AbstractSchema;
 
 /**
@@ -14,6 +24,18 @@ import sqlancer.common.schema.AbstractSchema;
 public abstract class SQLGlobalState<O extends DBMSSpecificOptions<?>, S extends AbstractSchema<?, ?>>
         extends GlobalState<O, S, SQLConnection> {
 
+    // statements that change the settings of the session, which are repeated on the side connection
+    private static final Pattern SESSION_STATEMENT = Pattern
+            .compile("(?:SET(?!\\s+(?:LOCAL|TRANSACTION|CONSTRAINTS)\\b)|RESET|DISCARD|PRAGMA)\\b");
+    // objects that are visible only to the session that created them
+    private static final Pattern TEMPORARY_OBJECT = Pattern
+            .compile("CREATE\\s+(?:OR\\s+REPLACE\\s+)?(?:(?:GLOBAL|LOCAL)\\s+)?TEMP(?:ORARY)?\\b");
+
+    private final List<String> sessionStatements = new ArrayList<>();
+    private int nrReplayedSessionStatements;
+    private boolean sideConnectionUnusable;
+    private Future<?> sideConnectionTask;
+
     @Override
     protected void executeEpilogue(Query<?> q, boolean success, ExecutionTimer timer) throws Exception {
         boolean logExecutionTime = getOptions().logExecutionTime();
@@ -23,8 +45,83 @@ public abstract class SQLGlobalState<O extends DBMSSpecificOptions<?>, S extends
         if (logExecutionTime) {
             getLogger().writeCurrent(" -- " + timer.end().asString());
         }
-        if (q.couldAffectSchema()) {
-            updateSchema();
+        if (q.couldAffectSchema() && (success || failedStatementsCanAffectSchema())) {
+            invalidateSchema();
+        }
+        if (success) {
+            String sql = q.getQueryString().trim().toUpperCase(Locale.ROOT);
+            if (SESSION_STATEMENT.matcher(sql).lookingAt()) {
+                sessionStatements.add(q.getQueryString());
+            } else if (TEMPORARY_OBJECT.matcher(sql).lookingAt()) {
+                // the side connection would not see it, or see another object with the same name
+                sideConnectionUnusable = true;
+            }
         }
     }
+
+    /**
+     * Returns the side connection, a second, read-only connection to the database on which an oracle can execute a
+     * query while it executes another one on the main connection (see {@link ConcurrentQuery}). It is available only if
+     * --concurrent-queries is enabled and the provider can open it, and only as long as both connections are guaranteed
+     * to see the same data: no transaction must be active on the main connection, and no temporary objects must have
+     * been created. The session settings of the main connection are repeated on the side connection.
+     *
+     * @return the side connection, or null if it is not available
+     */
+    public SQLConnection getSideConnection() {
+        SQLConnection con = getConnection();
+        if (!getOptions().useConcurrentQueries() || sideConnectionUnusable || transactionMightBeActive()
+                || !con.supportsSideConnection()) {
+            return null;
+        }
+        awaitSideConnectionTask();
+        try {
+            SQLConnection sideConnection = con.getSideConnection();
+            if (sideConnection == null) {
+                sideConnection = con.openSideConnection();
+                sideConnection.setReadOnly(true);
+                int isolation = getOptions().getConcurrentQueriesIsolation().getLevel();
+                if (isolation != -1) {
+                    sideConnection.setTransactionIsolation(isolation);
+                }
+                nrReplayedSessionStatements = 0;
+            }
+            while (nrReplayedSessionStatements < sessionStatements.size()) {
+                try (Statement s = sideConnection.createStatement()) {
+                    s.execute(sessionStatements.get(nrReplayedSessionStatements));
+                }
+                nrReplayedSessionStatements++;
+            }
+            return sideConnection;
+        } catch (SQLException e) {
+            // the side connection cannot be set up like the main connection
+            sideConnectionUnusable = true;
+            return null;
+        }
+    }
+
+    void setSideConnectionTask(Future<?> task) {
+        sideConnectionTask = task;
+    }
+
+    private void awaitSideConnectionTask() {
+        // a task whose result was not requested, for example, because the oracle failed, might still be running
+        if (sideConnectionTask != null) {
+            try {
+                sideConnectionTask.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IgnoreMeException();
+            } catch (ExecutionException e) {
+                // its result is not needed
+            }
+            sideConnectionTask = null;
+        }
+    }
+
+    @Override
+    protected boolean[] executeBatch(List<Query<SQLConnection>> queries, BatchListener listener) throws Exception {
+        return SQLQueryAdapter.executeBatch(this, queries, listener);
+    }
+
 }
@@ -0,0 +1,174 @@
+package sqlancer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import sqlancer.common.query.Query;
+
+/**
+ * Caches database snapshots keyed by the hash of the statement prefix that produced them. When the reducers replay a
+ * list of statements, the snapshot of the longest cached prefix is restored and only the remaining statements are
+ * executed. While executing them, further snapshots are taken at regular intervals, so that subsequent probes that
+ * share a prefix can start from there.
+ *
+ * @param <G>
+ *            the global state type
+ * @param <C>
+ *            the connection type
+ */
+public final class SnapshotCache<G extends GlobalState<?, ?, C>, C extends SQLancerDBConnection>
+        implements AutoCloseable {
+
+    private static final int NR_CHECKPOINTS = 16;
+    private static final int MAX_SNAPSHOTS = 64;
+
+    private final SnapshotSupport<G, C> support;
+    private final File directory;
+    // insertion-ordered, so that the oldest snapshot is evicted first
+    private final Map<Long, Snapshot> snapshots = new LinkedHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long nrSnapshots;
+
+    private static final class Snapshot {
+        private final int prefixLength;
+        private final File file;
+
+        Snapshot(int prefixLength, File file) {
+            this.prefixLength = prefixLength;
+            this.file = file;
+        }
+    }
+
+    public SnapshotCache(SnapshotSupport<G, C> support) throws IOException {
+        this.support = support;
+        this.directory = Files.createTempDirectory("sqlancer-snapshots").toFile();
+    }
+
+    /**
+     * Brings the freshly-created database of the given state into the state obtained by executing the statements.
+     * Errors of individual statements are ignored.
+     *
+     * @param state
+     *            the state whose connection is used
+     * @param statements
+     *            the statements to be executed
+     *
+     * @throws Exception
+     *             if a snapshot cannot be restored
+     */
+    public void replay(G state, List<Query<C>> statements) throws Exception {
+        long[] prefixHashes = computePrefixHashes(statements);
+        int restoredLength = 0;
+        lock.readLock().lock();
+        try {
+            for (int i = statements.size(); i > 0; i--) {
+                Snapshot snapshot = snapshots.get(prefixHashes[i]);
+                if (snapshot != null && snapshot.prefixLength == i) {
+                    support.restoreSnapshot(state, snapshot.file);
+                    state.getRowCountEstimate().invalidateAll();
+                    restoredLength = i;
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (int i = 0; i < restoredLength; i++) {
+            if (support.isConnectionSetting(statements.get(i))) {
+                execute(state, statements.get(i));
+            }
+        }
+        int interval = Math.max(1, statements.size() / NR_CHECKPOINTS);
+        for (int i = restoredLength; i < statements.size(); i++) {
+            execute(state, statements.get(i));
+            int prefixLength = i + 1;
+            if (prefixLength % interval == 0) {
+                addSnapshot(state, prefixHashes[prefixLength], prefixLength);
+            }
+        }
+    }
+
+    private static <C extends SQLancerDBConnection> void execute(GlobalState<?, ?, C> state, Query<C> query) {
+        try {
+            query.execute(state);
+        } catch (Throwable ignoredException) {
+            // ignore
+        }
+    }
+
+    private void addSnapshot(G state, long prefixHash, int prefixLength) {
+        lock.readLock().lock();
+        try {
+            if (snapshots.containsKey(prefixHash)) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!support.canCreateSnapshot(state)) {
+            return;
+        }
+        File file;
+        synchronized (this) {
+            file = new File(directory, "snapshot" + nrSnapshots++ + ".db");
+        }
+        try {
+            support.createSnapshot(state, file);
+        } catch (Exception e) {
+            file.delete();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (snapshots.putIfAbsent(prefixHash, new Snapshot(prefixLength, file)) != null) {
+                file.delete();
+                return;
+            }
+            if (snapshots.size() > MAX_SNAPSHOTS) {
+                Iterator<Snapshot> it = snapshots.values().iterator();
+                it.next().file.delete();
+                it.remove();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long[] computePrefixHashes(List<? extends Query<?>> statements) {
+        long[] prefixHashes = new long[statements.size() + 1];
+        long hash = 0xCBF29CE484222325L;
+        prefixHashes[0] = hash;
+        for (int i = 0; i < statements.size(); i++) {
+            String queryString = statements.get(i).getQueryString();
+            for (int j = 0; j < queryString.length(); j++) {
+                hash = (hash ^ queryString.charAt(j)) * 0x100000001B3L;
+            }
+            // separate the statements, so that moving a character from one statement to the next changes the hash
+            hash = (hash ^ 0xFFFF) * 0x100000001B3L;
+            prefixHashes[i + 1] = hash;
+        }
+        return prefixHashes;
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            for (Snapshot snapshot : snapshots.values()) {
+                snapshot.file.delete();
+            }
+            snapshots.clear();
+            directory.delete();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+}
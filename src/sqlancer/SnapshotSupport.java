@@ -0,0 +1,55 @@
+package sqlancer;
+
+import java.io.File;
+
+import sqlancer.common.query.Query;
+
+/**
+ * Implemented by providers whose databases can be saved to a file and restored from it. The reducers use snapshots to
+ * avoid re-executing the common prefix of the statements that they replay (see {@link SnapshotCache}).
+ *
+ * @param <G>
+ *            the global state type
+ * @param <C>
+ *            the connection type
+ */
+public interface SnapshotSupport<G extends GlobalState<?, ?, C>, C extends SQLancerDBConnection> {
+
+    /**
+     * Determines whether the current database state can be faithfully captured by a snapshot. For example, a snapshot
+     * cannot be created while a transaction is open.
+     *
+     * @param globalState
+     *            the state whose connection is used
+     *
+     * @return true if {@link #createSnapshot(GlobalState, File)} can be called
+     */
+    boolean canCreateSnapshot(G globalState);
+
+    void createSnapshot(G globalState, File snapshot) throws Exception;
+
+    /**
+     * Restores a snapshot into the freshly-created database of the given state.
+     *
+     * @param globalState
+     *            the state whose connection is used
+     * @param snapshot
+     *            the file created by {@link #createSnapshot(GlobalState, File)}
+     *
+     * @throws Exception
+     *             if restoring the snapshot fails
+     */
+    void restoreSnapshot(G globalState, File snapshot) throws Exception;
+
+    /**
+     * Determines whether a statement only changes the state of the connection (e.g., a setting), which is not captured
+     * by a snapshot and thus needs to be executed again after restoring it.
+     *
+     * @param query
+     *            the statement
+     *
+     * @return true if the statement needs to be executed after restoring a snapshot that includes it
+     */
+    boolean isConnectionSetting(Query<C> query);
+
+}
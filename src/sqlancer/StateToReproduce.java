@@ -1,16 +1,20 @@
 package sqlancer;
 
 import java.io.Closeable;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import sqlancer.common.log.LoggableFactory;
 import sqlancer.common.query.Query;
 
 public class StateToReproduce {
 
     private List<Query<?>> statements = new ArrayList<>();
 
+    private StatementJournal journal;
+
     private final String databaseName;
 
     private final DatabaseProvider<?, ?, ?> databaseProvider;
@@ -63,11 +67,52 @@ public class StateToReproduce {
         if (query == null) {
             throw new IllegalArgumentException();
         }
-        statements.add(query);
+        if (journal == null) {
+            statements.add(query);
+        } else {
+            journal.append(query.getLogString());
+        }
     }
 
+    /**
+     * Logs the subsequent statements to the given journal rather than keeping them in memory. The statements are then
+     * read back from the journal as queries of the database provider's {@link LoggableFactory}, which do not retain the
+     * expected errors of the original queries.
+     *
+     * @param journal
+     *            the empty journal of the current thread
+     */
+    public void setJournal(StatementJournal journal) {
+        if (!statements.isEmpty() || journal.size() != 0) {
+            throw new IllegalStateException();
+        }
+        this.journal = journal;
+    }
+
+    /**
+     * Returns the logged statements. If the statements are kept in a journal, they are read from it on access.
+     *
+     * @return an unmodifiable view of the statements
+     */
     public List<Query<?>> getStatements() {
-        return Collections.unmodifiableList(statements);
+        if (journal == null) {
+            return Collections.unmodifiableList(statements);
+        }
+        StatementJournal current = journal;
+        LoggableFactory factory = databaseProvider.getLoggableFactory();
+        return new AbstractList<Query<?>>() {
+
+            @Override
+            public Query<?> get(int index) {
+                return factory.getQueryForStateToReproduce(current.get(index));
+            }
+
+            @Override
+            public int size() {
+                return current.size();
+            }
+
+        };
     }
 
     /**
@@ -75,6 +120,9 @@ public class StateToReproduce {
      */
     @Deprecated
     public void commentStatements() {
+        if (journal != null) {
+            setStatements(new ArrayList<>(getStatements()));
+        }
         for (int i = 0; i < statements.size(); i++) {
             Query<?> statement = statements.get(i);
             Query<?> newQuery = databaseProvider.getLoggableFactory().commentOutQuery(statement);
@@ -120,7 +168,9 @@ public class StateToReproduce {
         @Override
         public void close() {
             if (!success) {
-                StateToReproduce.this.statements.addAll(statements);
+                for (Query<?> statement : statements) {
+                    logStatement(statement);
+                }
             }
 
         }
@@ -133,6 +183,7 @@ public class StateToReproduce {
 
     public void setStatements(List<Query<?>> statements) {
         this.statements = statements;
+        this.journal = null;
     }
 
 }
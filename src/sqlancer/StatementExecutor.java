@@ -2,15 +2,24 @@ package sqlancer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import sqlancer.common.query.Query;
 
 public class StatementExecutor<G extends GlobalState<?, ?, ?>, A extends AbstractAction<G>> {
 
+    private static final Pattern DML = Pattern.compile("(?:INSERT|UPDATE|DELETE|REPLACE)\\b");
+
     private final G globalState;
     private final A[] actions;
     private final ActionMapper<G, A> mapping;
     private final AfterQueryAction queryConsumer;
+    @SuppressWarnings("rawtypes")
+    private final List<Query> batch = new ArrayList<>();
+    private final List<A> batchActions = new ArrayList<>();
+    private ActionScheduler scheduler;
 
     @FunctionalInterface
     public interface AfterQueryAction {
@@ -29,55 +38,168 @@ public class StatementExecutor<G extends GlobalState<?, ?, ?>, A extends Abstrac
         this.queryConsumer = queryConsumer;
     }
 
-    @SuppressWarnings("unchecked")
     public void executeStatements() throws Exception {
-        Randomly r = globalState.getRandomly();
         int[] nrRemaining = new int[actions.length];
-        List<A> availableActions = new ArrayList<>();
         int total = 0;
         for (int i = 0; i < actions.length; i++) {
             A action = actions[i];
             int nrPerformed = mapping.map(globalState, action);
-            if (nrPerformed != 0) {
-                availableActions.add(action);
-            }
             nrRemaining[i] = nrPerformed;
             total += nrPerformed;
         }
-        while (total != 0) {
-            A nextAction = null;
-            int selection = r.getInteger(0, total);
-            int previousRange = 0;
-            int i;
-            for (i = 0; i < nrRemaining.length; i++) {
-                if (previousRange <= selection && selection < previousRange + nrRemaining[i]) {
-                    nextAction = actions[i];
+        int timeBudgetMillis = globalState.getOptions().getActionTimeBudgetMillis();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        if (globalState.getOptions().useAdaptiveActionScheduling()) {
+            String[] names = new String[actions.length];
+            for (int i = 0; i < actions.length; i++) {
+                names[i] = actions[i].toString();
+            }
+            scheduler = new ActionScheduler(ExecutionCounters.current().getDBMS(), names, nrRemaining);
+            for (int i = scheduler.next(); i != -1; i = scheduler.next()) {
+                if (timeBudgetMillis > 0 && System.nanoTime() > deadline) {
                     break;
-                } else {
-                    previousRange += nrRemaining[i];
                 }
+                executeAction(actions[i]);
+            }
+        } else {
+            Randomly r = globalState.getRandomly();
+            while (total != 0) {
+                if (timeBudgetMillis > 0 && System.nanoTime() > deadline) {
+                    break;
+                }
+                A nextAction = null;
+                int selection = r.getInteger(0, total);
+                int previousRange = 0;
+                int i;
+                for (i = 0; i < nrRemaining.length; i++) {
+                    if (previousRange <= selection && selection < previousRange + nrRemaining[i]) {
+                        nextAction = actions[i];
+                        break;
+                    } else {
+                        previousRange += nrRemaining[i];
+                    }
+                }
+                assert nextAction != null;
+                assert nrRemaining[i] > 0;
+                nrRemaining[i]--;
+                executeAction(nextAction);
+                total--;
             }
-            assert nextAction != null;
-            assert nrRemaining[i] > 0;
-            nrRemaining[i]--;
-            @SuppressWarnings("rawtypes")
-            Query query = null;
-            try {
-                boolean success;
+        }
+        executeBatch();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void executeAction(A nextAction) throws Exception {
+        @SuppressWarnings("rawtypes")
+        Query query = null;
+        globalState.setStatementKind(nextAction.toString());
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        boolean batched = false;
+        try {
+            query = nextAction.getQuery(globalState);
+            if (canBeBatched(query)) {
+                batch.add(query);
+                batchActions.add(nextAction);
+                batched = true;
+                if (batch.size() >= globalState.getOptions().getBatchSize()) {
+                    executeBatch();
+                }
+            } else {
+                long batchStartNanos = System.nanoTime();
+                executeBatch();
+                // the pending batch is accounted to its own actions
+                startNanos += System.nanoTime() - batchStartNanos;
+                success = globalState.executeStatement(query);
                 int nrTries = 0;
-                do {
+                while (nextAction.canBeRetried() && !success
+                        && nrTries++ < globalState.getOptions().getNrStatementRetryCount()) {
                     query = nextAction.getQuery(globalState);
                     success = globalState.executeStatement(query);
-                } while (nextAction.canBeRetried() && !success
-                        && nrTries++ < globalState.getOptions().getNrStatementRetryCount());
-            } catch (IgnoreMeException ignored) {
-
+                }
             }
+        } catch (IgnoreMeException ignored) {
             if (query != null && query.couldAffectSchema()) {
-                globalState.updateSchema();
-                queryConsumer.notify(query);
+                // the statement might have been executed without the epilogue that invalidates the schema
+                globalState.invalidateSchema();
+            }
+        } finally {
+            globalState.setStatementKind(null);
+            if (scheduler != null && !batched) {
+                scheduler.record(nextAction.toString(), success, System.nanoTime() - startNanos);
+            }
+        }
+        if (query != null && query.couldAffectSchema()) {
+            queryConsumer.notify(query);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private boolean canBeBatched(Query query) {
+        return globalState.getOptions().getBatchSize() > 1 && globalState.supportsBatchedStatements()
+                && !globalState.transactionMightBeActive() && !query.couldAffectSchema()
+                && DML.matcher(query.getQueryString().trim().toUpperCase(Locale.ROOT)).lookingAt();
+    }
+
+    /**
+     * Executes the statements that have been batched. A statement that failed is retried on its own, in its place,
+     * before the statements after it in the batch are executed.
+     *
+     * @throws Exception
+     *             if a statement failed with an unexpected error
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void executeBatch() throws Exception {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Query> queries = new ArrayList<>(batch);
+        List<A> queryActions = new ArrayList<>(batchActions);
+        batch.clear();
+        batchActions.clear();
+        String statementKind = globalState.getStatementKind();
+        globalState.setStatementKind(null);
+        List<String> statementKinds = new ArrayList<>();
+        for (A action : queryActions) {
+            statementKinds.add(action.toString());
+        }
+        boolean[] success = new boolean[queries.size()];
+        long[] latencyNanos = new long[queries.size()];
+        globalState.executeStatements((List) queries, statementKinds, (i, executed, nanos) -> {
+            success[i] = executed;
+            latencyNanos[i] = nanos;
+            if (!executed) {
+                long retryStartNanos = System.nanoTime();
+                success[i] = retry(queryActions.get(i));
+                latencyNanos[i] += System.nanoTime() - retryStartNanos;
+            }
+        });
+        if (scheduler != null) {
+            for (int i = 0; i < queries.size(); i++) {
+                scheduler.record(statementKinds.get(i), success[i], latencyNanos[i]);
+            }
+        }
+        globalState.setStatementKind(statementKind);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private boolean retry(A action) throws Exception {
+        globalState.setStatementKind(action.toString());
+        try {
+            boolean success = false;
+            int nrTries = 0;
+            while (!success && action.canBeRetried()
+                    && nrTries++ < globalState.getOptions().getNrStatementRetryCount()) {
+                try {
+                    success = globalState.executeStatement((Query) action.getQuery(globalState));
+                } catch (IgnoreMeException ignored) {
+                    break;
+                }
             }
-            total--;
+            return success;
+        } finally {
+            globalState.setStatementKind(null);
         }
     }
 }
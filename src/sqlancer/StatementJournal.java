@@ -0,0 +1,159 @@
+package sqlancer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An append-only log of statement strings that is stored in a temporary file, so that only the offset of each statement
+ * is kept in memory. Statements are read back only when a bug is logged or reduced, so they are read from the file on
+ * demand rather than mapped into memory.
+ *
+ * Each worker thread has a single journal, which is cleared when the thread starts testing the next database, and which
+ * must be closed when the thread stops testing databases.
+ */
+public final class StatementJournal implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<StatementJournal> JOURNALS = new ThreadLocal<>();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long[] offsets = new long[1024];
+    private int size;
+    private long length;
+
+    private StatementJournal() throws IOException {
+        file = Files.createTempFile("sqlancer-statements", ".log");
+        file.toFile().deleteOnExit();
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Returns the journal of the calling thread, creating it if necessary, after removing the statements of the
+     * previous database.
+     *
+     * @return the empty journal
+     */
+    public static StatementJournal forCurrentThread() {
+        StatementJournal journal = JOURNALS.get();
+        if (journal == null) {
+            try {
+                journal = new StatementJournal();
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            JOURNALS.set(journal);
+        } else {
+            journal.clear();
+        }
+        return journal;
+    }
+
+    /**
+     * Closes the journal of the calling thread, if it has one, and deletes its file. Threads that are not reused, such
+     * as the virtual threads of the workers, would otherwise leak it.
+     */
+    public static void closeForCurrentThread() {
+        StatementJournal journal = JOURNALS.get();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    public void append(String statement) {
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+        }
+        offsets[size++] = length;
+        byte[] bytes = statement.getBytes(StandardCharsets.UTF_8);
+        length += bytes.length;
+        if (bytes.length > buffer.remaining()) {
+            flush();
+        }
+        if (bytes.length > buffer.capacity()) {
+            write(ByteBuffer.wrap(bytes));
+        } else {
+            buffer.put(bytes);
+        }
+    }
+
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        flush();
+        long start = offsets[index];
+        long end = index + 1 == size ? length : offsets[index + 1];
+        ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+        try {
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, start + bytes.position()) < 0) {
+                    throw new AssertionError(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return new String(bytes.array(), StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        buffer.clear();
+        size = 0;
+        length = 0;
+        try {
+            channel.truncate(0);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private void flush() {
+        if (buffer.position() != 0) {
+            buffer.flip();
+            write(buffer);
+            buffer.clear();
+        }
+    }
+
+    private void write(ByteBuffer bytes) {
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes, channel.size());
+            }
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (JOURNALS.get() == this) {
+            JOURNALS.remove();
+        }
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+}
@@ -0,0 +1,198 @@
+package sqlancer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sun.net.httpserver.HttpServer;
+
+import sqlancer.ExecutionCounters.Counter;
+
+/**
+ * Records the latencies of the executed statements and oracle checks, tagged by their kind (e.g., the action of the
+ * generator or the name of the test oracle) and their outcome. The metrics can be exported in the OpenMetrics text
+ * format, which is served over HTTP when a metrics port is specified, and as JSON.
+ */
+public final class StatementMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String EXPECTED_ERROR = "expected_error";
+    public static final String IGNORED = "ignored";
+    public static final String FAILURE = "failure";
+    public static final String TIMEOUT = "timeout";
+
+    static final String UNKNOWN_KIND = "other";
+
+    private static volatile boolean enabled;
+
+    // kind -> outcome -> histogram
+    private static final Map<String, Map<String, LatencyHistogram>> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private StatementMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        StatementMetrics.enabled = enabled;
+    }
+
+    public static void record(String kind, String outcome, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        String statementKind = kind == null ? UNKNOWN_KIND : kind;
+        HISTOGRAMS.computeIfAbsent(statementKind, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, o -> new LatencyHistogram()).record(nanos);
+    }
+
+    // sorted, so that the output is stable
+    static Map<String, Map<String, LatencyHistogram>> getHistograms() {
+        Map<String, Map<String, LatencyHistogram>> result = new TreeMap<>();
+        HISTOGRAMS.forEach((kind, outcomes) -> result.put(kind, new TreeMap<>(outcomes)));
+        return result;
+    }
+
+    static void clear() {
+        HISTOGRAMS.clear();
+    }
+
+    /**
+     * Writes the metrics in the OpenMetrics text format. The latencies are exposed as summaries in seconds.
+     *
+     * @param writer
+     *            the writer to which the metrics are written
+     *
+     * @throws IOException
+     *             if writing fails
+     */
+    public static void writeOpenMetrics(Writer writer) throws IOException {
+        writer.write("# TYPE sqlancer_queries counter\n");
+        writer.write("sqlancer_queries_total " + ExecutionCounters.getTotal(Counter.QUERIES) + "\n");
+        writer.write("# TYPE sqlancer_databases counter\n");
+        writer.write("sqlancer_databases_total " + ExecutionCounters.getTotal(Counter.DATABASES) + "\n");
+        writer.write("# TYPE sqlancer_statement_latency_seconds summary\n");
+        for (Map.Entry<String, Map<String, LatencyHistogram>> kind : getHistograms().entrySet()) {
+            for (Map.Entry<String, LatencyHistogram> outcome : kind.getValue().entrySet()) {
+                String labels = "kind=\"" + escape(kind.getKey()) + "\",outcome=\"" + outcome.getKey() + "\"";
+                LatencyHistogram histogram = outcome.getValue();
+                for (double quantile : new double[] { 0.5, 0.9, 0.99 }) {
+                    writer.write(
+                            String.format(Locale.ROOT, "sqlancer_statement_latency_seconds{%s,quantile=\"%s\"} %s\n",
+                                    labels, quantile, toSeconds(histogram.getValueAtPercentile(quantile * 100))));
+                }
+                writer.write(String.format(Locale.ROOT, "sqlancer_statement_latency_seconds_count{%s} %d\n", labels,
+                        histogram.getCount()));
+                writer.write(String.format(Locale.ROOT, "sqlancer_statement_latency_seconds_sum{%s} %s\n", labels,
+                        toSeconds(histogram.getSum())));
+            }
+        }
+        writer.write("# EOF\n");
+    }
+
+    /**
+     * Writes the metrics as a JSON object. The latencies are given in milliseconds.
+     *
+     * @param writer
+     *            the writer to which the metrics are written
+     *
+     * @throws IOException
+     *             if writing fails
+     */
+    public static void writeJson(Writer writer) throws IOException {
+        writer.write("{\"timestamp\":" + System.currentTimeMillis());
+        writer.write(",\"queries\":" + ExecutionCounters.getTotal(Counter.QUERIES));
+        writer.write(",\"databases\":" + ExecutionCounters.getTotal(Counter.DATABASES));
+        writer.write(",\"statements\":[");
+        boolean first = true;
+        for (Map.Entry<String, Map<String, LatencyHistogram>> kind : getHistograms().entrySet()) {
+            for (Map.Entry<String, LatencyHistogram> outcome : kind.getValue().entrySet()) {
+                LatencyHistogram histogram = outcome.getValue();
+                if (!first) {
+                    writer.write(",");
+                }
+                first = false;
+                writer.write(String.format(Locale.ROOT,
+                        "{\"kind\":\"%s\",\"outcome\":\"%s\",\"count\":%d,\"total_ms\":%.3f,\"p50_ms\":%.3f,\"p90_ms\":%.3f,\"p99_ms\":%.3f,\"max_ms\":%.3f}",
+                        escape(kind.getKey()), outcome.getKey(), histogram.getCount(), toMillis(histogram.getSum()),
+                        toMillis(histogram.getValueAtPercentile(50)), toMillis(histogram.getValueAtPercentile(90)),
+                        toMillis(histogram.getValueAtPercentile(99)), toMillis(histogram.getMax())));
+            }
+        }
+        writer.write("]}\n");
+    }
+
+    /**
+     * Replaces the given file with the current metrics in the JSON format. The file is replaced atomically, so that a
+     * reader never observes a partially-written file.
+     *
+     * @param file
+     *            the file to which the metrics are written
+     *
+     * @throws IOException
+     *             if writing fails
+     */
+    public static void dumpJson(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Path temporaryFile = Files.createTempFile(parent, "metrics", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+            writeJson(writer);
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Starts an HTTP server on the loopback interface that serves the metrics in the OpenMetrics text format at
+     * {@code /metrics}.
+     *
+     * @param port
+     *            the port on which the server listens
+     *
+     * @return the started server
+     *
+     * @throws IOException
+     *             if the server cannot be started
+     */
+    public static HttpServer startServer(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            StringWriter writer = new StringWriter();
+            writeOpenMetrics(writer);
+            byte[] body = writer.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type",
+                    "application/openmetrics-text; version=1.0.0; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static String toSeconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+}
@@ -4,6 +4,10 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import sqlancer.common.query.Query;
 
@@ -21,6 +25,9 @@ public class StatementReducer<G extends GlobalState<O, ?, C>, O extends DBMSSpec
 
     Instant timeOfReductionBegins;
 
+    private ExecutorService reductionExecutor;
+    private SnapshotCache<G, C> snapshotCache;
+
     public StatementReducer(DatabaseProvider<G, O, C> provider) {
         this.provider = provider;
     }
@@ -58,19 +65,42 @@ public class StatementReducer<G extends GlobalState<O, ?, C>, O extends DBMSSpec
         currentReduceTime = 0;
         partitionNum = 2;
 
-        while (knownToReproduceBugStatements.size() >= 2 && hasNotReachedLimit(currentReduceSteps, maxReduceSteps)
-                && hasNotReachedLimit(currentReduceTime, maxReduceTime)) {
-            observedChange = false;
+        int reducerThreads = state.getOptions().getReducerThreads();
+        if (reducerThreads > 1) {
+            reductionExecutor = Executors.newFixedThreadPool(reducerThreads);
+        }
+        if (state.getOptions().reducerUseSnapshots() && provider instanceof SnapshotSupport) {
+            snapshotCache = new SnapshotCache<>((SnapshotSupport<G, C>) provider);
+        }
+        try {
+            while (knownToReproduceBugStatements.size() >= 2 && hasNotReachedLimit(currentReduceSteps, maxReduceSteps)
+                    && hasNotReachedLimit(currentReduceTime, maxReduceTime)) {
+                observedChange = false;
 
-            knownToReproduceBugStatements = tryReduction(state, reproducer, newGlobalState,
-                    knownToReproduceBugStatements);
+                if (reductionExecutor == null) {
+                    knownToReproduceBugStatements = tryReduction(state, reproducer, newGlobalState,
+                            knownToReproduceBugStatements);
+                } else {
+                    knownToReproduceBugStatements = tryReductionInParallel(reproducer, newGlobalState,
+                            knownToReproduceBugStatements);
+                }
 
-            if (!observedChange) {
-                if (partitionNum == knownToReproduceBugStatements.size()) {
-                    break;
+                if (!observedChange) {
+                    if (partitionNum == knownToReproduceBugStatements.size()) {
+                        break;
+                    }
+                    // increase the search granularity
+                    partitionNum = Math.min(partitionNum * 2, knownToReproduceBugStatements.size());
                 }
-                // increase the search granularity
-                partitionNum = Math.min(partitionNum * 2, knownToReproduceBugStatements.size());
+            }
+        } finally {
+            if (reductionExecutor != null) {
+                reductionExecutor.shutdownNow();
+                reductionExecutor = null;
+            }
+            if (snapshotCache != null) {
+                snapshotCache.close();
+                snapshotCache = null;
             }
         }
 
@@ -98,13 +128,7 @@ public class StatementReducer<G extends GlobalState<O, ?, C>, O extends DBMSSpec
                 candidateStatements.subList(start, endPoint).clear();
                 newGlobalState.getState().setStatements(new ArrayList<>(candidateStatements));
 
-                for (Query<C> s : candidateStatements) {
-                    try {
-                        s.execute(newGlobalState);
-                    } catch (Throwable ignoredException) {
-                        // ignore
-                    }
-                }
+                replay(newGlobalState, candidateStatements);
                 try {
                     if (reproducer.bugStillTriggers(newGlobalState)) {
                         observedChange = true;
@@ -135,6 +159,112 @@ public class StatementReducer<G extends GlobalState<O, ?, C>, O extends DBMSSpec
         return statements;
     }
 
+    /**
+     * Evaluates all complement candidates of the current partitioning at the same time, each on its own scratch
+     * database. Of the candidates that still trigger the bug, the one that the sequential reduction would have picked
+     * first is chosen, so that the result does not depend on the thread scheduling.
+     *
+     * @param reproducer
+     *            the reproducer that checks whether a candidate still triggers the bug
+     * @param newGlobalState
+     *            the state from which the scratch states are derived
+     * @param knownToReproduceBugStatements
+     *            the statements to be reduced
+     *
+     * @return the reduced statements, or the given statements if no candidate triggers the bug
+     */
+    private List<Query<C>> tryReductionInParallel(Reproducer<G> reproducer, G newGlobalState,
+            List<Query<C>> knownToReproduceBugStatements) throws Exception {
+        List<Query<C>> statements = knownToReproduceBugStatements;
+        int subLength = statements.size() / partitionNum;
+        List<List<Query<C>>> candidates = new ArrayList<>();
+        for (int start = 0; start < statements.size(); start += subLength) {
+            List<Query<C>> candidateStatements = new ArrayList<>(statements);
+            int endPoint = Math.min(start + subLength, candidateStatements.size());
+            candidateStatements.subList(start, endPoint).clear();
+            candidates.add(candidateStatements);
+        }
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            int index = i;
+            List<Query<C>> candidateStatements = candidates.get(i);
+            Callable<Boolean> task = () -> candidateTriggersBug(reproducer, newGlobalState, index, candidateStatements);
+            results.add(reductionExecutor.submit(task));
+        }
+        List<Query<C>> reducedStatements = null;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).get() && reducedStatements == null) {
+                reducedStatements = candidates.get(i);
+            }
+        }
+        currentReduceSteps += candidates.size();
+        currentReduceTime = Duration.between(timeOfReductionBegins, Instant.now()).getSeconds();
+        if (reducedStatements == null) {
+            return statements;
+        }
+        observedChange = true;
+        partitionNum = Math.max(partitionNum - 1, 2);
+        newGlobalState.getState().setStatements(new ArrayList<>(reducedStatements));
+        newGlobalState.getLogger().logReduced(newGlobalState.getState());
+        return reducedStatements;
+    }
+
+    // runs in a reduction thread, which the randomness of the scratch state is bound to
+    private boolean candidateTriggersBug(Reproducer<G> reproducer, G newGlobalState, int index,
+            List<Query<C>> candidateStatements) {
+        G scratchState = createScratchGlobalState(newGlobalState, index);
+        try {
+            try (C con = provider.createDatabase(scratchState)) {
+                scratchState.setConnection(con);
+                scratchState.getState().setStatements(new ArrayList<>(candidateStatements));
+                replay(scratchState, candidateStatements);
+                return reproducer.bugStillTriggers(scratchState);
+            }
+        } catch (Throwable ignoredException) {
+            return false;
+        } finally {
+            try {
+                provider.dropDatabase(scratchState);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void replay(G globalState, List<Query<C>> statements) throws Exception {
+        if (snapshotCache != null) {
+            snapshotCache.replay(globalState, statements);
+            return;
+        }
+        for (Query<C> s : statements) {
+            try {
+                s.execute(globalState);
+            } catch (Throwable ignoredException) {
+                // ignore
+            }
+        }
+    }
+
+    private G createScratchGlobalState(G newGlobalState, int index) {
+        G scratchState;
+        try {
+            scratchState = provider.getGlobalStateClass().getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        String databaseName = newGlobalState.getDatabaseName() + "_reduce" + index;
+        StateToReproduce stateToReproduce = provider.getStateToReproduce(databaseName);
+        stateToReproduce.seedValue = newGlobalState.getState().getSeedValue();
+        scratchState.setState(stateToReproduce);
+        scratchState.setDatabaseName(databaseName);
+        scratchState.setRandomly(new Randomly(stateToReproduce.getSeedValue() + index));
+        scratchState.setMainOptions(newGlobalState.getOptions());
+        scratchState.setDbmsSpecificOptions(newGlobalState.getDbmsSpecificOptions());
+        scratchState.setStateLogger(new Main.StateLogger(databaseName, provider, newGlobalState.getOptions()));
+        scratchState.setManager(new Main.QueryManager<>(scratchState));
+        return scratchState;
+    }
+
     @SuppressWarnings("unused")
     private void printQueries(List<Query<C>> statements) {
         System.out.println("===============================");
@@ -0,0 +1,179 @@
+package sqlancer;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import sqlancer.ExecutionCounters.Counter;
+
+/**
+ * Cancels statements that exceed their deadline (see {@link MainOptions#getStatementTimeoutMillis()}), so that a single
+ * generated query, such as a large cross join or a recursive CTE, cannot block a worker until the global timeout. The
+ * statements are cancelled by background threads using {@link Statement#cancel()}, which also interrupts the statements
+ * of embedded DBMSs (e.g., the SQLite driver calls sqlite3_interrupt). Since cancelling a statement of a client-server
+ * DBMS requires a round trip to the server, the statements are cancelled by other threads than the one that keeps track
+ * of the deadlines, so that a slow cancellation does not delay the cancellation of other statements.
+ *
+ * With an adaptive timeout, the deadline of a statement is derived from the latencies of the previously executed
+ * statements of the same kind (see {@link GlobalState#setStatementKind(String)}), so that statements that are unusually
+ * slow for their kind are cancelled early.
+ */
+public final class StatementWatchdog {
+
+    // the number of statements of a kind after which their latencies determine the deadline
+    static final int MIN_SAMPLES = 100;
+    static final long MIN_ADAPTIVE_TIMEOUT_MILLIS = 100;
+    static final int ADAPTIVE_TIMEOUT_FACTOR = 10;
+
+    private static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "sqlancer-statement-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final ExecutorService CANCEL_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "sqlancer-statement-canceller");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        EXECUTOR.setRemoveOnCancelPolicy(true);
+    }
+
+    private static final Map<String, LatencyHistogram> LATENCIES = new ConcurrentHashMap<>();
+
+    private final Statement statement;
+    // null for a batch of statements, whose latency does not adapt any deadline
+    private final String kind;
+    private final long start;
+    private final ScheduledFuture<?> future;
+    private boolean done;
+    private boolean timedOut;
+
+    private StatementWatchdog(Statement statement, String kind, long timeoutMillis) {
+        this.statement = statement;
+        this.kind = kind;
+        this.start = System.nanoTime();
+        this.future = EXECUTOR.schedule(() -> CANCEL_EXECUTOR.execute(this::cancel), timeoutMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts watching a statement that is about to be executed.
+     *
+     * @param globalState
+     *            the state of the database on which the statement is executed
+     * @param statement
+     *            the statement
+     *
+     * @return the watchdog, which must be {@link #close() closed} when the statement has completed, or null if
+     *         statements have no timeout
+     */
+    public static StatementWatchdog watch(GlobalState<?, ?, ?> globalState, Statement statement) {
+        MainOptions options = globalState.getOptions();
+        if (options == null || options.getStatementTimeoutMillis() <= 0) {
+            return null;
+        }
+        String kind = globalState.getStatementKind() == null ? StatementMetrics.UNKNOWN_KIND
+                : globalState.getStatementKind();
+        return new StatementWatchdog(statement, kind, getTimeoutMillis(options, kind));
+    }
+
+    /**
+     * Starts watching a batch of statements that is about to be executed. The deadline of the batch is the sum of the
+     * (non-adaptive) deadlines of its statements.
+     *
+     * @param globalState
+     *            the state of the database on which the batch is executed
+     * @param statement
+     *            the statement to which the batch has been added
+     * @param nrStatements
+     *            the number of statements in the batch
+     *
+     * @return the watchdog, which must be {@link #close() closed} when the batch has completed, or null if statements
+     *         have no timeout
+     */
+    public static StatementWatchdog watchBatch(GlobalState<?, ?, ?> globalState, Statement statement,
+            int nrStatements) {
+        MainOptions options = globalState.getOptions();
+        if (options == null || options.getStatementTimeoutMillis() <= 0) {
+            return null;
+        }
+        return new StatementWatchdog(statement, null, options.getStatementTimeoutMillis() * nrStatements);
+    }
+
+    static long getTimeoutMillis(MainOptions options, String kind) {
+        long timeout = options.getStatementTimeoutMillis();
+        if (options.useAdaptiveStatementTimeout()) {
+            LatencyHistogram latencies = LATENCIES.get(kind);
+            if (latencies != null && latencies.getCount() >= MIN_SAMPLES) {
+                long p99 = TimeUnit.NANOSECONDS.toMillis(latencies.getValueAtPercentile(99));
+                timeout = Math.min(timeout, Math.max(MIN_ADAPTIVE_TIMEOUT_MILLIS, p99 * ADAPTIVE_TIMEOUT_FACTOR));
+            }
+        }
+        return timeout;
+    }
+
+    static void clear() {
+        LATENCIES.clear();
+    }
+
+    private synchronized void cancel() {
+        if (done) {
+            return;
+        }
+        timedOut = true;
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            // the statement might have completed in the meantime
+        }
+    }
+
+    /**
+     * Returns whether the statement was cancelled because it exceeded its deadline. If so, the error with which the
+     * statement failed should be ignored, and the statement be treated like an {@link IgnoreMeException}.
+     *
+     * @return whether the statement timed out
+     */
+    public synchronized boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Returns an exception that discards the current test case, because the statement timed out, and counts the
+     * statement as timed out.
+     *
+     * @return the exception to be thrown
+     */
+    public IgnoreMeException timeout() {
+        ExecutionCounters.increment(Counter.TIMED_OUT_STATEMENTS);
+        StatementMetrics.record(kind, StatementMetrics.TIMEOUT, System.nanoTime() - start);
+        return new IgnoreMeException();
+    }
+
+    /**
+     * Stops watching the statement. The latency of a statement that did not time out is used to adapt the deadlines of
+     * the subsequent statements of its kind.
+     */
+    public void close() {
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+        }
+        future.cancel(false);
+        if (!timedOut && kind != null) {
+            LATENCIES.computeIfAbsent(kind, k -> new LatencyHistogram()).record(System.nanoTime() - start);
+        }
+    }
+
+}
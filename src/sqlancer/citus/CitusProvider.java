@@ -403,6 +403,12 @@ public class CitusProvider extends PostgresProvider {
         }
     }
 
+    @Override
+    protected boolean usesDatabasePool() {
+        // the pool would neither create nor drop the databases on the worker nodes
+        return false;
+    }
+
     @SuppressWarnings("deprecation")
     @Override
     public SQLConnection createDatabase(PostgresGlobalState globalState) throws SQLException {
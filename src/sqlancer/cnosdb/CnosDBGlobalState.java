@@ -16,8 +16,8 @@ public class CnosDBGlobalState extends GlobalState<CnosDBOptions, CnosDBSchema,
         if (logExecutionTime) {
             getLogger().writeCurrent(" -- " + timer.end().asString());
         }
-        if (q.couldAffectSchema()) {
-            updateSchema();
+        if (q.couldAffectSchema() && (success || failedStatementsCanAffectSchema())) {
+            invalidateSchema();
         }
     }
 
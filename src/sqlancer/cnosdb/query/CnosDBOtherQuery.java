@@ -1,5 +1,7 @@
 package sqlancer.cnosdb.query;
 
+import sqlancer.ExecutionCounters;
+import sqlancer.ExecutionCounters.Counter;
 import sqlancer.GlobalState;
 import sqlancer.IgnoreMeException;
 import sqlancer.cnosdb.client.CnosDBConnection;
@@ -20,7 +22,9 @@ public class CnosDBOtherQuery extends CnosDBQueryAdapter {
             throws Exception {
         try {
             globalState.getConnection().getClient().execute(query);
+            ExecutionCounters.increment(Counter.SUCCESSFUL_STATEMENTS);
         } catch (Exception e) {
+            ExecutionCounters.increment(Counter.UNSUCCESSFUL_STATEMENTS);
             if (this.errors.errorIsExpected(e.getMessage())) {
                 throw new IgnoreMeException();
             }
@@ -1,5 +1,7 @@
 package sqlancer.cnosdb.query;
 
+import sqlancer.ExecutionCounters;
+import sqlancer.ExecutionCounters.Counter;
 import sqlancer.GlobalState;
 import sqlancer.cnosdb.client.CnosDBConnection;
 import sqlancer.cnosdb.client.CnosDBResultSet;
@@ -22,6 +24,7 @@ public class CnosDBSelectQuery extends CnosDBQueryAdapter {
     public <G extends GlobalState<?, ?, CnosDBConnection>> boolean execute(G globalState, String... fills)
             throws Exception {
         globalState.getConnection().getClient().execute(query);
+        ExecutionCounters.increment(Counter.SUCCESSFUL_STATEMENTS);
         return false;
     }
 
@@ -29,6 +32,7 @@ public class CnosDBSelectQuery extends CnosDBQueryAdapter {
     public <G extends GlobalState<?, ?, CnosDBConnection>> SQLancerResultSet executeAndGet(G globalState,
             String... fills) throws Exception {
         resultSet = globalState.getConnection().getClient().executeQuery(query);
+        ExecutionCounters.increment(Counter.SUCCESSFUL_STATEMENTS);
         return null;
     }
 
@@ -289,9 +289,11 @@ public class CockroachDBProvider extends SQLProviderAdapter<CockroachDBGlobalSta
             s.execute(createDatabaseCommand);
         }
         con.close();
-        con = DriverManager.getConnection(String.format("jdbc:postgresql://%s:%d/%s", host, port, databaseName),
-                globalState.getOptions().getUserName(), globalState.getOptions().getPassword());
-        return new SQLConnection(con);
+        String databaseURL = String.format("jdbc:postgresql://%s:%d/%s", host, port, databaseName);
+        String userName = globalState.getOptions().getUserName();
+        String password = globalState.getOptions().getPassword();
+        con = DriverManager.getConnection(databaseURL, userName, password);
+        return new SQLConnection(con, () -> DriverManager.getConnection(databaseURL, userName, password));
     }
 
     @Override
@@ -6,8 +6,10 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import sqlancer.ConcurrentQuery;
 import sqlancer.IgnoreMeException;
 import sqlancer.Randomly;
+import sqlancer.SQLConnection;
 import sqlancer.SQLGlobalState;
 import sqlancer.cockroachdb.CockroachDBCommon;
 import sqlancer.cockroachdb.CockroachDBErrors;
@@ -50,11 +52,14 @@ public class CockroachDBNoRECOracle extends NoRECBase<CockroachDBGlobalState>
         gen = new CockroachDBExpressionGenerator(state).setColumns(tables.getColumns());
         List<CockroachDBExpression> joinExpressions = getJoins(tableList, state);
         CockroachDBExpression whereCondition = gen.generateExpression(CockroachDBDataType.BOOL.get());
+        // the non-optimizable query does not depend on the optimizable one, so that it can be executed concurrently
+        ConcurrentQuery<Integer> nonOptimizableQuery = getNonOptimizedResult(whereCondition, tableList, errors,
+                joinExpressions);
         int optimizableCount = getOptimizedResult(whereCondition, tableList, errors, joinExpressions);
         if (optimizableCount == -1) {
             throw new IgnoreMeException();
         }
-        int nonOptimizableCount = getNonOptimizedResult(whereCondition, tableList, errors, joinExpressions);
+        int nonOptimizableCount = nonOptimizableQuery.get();
         if (nonOptimizableCount == -1) {
             throw new IgnoreMeException();
         }
@@ -97,11 +102,11 @@ public class CockroachDBNoRECOracle extends NoRECBase<CockroachDBGlobalState>
         }
         this.optimizedQueryString = s;
         SQLQueryAdapter q = new SQLQueryAdapter(s, errors);
-        return getCount(state, q);
+        return getCount(state, q, state.getConnection());
     }
 
-    private int getNonOptimizedResult(CockroachDBExpression whereCondition, List<CockroachDBExpression> tableList,
-            ExpectedErrors errors, List<CockroachDBExpression> joinList) throws SQLException {
+    private ConcurrentQuery<Integer> getNonOptimizedResult(CockroachDBExpression whereCondition,
+            List<CockroachDBExpression> tableList, ExpectedErrors errors, List<CockroachDBExpression> joinList) {
         String fromString = tableList.stream().map(t -> ((CockroachDBTableReference) t).getTable().getName())
                 .collect(Collectors.joining(", "));
         if (!tableList.isEmpty() && !joinList.isEmpty()) {
@@ -115,12 +120,12 @@ public class CockroachDBNoRECOracle extends NoRECBase<CockroachDBGlobalState>
         }
         this.unoptimizedQueryString = s;
         SQLQueryAdapter q = new SQLQueryAdapter(s, errors);
-        return getCount(state, q);
+        return ConcurrentQuery.submit(state, con -> getCount(state, q, con));
     }
 
-    private int getCount(SQLGlobalState<?, ?> globalState, SQLQueryAdapter q) throws AssertionError {
+    private int getCount(SQLGlobalState<?, ?> globalState, SQLQueryAdapter q, SQLConnection con) throws AssertionError {
         int count = 0;
-        try (SQLancerResultSet rs = q.executeAndGet(globalState)) {
+        try (SQLancerResultSet rs = q.executeAndGet(globalState, con)) {
             if (rs == null) {
                 return -1;
             }
@@ -3,6 +3,7 @@ package sqlancer.common.oracle;
 import java.util.List;
 
 import sqlancer.GlobalState;
+import sqlancer.StatementMetrics;
 
 public class CompositeTestOracle<G extends GlobalState<?, ?, ?>> implements TestOracle<G> {
 
@@ -19,6 +20,9 @@ public class CompositeTestOracle<G extends GlobalState<?, ?, ?>> implements Test
     @Override
     public void check() throws Exception {
         try {
+            if (StatementMetrics.isEnabled()) {
+                globalState.setStatementKind(oracles.get(i).getClass().getSimpleName());
+            }
             oracles.get(i).check();
             iLast = i;
             boolean lastOracleIndex = i == oracles.size() - 1;
@@ -30,6 +34,15 @@ public class CompositeTestOracle<G extends GlobalState<?, ?, ?>> implements Test
         }
     }
 
+    /**
+     * Returns the oracle that was checked last, which is the one that failed if {@link #check()} threw an exception.
+     *
+     * @return the oracle
+     */
+    public TestOracle<G> getCurrentOracle() {
+        return oracles.get((i + oracles.size() - 1) % oracles.size());
+    }
+
     @Override
     public String getLastQueryString() {
         return oracles.get(iLast).getLastQueryString();
@@ -4,9 +4,12 @@ import java.sql.SQLException;
 import java.util.Objects;
 import java.util.function.Function;
 
+import sqlancer.ConcurrentQuery;
 import sqlancer.IgnoreMeException;
+import sqlancer.QueryNoveltyFilter;
 import sqlancer.Randomly;
 import sqlancer.Reproducer;
+import sqlancer.SQLConnection;
 import sqlancer.SQLGlobalState;
 import sqlancer.common.ast.newast.Expression;
 import sqlancer.common.ast.newast.Join;
@@ -19,6 +22,7 @@ import sqlancer.common.schema.AbstractSchema;
 import sqlancer.common.schema.AbstractTable;
 import sqlancer.common.schema.AbstractTableColumn;
 import sqlancer.common.schema.AbstractTables;
+import sqlancer.common.visitor.FragmentCache;
 
 public class NoRECOracle<Z extends Select<J, E, T, C>, J extends Join<E, T, C>, E extends Expression<C>, S extends AbstractSchema<?, T>, T extends AbstractTable<C, ?, ?>, C extends AbstractTableColumn<?, ?>, G extends SQLGlobalState<?, S>>
         implements TestOracle<G> {
@@ -63,28 +67,43 @@ public class NoRECOracle<Z extends Select<J, E, T, C>, J extends Join<E, T, C>,
         AbstractTables<T, C> targetTables = TestOracleUtils.getRandomTableNonEmptyTables(schema);
         gen = gen.setTablesAndColumns(targetTables);
 
-        Z select = gen.generateSelect();
-        select.setJoinClauses(gen.getRandomJoinClauses());
-        select.setFromList(gen.getTableRefs());
-
-        E randomWhereCondition = gen.generateBooleanExpression();
-
-        boolean shouldUseAggregate = Randomly.getBoolean();
-        String optimizedQueryString = gen.generateOptimizedQueryString(select, randomWhereCondition,
-                shouldUseAggregate);
+        Z select;
+        E randomWhereCondition;
+        boolean useAggregate;
+        String queryString;
+        boolean shouldUseAggregate;
+        String optimizedQueryString;
+        String unoptimizedQueryString;
+        // both queries contain the same FROM clause, joins, and predicate
+        try (FragmentCache cache = FragmentCache.open()) {
+            int attempt = 0;
+            do {
+                select = gen.generateSelect();
+                select.setJoinClauses(gen.getRandomJoinClauses());
+                select.setFromList(gen.getTableRefs());
+
+                randomWhereCondition = gen.generateBooleanExpression();
+
+                useAggregate = Randomly.getBoolean();
+                queryString = gen.generateOptimizedQueryString(select, randomWhereCondition, useAggregate);
+            } while (QueryNoveltyFilter.isDuplicate(state, queryString, attempt++));
+            shouldUseAggregate = useAggregate;
+            optimizedQueryString = queryString;
+            unoptimizedQueryString = gen.generateUnoptimizedQueryString(select, randomWhereCondition);
+        }
         lastQueryString = optimizedQueryString;
         if (state.getOptions().logEachSelect()) {
             state.getLogger().writeCurrent(optimizedQueryString);
-        }
-
-        String unoptimizedQueryString = gen.generateUnoptimizedQueryString(select, randomWhereCondition);
-        if (state.getOptions().logEachSelect()) {
             state.getLogger().writeCurrent(unoptimizedQueryString);
         }
 
-        int optimizedCount = shouldUseAggregate ? extractCounts(optimizedQueryString, errors, state)
-                : countRows(optimizedQueryString, errors, state);
-        int unoptimizedCount = extractCounts(unoptimizedQueryString, errors, state);
+        // the queries are independent, so that the unoptimized one can be executed concurrently
+        ConcurrentQuery<Integer> unoptimizedQuery = ConcurrentQuery.submit(state,
+                con -> extractCounts(unoptimizedQueryString, errors, state, con));
+        int optimizedCount = shouldUseAggregate
+                ? extractCounts(optimizedQueryString, errors, state, state.getConnection())
+                : countRows(optimizedQueryString, errors, state, state.getConnection());
+        int unoptimizedCount = unoptimizedQuery.get();
 
         if (optimizedCount == -1 || unoptimizedCount == -1) {
             throw new IgnoreMeException();
@@ -92,11 +111,12 @@ public class NoRECOracle<Z extends Select<J, E, T, C>, J extends Join<E, T, C>,
 
         if (unoptimizedCount != optimizedCount) {
             Function<G, Integer> optimizedQuery = state -> shouldUseAggregate
-                    ? extractCounts(optimizedQueryString, errors, state)
-                    : countRows(optimizedQueryString, errors, state);
+                    ? extractCounts(optimizedQueryString, errors, state, state.getConnection())
+                    : countRows(optimizedQueryString, errors, state, state.getConnection());
 
-            Function<G, Integer> unoptimizedQuery = state -> extractCounts(unoptimizedQueryString, errors, state);
-            reproducer = new NoRECReproducer<>(optimizedQuery, unoptimizedQuery);
+            Function<G, Integer> unoptimizedQueryFunction = state -> extractCounts(unoptimizedQueryString, errors,
+                    state, state.getConnection());
+            reproducer = new NoRECReproducer<>(optimizedQuery, unoptimizedQueryFunction);
 
             String queryFormatString = "-- %s;\n-- count: %d";
             String firstQueryStringWithCount = String.format(queryFormatString, optimizedQueryString, optimizedCount);
@@ -120,11 +140,11 @@ public class NoRECOracle<Z extends Select<J, E, T, C>, J extends Join<E, T, C>,
         return reproducer;
     }
 
-    private int countRows(String queryString, ExpectedErrors errors, SQLGlobalState<?, ?> state) {
+    private int countRows(String queryString, ExpectedErrors errors, SQLGlobalState<?, ?> state, SQLConnection con) {
         SQLQueryAdapter q = new SQLQueryAdapter(queryString, errors);
 
         int count = 0;
-        try (SQLancerResultSet rs = q.executeAndGet(state)) {
+        try (SQLancerResultSet rs = q.executeAndGet(state, con)) {
             if (rs == null) {
                 return -1;
             } else {
@@ -145,10 +165,11 @@ public class NoRECOracle<Z extends Select<J, E, T, C>, J extends Join<E, T, C>,
         return count;
     }
 
-    private int extractCounts(String queryString, ExpectedErrors errors, SQLGlobalState<?, ?> state) {
+    private int extractCounts(String queryString, ExpectedErrors errors, SQLGlobalState<?, ?> state,
+            SQLConnection con) {
         SQLQueryAdapter q = new SQLQueryAdapter(queryString, errors);
         int count = 0;
-        try (SQLancerResultSet rs = q.executeAndGet(state)) {
+        try (SQLancerResultSet rs = q.executeAndGet(state, con)) {
             if (rs == null) {
                 return -1;
             } else {
@@ -5,7 +5,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 import sqlancer.ComparatorHelper;
+import sqlancer.ConcurrentQuery;
+import sqlancer.QueryNoveltyFilter;
 import sqlancer.Randomly;
+import sqlancer.ResultSetFingerprint;
 import sqlancer.SQLGlobalState;
 import sqlancer.common.ast.newast.Expression;
 import sqlancer.common.ast.newast.Join;
@@ -16,6 +19,7 @@ import sqlancer.common.schema.AbstractSchema;
 import sqlancer.common.schema.AbstractTable;
 import sqlancer.common.schema.AbstractTableColumn;
 import sqlancer.common.schema.AbstractTables;
+import sqlancer.common.visitor.FragmentCache;
 
 public class TLPWhereOracle<Z extends Select<J, E, T, C>, J extends Join<E, T, C>, E extends Expression<C>, S extends AbstractSchema<?, T>, T extends AbstractTable<C, ?, ?>, C extends AbstractTableColumn<?, ?>, G extends SQLGlobalState<?, S>>
         implements TestOracle<G> {
@@ -42,39 +46,51 @@ public class TLPWhereOracle<Z extends Select<J, E, T, C>, J extends Join<E, T, C
         AbstractTables<T, C> targetTables = TestOracleUtils.getRandomTableNonEmptyTables(s);
         gen = gen.setTablesAndColumns(targetTables);
 
-        Select<J, E, T, C> select = gen.generateSelect();
-
-        boolean shouldCreateDummy = true;
-        select.setFetchColumns(gen.generateFetchColumns(shouldCreateDummy));
-        select.setJoinClauses(gen.getRandomJoinClauses());
-        select.setFromList(gen.getTableRefs());
-        select.setWhereClause(null);
-
-        String originalQueryString = select.asString();
-        generatedQueryString = originalQueryString;
-        List<String> firstResultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors,
-                state);
-
-        boolean orderBy = Randomly.getBooleanWithSmallProbability();
-        if (orderBy) {
-            select.setOrderByClauses(gen.generateOrderBys());
+        Select<J, E, T, C> select;
+        String originalQueryString;
+        boolean orderBy;
+        String firstQueryString;
+        String secondQueryString;
+        String thirdQueryString;
+        // the variants of the query differ only in their WHERE clause
+        try (FragmentCache cache = FragmentCache.open()) {
+            int attempt = 0;
+            do {
+                select = gen.generateSelect();
+
+                boolean shouldCreateDummy = true;
+                select.setFetchColumns(gen.generateFetchColumns(shouldCreateDummy));
+                select.setJoinClauses(gen.getRandomJoinClauses());
+                select.setFromList(gen.getTableRefs());
+                select.setWhereClause(null);
+
+                originalQueryString = select.asString();
+
+                orderBy = Randomly.getBooleanWithSmallProbability();
+                if (orderBy) {
+                    select.setOrderByClauses(gen.generateOrderBys());
+                }
+
+                TestOracleUtils.PredicateVariants<E, C> predicates = TestOracleUtils
+                        .initializeTernaryPredicateVariants(gen, gen.generateBooleanExpression());
+                select.setWhereClause(predicates.predicate);
+                firstQueryString = select.asString();
+                select.setWhereClause(predicates.negatedPredicate);
+                secondQueryString = select.asString();
+                select.setWhereClause(predicates.isNullPredicate);
+                thirdQueryString = select.asString();
+            } while (QueryNoveltyFilter.isDuplicate(state, firstQueryString, attempt++));
         }
-
-        TestOracleUtils.PredicateVariants<E, C> predicates = TestOracleUtils.initializeTernaryPredicateVariants(gen,
-                gen.generateBooleanExpression());
-        select.setWhereClause(predicates.predicate);
-        String firstQueryString = select.asString();
-        select.setWhereClause(predicates.negatedPredicate);
-        String secondQueryString = select.asString();
-        select.setWhereClause(predicates.isNullPredicate);
-        String thirdQueryString = select.asString();
+        generatedQueryString = originalQueryString;
+        ConcurrentQuery<ResultSetFingerprint> firstResultSet = ComparatorHelper
+                .submitResultSetFirstColumnFingerprint(originalQueryString, errors, state);
 
         List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, !orderBy, state, errors);
+        ResultSetFingerprint secondResultSet = ComparatorHelper.getCombinedResultSetFingerprint(firstQueryString,
+                secondQueryString, thirdQueryString, combinedString, !orderBy, state, errors);
 
-        ComparatorHelper.assumeResultSetsAreEqual(firstResultSet, secondResultSet, originalQueryString, combinedString,
-                state);
+        ComparatorHelper.assumeResultSetFingerprintsAreEqual(firstResultSet.get(), secondResultSet, originalQueryString,
+                combinedString, state, errors);
     }
 
     @Override
@@ -0,0 +1,223 @@
+package sqlancer.common.query;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * An immutable matcher that checks in a single pass whether an error message contains any of a set of substrings or
+ * matches any of a set of regular expressions. The substrings are compiled into an Aho-Corasick automaton, and the
+ * regular expressions that share the same flags are combined into a single alternation. Since most providers create the
+ * same error sets over and over again, matchers are cached and shared across threads.
+ */
+final class ExpectedErrorMatcher {
+
+    private static final int MAX_CACHED_MATCHERS = 1024;
+
+    private static final Map<Key, ExpectedErrorMatcher> CACHE = new ConcurrentHashMap<>();
+
+    // patterns that cannot be safely embedded into an alternation, as group numbers or names would clash
+    // flags under which an alternation of patterns does not mean the same as the patterns: LITERAL would match the
+    // alternation literally, and COMMENTS would treat a '#' in a pattern as commenting out the following patterns
+    private static final int UNCOMBINABLE_FLAGS = Pattern.LITERAL | Pattern.COMMENTS;
+    private static final Pattern GROUP_REFERENCE = Pattern.compile("\\\\[1-9]|\\\\k<|\\(\\?<[a-zA-Z]");
+
+    private static final ExpectedErrorMatcher EMPTY = new ExpectedErrorMatcher(Set.of(), Set.of());
+
+    // Aho-Corasick automaton; for each node, the sorted outgoing characters and their target nodes
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] failure;
+    // whether a substring ends at the node, or at a node reachable through its failure links
+    private final boolean[] terminal;
+
+    private final Pattern[] patterns;
+
+    private ExpectedErrorMatcher(Collection<String> substrings, Collection<Pattern> regexes) {
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<Boolean> ends = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        ends.add(false);
+        for (String s : substrings) {
+            int node = 0;
+            for (int i = 0; i < s.length(); i++) {
+                Integer next = trie.get(node).get(s.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    ends.add(false);
+                    trie.get(node).put(s.charAt(i), next);
+                }
+                node = next;
+            }
+            ends.set(node, true);
+        }
+        int nrNodes = trie.size();
+        edgeChars = new char[nrNodes][];
+        edgeTargets = new int[nrNodes][];
+        failure = new int[nrNodes];
+        terminal = new boolean[nrNodes];
+        for (int node = 0; node < nrNodes; node++) {
+            Map<Character, Integer> edges = trie.get(node);
+            edgeChars[node] = new char[edges.size()];
+            edgeTargets[node] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                edgeChars[node][i] = edge.getKey();
+                edgeTargets[node][i] = edge.getValue();
+                i++;
+            }
+            terminal[node] = ends.get(node);
+        }
+        // compute the failure links in breadth-first order, so that the links of shallower nodes are already known
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[0]) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.remove();
+            terminal[node] |= terminal[failure[node]];
+            for (int i = 0; i < edgeChars[node].length; i++) {
+                int child = edgeTargets[node][i];
+                int fallback = failure[node];
+                int target;
+                while ((target = step(fallback, edgeChars[node][i])) == -1 && fallback != 0) {
+                    fallback = failure[fallback];
+                }
+                failure[child] = target == -1 ? 0 : target;
+                queue.add(child);
+            }
+        }
+        patterns = combine(regexes);
+    }
+
+    private static Pattern[] combine(Collection<Pattern> regexes) {
+        List<Pattern> result = new ArrayList<>();
+        Map<Integer, List<Pattern>> byFlags = new LinkedHashMap<>();
+        for (Pattern p : regexes) {
+            if ((p.flags() & UNCOMBINABLE_FLAGS) != 0 || GROUP_REFERENCE.matcher(p.pattern()).find()) {
+                result.add(p);
+            } else {
+                byFlags.computeIfAbsent(p.flags(), f -> new ArrayList<>()).add(p);
+            }
+        }
+        for (Map.Entry<Integer, List<Pattern>> entry : byFlags.entrySet()) {
+            List<Pattern> group = entry.getValue();
+            if (group.size() == 1) {
+                result.add(group.get(0));
+                continue;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (Pattern p : group) {
+                if (sb.length() != 0) {
+                    sb.append('|');
+                }
+                sb.append("(?:").append(p.pattern()).append(')');
+            }
+            try {
+                result.add(Pattern.compile(sb.toString(), entry.getKey()));
+            } catch (PatternSyntaxException e) {
+                result.addAll(group);
+            }
+        }
+        return result.toArray(new Pattern[0]);
+    }
+
+    private int step(int node, char c) {
+        int i = Arrays.binarySearch(edgeChars[node], c);
+        return i < 0 ? -1 : edgeTargets[node][i];
+    }
+
+    /**
+     * Returns a matcher for the given substrings and regular expressions, which might be shared with other threads.
+     *
+     * @param substrings
+     *            the substrings of which the error message may contain any
+     * @param regexes
+     *            the regular expressions of which any may be found in the error message
+     *
+     * @return the matcher
+     */
+    static ExpectedErrorMatcher get(Set<String> substrings, Set<Pattern> regexes) {
+        if (substrings.isEmpty() && regexes.isEmpty()) {
+            return EMPTY;
+        }
+        Set<String> regexKeys = new HashSet<>();
+        for (Pattern p : regexes) {
+            regexKeys.add(p.flags() + ":" + p.pattern());
+        }
+        // look up with the live set to avoid copying it, which is the common case
+        ExpectedErrorMatcher matcher = CACHE.get(new Key(substrings, regexKeys));
+        if (matcher == null) {
+            matcher = new ExpectedErrorMatcher(substrings, regexes);
+            if (CACHE.size() >= MAX_CACHED_MATCHERS) {
+                CACHE.clear();
+            }
+            CACHE.put(new Key(Set.copyOf(substrings), regexKeys), matcher);
+        }
+        return matcher;
+    }
+
+    boolean matches(String error) {
+        int node = 0;
+        if (terminal[node]) {
+            return true;
+        }
+        for (int i = 0; i < error.length(); i++) {
+            char c = error.charAt(i);
+            int next;
+            while ((next = step(node, c)) == -1 && node != 0) {
+                node = failure[node];
+            }
+            node = next == -1 ? 0 : next;
+            if (terminal[node]) {
+                return true;
+            }
+        }
+        for (Pattern p : patterns) {
+            if (p.matcher(error).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Key {
+        private final Set<String> substrings;
+        private final Set<String> regexes;
+        private final int hashCode;
+
+        Key(Set<String> substrings, Set<String> regexes) {
+            this.substrings = substrings;
+            this.regexes = regexes;
+            this.hashCode = Objects.hash(substrings, regexes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hashCode == other.hashCode && substrings.equals(other.substrings) && regexes.equals(other.regexes);
+        }
+    }
+
+}
@@ -4,10 +4,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
+import sqlancer.ExecutionCounters;
+import sqlancer.ExecutionCounters.Counter;
 import sqlancer.GlobalState;
-import sqlancer.Main;
 import sqlancer.SQLConnection;
+import sqlancer.StatementWatchdog;
 
 public class SQLQueryAdapter extends Query<SQLConnection> {
 
@@ -93,23 +96,128 @@ public class SQLQueryAdapter extends Query<SQLConnection> {
         } else {
             s = globalState.getConnection().createStatement();
         }
+        StatementWatchdog watchdog = StatementWatchdog.watch(globalState, s);
         try {
             if (fills.length > 0) {
                 ((PreparedStatement) s).execute();
             } else {
                 s.execute(query);
             }
-            Main.nrSuccessfulActions.addAndGet(1);
+            ExecutionCounters.increment(Counter.SUCCESSFUL_STATEMENTS);
+            globalState.getRowCountEstimate().afterStatement(getExecutedString(fills), true, s.getUpdateCount());
             return true;
         } catch (Exception e) {
-            Main.nrUnsuccessfulActions.addAndGet(1);
+            if (watchdog != null && watchdog.isTimedOut()) {
+                // the statement might have had effects before it was cancelled
+                globalState.getRowCountEstimate().afterCancelledStatement(getExecutedString(fills));
+                throw watchdog.timeout();
+            }
+            ExecutionCounters.increment(Counter.UNSUCCESSFUL_STATEMENTS);
+            globalState.getRowCountEstimate().afterStatement(getExecutedString(fills), false, -1);
             checkException(e);
             return false;
         } finally {
+            if (watchdog != null) {
+                watchdog.close();
+            }
             s.close();
         }
     }
 
+    /**
+     * Executes the given statements in order, sending each batch of them to the DBMS at once in a transaction. If a
+     * batch fails, the transaction is rolled back, and the batch is split into halves that are executed in the same
+     * way, until the statements that fail are executed on their own. Thus, each error is checked against the expected
+     * errors of the statement that caused it, and the statements take effect as if they had been executed one by one.
+     * The DBMS must be able to roll back the effects of the statements, and no transaction must be active.
+     *
+     * @param globalState
+     *            the state of the database
+     * @param queries
+     *            the statements, which must not affect the schema
+     * @param listener
+     *            is notified of each statement once it has been committed or has failed, when none of the statements
+     *            after it have taken effect
+     *
+     * @return for each statement, whether it was executed successfully
+     *
+     * @throws Exception
+     *             if a statement failed with an unexpected error
+     */
+    public static boolean[] executeBatch(GlobalState<?, ?, SQLConnection> globalState,
+            List<? extends Query<SQLConnection>> queries, GlobalState.BatchListener listener) throws Exception {
+        boolean[] success = new boolean[queries.size()];
+        executeBatch(globalState, queries, 0, queries.size(), success, listener);
+        return success;
+    }
+
+    private static void executeBatch(GlobalState<?, ?, SQLConnection> globalState,
+            List<? extends Query<SQLConnection>> queries, int from, int to, boolean[] success,
+            GlobalState.BatchListener listener) throws Exception {
+        long startNanos = System.nanoTime();
+        if (to - from == 1) {
+            success[from] = queries.get(from).execute(globalState);
+            listener.executed(from, success[from], System.nanoTime() - startNanos);
+        } else if (executeBatchInTransaction(globalState, queries.subList(from, to))) {
+            // the statements of a batch share its latency
+            long nanos = (System.nanoTime() - startNanos) / (to - from);
+            for (int i = from; i < to; i++) {
+                success[i] = true;
+                listener.executed(i, true, nanos);
+            }
+        } else {
+            int middle = (from + to) >>> 1;
+            executeBatch(globalState, queries, from, middle, success, listener);
+            executeBatch(globalState, queries, middle, to, success, listener);
+        }
+    }
+
+    private static boolean executeBatchInTransaction(GlobalState<?, ?, SQLConnection> globalState,
+            List<? extends Query<SQLConnection>> queries) throws SQLException {
+        SQLConnection con = globalState.getConnection();
+        int[] updateCounts;
+        StatementWatchdog watchdog = null;
+        try (Statement s = con.createStatement()) {
+            con.setAutoCommit(false);
+            for (Query<SQLConnection> q : queries) {
+                s.addBatch(q.getQueryString());
+            }
+            watchdog = StatementWatchdog.watchBatch(globalState, s, queries.size());
+            updateCounts = s.executeBatch();
+            con.commit();
+        } catch (SQLException e) {
+            try {
+                con.rollback();
+            } catch (SQLException e2) {
+                // the DBMS has already rolled back the transaction (e.g., due to INSERT OR ROLLBACK in SQLite)
+            }
+            if (watchdog != null && watchdog.isTimedOut()) {
+                throw watchdog.timeout();
+            }
+            return false;
+        } finally {
+            if (watchdog != null) {
+                watchdog.close();
+            }
+            try {
+                con.setAutoCommit(true);
+            } catch (SQLException e) {
+                // ditto
+            }
+        }
+        for (int i = 0; i < queries.size(); i++) {
+            ExecutionCounters.increment(Counter.SUCCESSFUL_STATEMENTS);
+            // drivers report SUCCESS_NO_INFO if they do not know the update count
+            globalState.getRowCountEstimate().afterStatement(queries.get(i).getQueryString(), true,
+                    i < updateCounts.length ? updateCounts[i] : -1);
+        }
+        return true;
+    }
+
+    private String getExecutedString(String... fills) {
+        return fills.length > 0 ? fills[0] : query;
+    }
+
     public void checkException(Exception e) throws AssertionError {
         Throwable ex = e;
 
@@ -127,15 +235,40 @@ public class SQLQueryAdapter extends Query<SQLConnection> {
     @Override
     public <G extends GlobalState<?, ?, SQLConnection>> SQLancerResultSet executeAndGet(G globalState, String... fills)
             throws SQLException {
+        return executeAndGet(globalState, globalState.getConnection(), fills);
+    }
+
+    /**
+     * Executes the query on the given connection to the database of the global state, for example, on its side
+     * connection.
+     *
+     * @param <G>
+     *            the type of the global state
+     * @param globalState
+     *            the global state
+     * @param con
+     *            the connection; the global state is updated only if it is the state's main connection
+     * @param fills
+     *            the query string and the parameters of a prepared statement, if any
+     *
+     * @return the result set, or null if the query failed with an expected error
+     *
+     * @throws SQLException
+     *             if the query cannot be executed
+     */
+    public <G extends GlobalState<?, ?, SQLConnection>> SQLancerResultSet executeAndGet(G globalState,
+            SQLConnection con, String... fills) throws SQLException {
+        boolean onMainConnection = con == globalState.getConnection();
         Statement s;
         if (fills.length > 0) {
-            s = globalState.getConnection().prepareStatement(fills[0]);
+            s = con.prepareStatement(fills[0]);
             for (int i = 1; i < fills.length; i++) {
                 ((PreparedStatement) s).setString(i, fills[i]);
             }
         } else {
-            s = globalState.getConnection().createStatement();
+            s = con.createStatement();
         }
+        StatementWatchdog watchdog = StatementWatchdog.watch(globalState, s);
         ResultSet result;
         try {
             if (fills.length > 0) {
@@ -143,14 +276,30 @@ public class SQLQueryAdapter extends Query<SQLConnection> {
             } else {
                 result = s.executeQuery(query);
             }
-            Main.nrSuccessfulActions.addAndGet(1);
+            ExecutionCounters.increment(Counter.SUCCESSFUL_STATEMENTS);
+            if (onMainConnection) {
+                globalState.getRowCountEstimate().afterStatement(getExecutedString(fills), true, -1);
+            }
             if (result == null) {
+                if (watchdog != null) {
+                    watchdog.close();
+                }
                 return null;
             }
-            return new SQLancerResultSet(result);
+            // the deadline also applies to fetching the rows
+            return new SQLancerResultSet(result, watchdog);
         } catch (Exception e) {
+            if (watchdog != null) {
+                watchdog.close();
+            }
             s.close();
-            Main.nrUnsuccessfulActions.addAndGet(1);
+            if (watchdog != null && watchdog.isTimedOut()) {
+                throw watchdog.timeout();
+            }
+            ExecutionCounters.increment(Counter.UNSUCCESSFUL_STATEMENTS);
+            if (onMainConnection) {
+                globalState.getRowCountEstimate().afterStatement(getExecutedString(fills), false, -1);
+            }
             checkException(e);
         }
         return null;
@@ -4,18 +4,29 @@ import java.io.Closeable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
+import sqlancer.StatementWatchdog;
+
 public class SQLancerResultSet implements Closeable {
 
     ResultSet rs;
     private Runnable runnableEpilogue;
+    private final StatementWatchdog watchdog;
 
     public SQLancerResultSet(ResultSet rs) {
+        this(rs, null);
+    }
+
+    public SQLancerResultSet(ResultSet rs, StatementWatchdog watchdog) {
         this.rs = rs;
+        this.watchdog = watchdog;
     }
 
     @Override
     public void close() {
         try {
+            if (watchdog != null) {
+                watchdog.close();
+            }
             if (runnableEpilogue != null) {
                 runnableEpilogue.run();
             }
@@ -27,7 +38,14 @@ public class SQLancerResultSet implements Closeable {
     }
 
     public boolean next() throws SQLException {
-        return rs.next();
+        try {
+            return rs.next();
+        } catch (SQLException e) {
+            if (watchdog != null && watchdog.isTimedOut()) {
+                throw watchdog.timeout();
+            }
+            throw e;
+        }
     }
 
     public int getInt(int i) throws SQLException {
@@ -16,21 +16,32 @@ public class AbstractRelationalTable<C extends AbstractTableColumn<?, ?>, I exte
 
     @Override
     public long getNrRows(G globalState) {
+        RowCountEstimate estimate = globalState.getRowCountEstimate();
+        if (!isView() && estimate.isEnabled()) {
+            long count = estimate.getNrRows(name);
+            if (count == RowCountEstimate.UNKNOWN) {
+                count = countRows(globalState);
+                estimate.setNrRows(name, count);
+            }
+            return count;
+        }
         if (rowCount == NO_ROW_COUNT_AVAILABLE) {
-            SQLQueryAdapter q = new SQLQueryAdapter("SELECT COUNT(*) FROM " + name);
-            try (SQLancerResultSet query = q.executeAndGet(globalState)) {
-                if (query == null) {
-                    throw new IgnoreMeException();
-                }
-                query.next();
-                rowCount = query.getLong(1);
-                return rowCount;
-            } catch (Throwable t) {
-                // an exception might be expected, for example, when invalid view is created
+            rowCount = countRows(globalState);
+        }
+        return rowCount;
+    }
+
+    private long countRows(G globalState) {
+        SQLQueryAdapter q = new SQLQueryAdapter("SELECT COUNT(*) FROM " + name);
+        try (SQLancerResultSet query = q.executeAndGet(globalState)) {
+            if (query == null) {
                 throw new IgnoreMeException();
             }
-        } else {
-            return rowCount;
+            query.next();
+            return query.getLong(1);
+        } catch (Throwable t) {
+            // an exception might be expected, for example, when invalid view is created
+            throw new IgnoreMeException();
         }
     }
 
@@ -0,0 +1,129 @@
+package sqlancer.common.schema;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import sqlancer.GlobalState;
+import sqlancer.IgnoreMeException;
+import sqlancer.Randomly;
+import sqlancer.SQLConnection;
+
+/**
+ * Selects the random rows from which the pivoted query synthesis oracles build their pivot rows. Rather than selecting
+ * a random row of the cross product of the tables, which requires sorting the whole cross product, it selects a random
+ * row of each table independently, which results in the same distribution.
+ *
+ * For each table, a uniform sample of up to {@value #SAMPLE_SIZE} rows is read with a single scan (reservoir sampling),
+ * and their typed values are cached. The pivot rows are selected from the sample until the
+ * {@link RowCountEstimate#getVersion(String) version} of the table changes, or until {@value #SAMPLE_SIZE} rows have
+ * been selected from it, after which the table is sampled again.
+ *
+ * @param <C>
+ *            the column type
+ * @param <V>
+ *            the type of the values of the rows
+ */
+public final class PivotRowSampler<C extends AbstractTableColumn<?, ?>, V> {
+
+    static final int SAMPLE_SIZE = 100;
+
+    private final Map<String, Sample<C, V>> samples = new HashMap<>();
+
+    @FunctionalInterface
+    public interface RowReader<V> {
+
+        /**
+         * Reads the values of the current row of the result set.
+         *
+         * @param rs
+         *            the result set of the sample query
+         *
+         * @return the values of the table's columns, in the order of the columns
+         *
+         * @throws SQLException
+         *             if the values cannot be read
+         */
+        List<V> read(ResultSet rs) throws SQLException;
+
+    }
+
+    private static final class Sample<C, V> {
+
+        private final long version;
+        private final List<C> columns;
+        private final List<List<V>> rows;
+        private int nrSelected;
+
+        Sample(long version, List<C> columns, List<List<V>> rows) {
+            this.version = version;
+            this.columns = columns;
+            this.rows = rows;
+        }
+
+    }
+
+    /**
+     * Returns a random row of the given table.
+     *
+     * @param globalState
+     *            the state of the database to which the table belongs
+     * @param table
+     *            the table
+     * @param query
+     *            a query that selects all rows of the table
+     * @param reader
+     *            reads the values of a row of the query's result
+     *
+     * @return the values of the row's columns
+     */
+    public Map<C, V> getRandomRow(GlobalState<?, ?, SQLConnection> globalState, AbstractTable<C, ?, ?> table,
+            String query, RowReader<V> reader) {
+        RowCountEstimate estimate = globalState.getRowCountEstimate();
+        // the contents of a view can change with those of any table
+        long version = table.isView() ? estimate.getVersion() : estimate.getVersion(table.getName());
+        Sample<C, V> sample = samples.get(table.getName());
+        if (sample == null || sample.version != version || sample.nrSelected >= SAMPLE_SIZE
+                || !sample.columns.equals(table.getColumns())) {
+            sample = new Sample<>(version, table.getColumns(), readSample(globalState.getConnection(), query, reader));
+            samples.put(table.getName(), sample);
+        }
+        if (sample.rows.isEmpty()) {
+            throw new IgnoreMeException();
+        }
+        sample.nrSelected++;
+        List<V> row = Randomly.fromList(sample.rows);
+        Map<C, V> values = new HashMap<>();
+        for (int i = 0; i < sample.columns.size(); i++) {
+            values.put(table.getColumns().get(i), row.get(i));
+        }
+        return values;
+    }
+
+    private static <V> List<List<V>> readSample(SQLConnection con, String query, RowReader<V> reader) {
+        List<List<V>> rows = new ArrayList<>();
+        try (Statement s = con.createStatement(); ResultSet rs = s.executeQuery(query)) {
+            int nrRows = 0;
+            while (rs.next()) {
+                nrRows++;
+                if (rows.size() < SAMPLE_SIZE) {
+                    rows.add(reader.read(rs));
+                } else {
+                    // the row replaces a sampled one with a probability of SAMPLE_SIZE / nrRows
+                    int index = (int) Randomly.getNotCachedInteger(0, nrRows);
+                    if (index < SAMPLE_SIZE) {
+                        rows.set(index, reader.read(rs));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IgnoreMeException();
+        }
+        return rows;
+    }
+
+}
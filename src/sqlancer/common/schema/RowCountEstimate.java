@@ -0,0 +1,331 @@
+package sqlancer.common.schema;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tracks the number of rows of the tables of a database from the update counts of the INSERT and DELETE statements
+ * executed on it, so that the oracles and generators can obtain the number of rows of a table without executing a
+ * {@code SELECT COUNT(*)} query. A count is known only after it has been determined by such a query or after the table
+ * has been created, and it becomes unknown again after any statement whose effect on the number of rows cannot be
+ * tracked (for example, TRUNCATE, ROLLBACK, an upsert, INSERT OR REPLACE, or a statement that failed in an unexpected
+ * way or was cancelled). Tracking is disabled for good once the database contains a trigger, rule, foreign key whose
+ * action changes the referencing rows, or table inheritance, since statements can then change tables other than the one
+ * that they target. A statement that targets a view might change any table.
+ *
+ * In addition, it assigns each table a version that changes whenever a statement might have changed the contents of the
+ * table, which allows caching values read from it. The versions are tracked even if the row counts are not.
+ *
+ * The statements are classified by their SQL string, which must be executed on a DBMS whose single statements are
+ * atomic.
+ */
+public final class RowCountEstimate {
+
+    public static final long UNKNOWN = -1;
+
+    private static final String NAME = "([A-Za-z_][A-Za-z0-9_]*)";
+    // the conflict clause of SQLite (e.g., INSERT OR REPLACE), whose resolution determines which rows are changed
+    private static final String CONFLICT_CLAUSE = "(?:\\s+OR\\s+(ROLLBACK|ABORT|FAIL|IGNORE|REPLACE))?";
+    private static final Pattern INSERT = Pattern
+            .compile("INSERT" + CONFLICT_CLAUSE + "(?:\\s+IGNORE)?\\s+INTO\\s+" + NAME + "(?![.\\w])");
+    private static final Pattern DELETE = Pattern.compile("DELETE\\s+FROM\\s+" + NAME + "(?![.\\w]|\\s*,)");
+    private static final Pattern UPDATE = Pattern
+            .compile("UPDATE" + CONFLICT_CLAUSE + "(?:\\s+IGNORE)?\\s+(?!OR\\s)" + NAME + "(?![.\\w])");
+    private static final Pattern CREATE_TABLE = Pattern.compile("CREATE\\s+TABLE\\s+" + NAME + "\\s*\\(");
+    private static final Pattern DROP_TABLE = Pattern
+            .compile("DROP\\s+TABLE\\s+(?:IF\\s+EXISTS\\s+)?" + NAME + "\\s*;?");
+    private static final Pattern ALTER_TABLE = Pattern.compile("ALTER\\s+TABLE\\s+" + NAME + "(?![.\\w])");
+    // besides triggers and the actions of foreign keys that change the referencing rows (which can also be enabled
+    // later
+    // in SQLite by a PRAGMA), table-level conflict clauses in SQLite can make statements delete rows
+    private static final Pattern UNTRACKABLE_DDL = Pattern.compile(
+            "\\b(?:TRIGGER|RULE|CASCADE|INHERITS|PARTITION|VIRTUAL|ON\\s+CONFLICT|ON\\s+(?:DELETE|UPDATE)\\s+SET\\s+(?:NULL|DEFAULT))\\b");
+    private static final Pattern CREATE_VIEW = Pattern.compile(
+            "CREATE\\s+(?:OR\\s+REPLACE\\s+)?(?:(?:TEMP|TEMPORARY)\\s+)?(?:RECURSIVE\\s+)?(?:MATERIALIZED\\s+)?VIEW\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?"
+                    + NAME);
+    private static final Pattern UPSERT = Pattern.compile("\\bON\\s+(?:CONFLICT|DUPLICATE)\\b|\\bRETURNING\\b");
+    // statements that do not change the number of rows of any table, or that only change the schema
+    private static final Pattern NO_EFFECT = Pattern.compile(
+            "(?:SELECT|EXPLAIN(?!.*\\bANALYZE\\b)|SHOW|DESCRIBE|DESC|PRAGMA|SET|ANALYZE|VACUUM|REINDEX|BEGIN|START\\s+TRANSACTION|COMMIT|END|SAVEPOINT|RELEASE|ADMIN|CREATE\\s+(?:UNIQUE\\s+)?INDEX|DROP\\s+INDEX|CREATE\\s+VIEW|DROP\\s+VIEW)\\b",
+            Pattern.DOTALL);
+
+    private final boolean enabled;
+    private final Map<String, Long> nrRows = new HashMap<>();
+    private final Map<String, Long> tableVersions = new HashMap<>();
+    // the names of the views that have been created, which are kept after the views are dropped
+    private final Set<String> views = new HashSet<>();
+    // the number of statements that might have changed the contents of a table
+    private long version;
+    // the version of the last statement that might have changed the contents of any table
+    private long allTablesVersion;
+    private boolean untrackable;
+
+    /**
+     * Creates a row count estimate.
+     *
+     * @param enabled
+     *            whether the statements are tracked; if false, all counts are unknown
+     */
+    public RowCountEstimate(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled && !untrackable;
+    }
+
+    /**
+     * Returns the number of rows of the given table without querying the database.
+     *
+     * @param tableName
+     *            the name of the table
+     *
+     * @return the number of rows, or {@link #UNKNOWN}
+     */
+    public long getNrRows(String tableName) {
+        return nrRows.getOrDefault(tableName.toLowerCase(Locale.ROOT), UNKNOWN);
+    }
+
+    public boolean isKnown(String tableName) {
+        return nrRows.containsKey(tableName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Records the number of rows of a table, as determined by a query.
+     *
+     * @param tableName
+     *            the name of the table
+     * @param count
+     *            the number of rows
+     */
+    public void setNrRows(String tableName, long count) {
+        if (isEnabled()) {
+            nrRows.put(tableName.toLowerCase(Locale.ROOT), count);
+        }
+    }
+
+    /**
+     * Returns a version of the contents of the given table, which changes whenever a statement might have changed them.
+     *
+     * @param tableName
+     *            the name of the table
+     *
+     * @return the version of the table's contents
+     */
+    public long getVersion(String tableName) {
+        return Math.max(tableVersions.getOrDefault(tableName.toLowerCase(Locale.ROOT), 0L), allTablesVersion);
+    }
+
+    /**
+     * Returns a version of the contents of the database, which changes whenever a statement might have changed any
+     * table, and which must be used for views.
+     *
+     * @return the version of the database's contents
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void invalidateAll() {
+        nrRows.clear();
+        allTablesVersion = ++version;
+    }
+
+    /**
+     * Updates the row counts after a statement was executed.
+     *
+     * @param sql
+     *            the statement
+     * @param success
+     *            whether the statement was executed successfully, or failed with an expected error
+     * @param updateCount
+     *            the update count reported by the DBMS, or -1 if unavailable
+     */
+    public void afterStatement(String sql, boolean success, long updateCount) {
+        String statement = normalize(sql);
+        Matcher createView = CREATE_VIEW.matcher(statement);
+        if (createView.lookingAt()) {
+            // a statement that targets an updatable view changes the tables that the view queries
+            views.add(createView.group(1).toLowerCase(Locale.ROOT));
+        }
+        if ((statement.startsWith("CREATE") || statement.startsWith("ALTER"))
+                && !NO_EFFECT.matcher(statement).lookingAt()) {
+            if (UNTRACKABLE_DDL.matcher(statement).find()) {
+                untrackable = true;
+                invalidateAll();
+                return;
+            }
+        }
+        if (statement.contains(";")) {
+            // might consist of several statements
+            invalidateAll();
+            return;
+        }
+        if (NO_EFFECT.matcher(statement).lookingAt()) {
+            if (!success && (statement.startsWith("COMMIT") || statement.startsWith("END"))) {
+                // the transaction might have been rolled back
+                invalidateAll();
+            }
+            return;
+        }
+        if (UPSERT.matcher(statement).find()) {
+            invalidateAll();
+            return;
+        }
+        Matcher insert = INSERT.matcher(statement);
+        if (insert.lookingAt()) {
+            if (!invalidateOnConflict(insert.group(1), insert.group(2), success)) {
+                addNrRows(insert.group(2), success, updateCount, 1);
+            }
+            return;
+        }
+        Matcher delete = DELETE.matcher(statement);
+        if (delete.lookingAt() && !"ONLY".equals(delete.group(1))) {
+            addNrRows(delete.group(1), success, updateCount, -1);
+            return;
+        }
+        Matcher update = UPDATE.matcher(statement);
+        if (update.lookingAt()) {
+            if (!invalidateOnConflict(update.group(1), update.group(2), success)) {
+                // does not change the number of rows
+                markModified(update.group(2).toLowerCase(Locale.ROOT));
+            }
+            return;
+        }
+        Matcher createTable = CREATE_TABLE.matcher(statement);
+        if (createTable.lookingAt()) {
+            String name = createTable.group(1).toLowerCase(Locale.ROOT);
+            markModified(name);
+            if (success && isEnabled()) {
+                nrRows.put(name, 0L);
+            }
+            return;
+        }
+        Matcher dropTable = DROP_TABLE.matcher(statement);
+        if (dropTable.matches()) {
+            invalidate(dropTable.group(1));
+            return;
+        }
+        Matcher alterTable = ALTER_TABLE.matcher(statement);
+        if (alterTable.lookingAt() && !statement.contains("RENAME")) {
+            invalidate(alterTable.group(1));
+            return;
+        }
+        invalidateAll();
+    }
+
+    // invalidates the row counts that a statement with the given conflict resolution might have changed in a way that
+    // cannot be tracked, and returns whether it did: REPLACE deletes the conflicting rows, ROLLBACK rolls back the
+    // whole
+    // transaction, and a statement that failed with FAIL keeps the changes made before the failure
+    private boolean invalidateOnConflict(String conflictResolution, String tableName, boolean success) {
+        if (conflictResolution == null) {
+            return false;
+        }
+        switch (conflictResolution) {
+        case "REPLACE":
+        case "ROLLBACK":
+            invalidateAll();
+            return true;
+        case "FAIL":
+            if (!success) {
+                invalidate(tableName);
+                return true;
+            }
+            return false;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Updates the row counts after a statement was cancelled, for example, because it timed out. Unlike a statement
+     * that failed with an error, a cancelled statement might have changed its table before it was cancelled.
+     *
+     * @param sql
+     *            the statement
+     */
+    public void afterCancelledStatement(String sql) {
+        String statement = normalize(sql);
+        if (NO_EFFECT.matcher(statement).lookingAt() && !statement.contains(";")) {
+            // apart from a COMMIT, which might have been rolled back, the statement did not change any rows
+            afterStatement(sql, false, -1);
+            return;
+        }
+        String tableName = getChangedTable(statement);
+        if (tableName == null) {
+            invalidateAll();
+        } else {
+            invalidate(tableName);
+        }
+    }
+
+    // returns the only table that the statement can change, or null if it is unknown
+    private static String getChangedTable(String statement) {
+        if (statement.contains(";")) {
+            return null;
+        }
+        Matcher insert = INSERT.matcher(statement);
+        if (insert.lookingAt()) {
+            return canOnlyChangeTarget(insert.group(1)) ? insert.group(2) : null;
+        }
+        Matcher delete = DELETE.matcher(statement);
+        if (delete.lookingAt() && !"ONLY".equals(delete.group(1))) {
+            return delete.group(1);
+        }
+        Matcher update = UPDATE.matcher(statement);
+        if (update.lookingAt()) {
+            return canOnlyChangeTarget(update.group(1)) ? update.group(2) : null;
+        }
+        return null;
+    }
+
+    private static boolean canOnlyChangeTarget(String conflictResolution) {
+        return !"REPLACE".equals(conflictResolution) && !"ROLLBACK".equals(conflictResolution);
+    }
+
+    private static String normalize(String sql) {
+        String statement = sql.trim().toUpperCase(Locale.ROOT);
+        if (statement.endsWith(";")) {
+            statement = statement.substring(0, statement.length() - 1);
+        }
+        return statement;
+    }
+
+    private void addNrRows(String tableName, boolean success, long updateCount, int sign) {
+        String name = tableName.toLowerCase(Locale.ROOT);
+        markModified(name);
+        Long count = nrRows.get(name);
+        if (count == null || !success) {
+            // statements are atomic
+            return;
+        }
+        if (updateCount < 0) {
+            // the DBMS did not report an update count
+            nrRows.remove(name);
+        } else {
+            nrRows.put(name, count + sign * updateCount);
+        }
+    }
+
+    private void invalidate(String tableName) {
+        String name = tableName.toLowerCase(Locale.ROOT);
+        markModified(name);
+        nrRows.remove(name);
+    }
+
+    private void markModified(String name) {
+        if (untrackable || views.contains(name)) {
+            // the statement might have changed other tables as well
+            invalidateAll();
+        } else {
+            tableVersions.put(name, ++version);
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package sqlancer.common.visitor;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Caches the SQL that the {@link ToStringVisitor}s render for the clauses of a query, so that an oracle that prints
+ * several variants of the same query, which differ only in a single clause, renders the unchanged clauses only once.
+ * The clauses of a SELECT statement, such as its fetch columns, FROM list, joins, and WHERE predicate, are cached by
+ * their identity, and the cached predicates are also reused when they are part of another expression, for example, when
+ * a TLP oracle negates a predicate.
+ *
+ * The cache is used by the visitors of the current thread while it is open. Within this scope, the AST nodes that have
+ * been printed must not be modified, but only be replaced, for example, by calling
+ * {@link sqlancer.common.ast.newast.Select#setWhereClause}.
+ *
+ * <pre>
+ * try (FragmentCache cache = FragmentCache.open()) {
+ *     String first = select.asString();
+ *     select.setWhereClause(negatedPredicate);
+ *     String second = select.asString();
+ * }
+ * </pre>
+ */
+public final class FragmentCache implements AutoCloseable {
+
+    private static final ThreadLocal<FragmentCache> CURRENT = new ThreadLocal<>();
+
+    private final FragmentCache previous;
+    private final Map<Object, String> expressions = new IdentityHashMap<>();
+    // clause -> list of expressions -> SQL, since the same list can be printed differently in different clauses
+    private final Map<String, Map<Object, String>> lists = new HashMap<>();
+
+    private FragmentCache(FragmentCache previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Opens a cache for the current thread, which is used until it is closed.
+     *
+     * @return the cache
+     */
+    public static FragmentCache open() {
+        FragmentCache cache = new FragmentCache(CURRENT.get());
+        CURRENT.set(cache);
+        return cache;
+    }
+
+    static FragmentCache current() {
+        return CURRENT.get();
+    }
+
+    String getExpression(Object expression) {
+        return expressions.get(expression);
+    }
+
+    void putExpression(Object expression, String sql) {
+        expressions.put(expression, sql);
+    }
+
+    String getList(String clause, Object list) {
+        Map<Object, String> fragments = lists.get(clause);
+        return fragments == null ? null : fragments.get(list);
+    }
+
+    void putList(String clause, Object list, String sql) {
+        lists.computeIfAbsent(clause, c -> new IdentityHashMap<>()).put(list, sql);
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+}
@@ -8,6 +8,8 @@ public abstract class ToStringVisitor<T> extends NodeVisitor<T> {
 
     protected final StringBuilder sb = new StringBuilder();
 
+    private final FragmentCache fragments = FragmentCache.current();
+
     public void visit(BinaryOperation<T> op) {
         sb.append('(');
         sb.append('(');
@@ -47,6 +49,14 @@ public abstract class ToStringVisitor<T> extends NodeVisitor<T> {
     @SuppressWarnings("unchecked")
     public void visit(T expr) {
         assert expr != null;
+        FragmentCache cache = getFragmentCache();
+        if (cache != null) {
+            String sql = cache.getExpression(expr);
+            if (sql != null) {
+                sb.append(sql);
+                return;
+            }
+        }
         if (expr instanceof BinaryOperation<?>) {
             visit((BinaryOperation<T>) expr);
         } else if (expr instanceof UnaryOperation<?>) {
@@ -67,6 +77,79 @@ public abstract class ToStringVisitor<T> extends NodeVisitor<T> {
         }
     }
 
+    /**
+     * Returns the cache that is used while printing, which is the {@link FragmentCache} of the current thread, if one
+     * is open. Visitors whose output depends on their configuration should not use the cache if they are not configured
+     * as usual.
+     *
+     * @return the cache, or null if no fragments should be cached
+     */
+    protected FragmentCache getFragmentCache() {
+        return fragments;
+    }
+
+    /**
+     * Visits an expression that is a clause of a query, such as a WHERE predicate, and caches its SQL, so that it is
+     * rendered only once while a {@link FragmentCache} is open.
+     *
+     * @param expr
+     *            the expression
+     */
+    protected void visitClause(T expr) {
+        FragmentCache cache = getFragmentCache();
+        if (cache == null) {
+            visit(expr);
+            return;
+        }
+        String sql = cache.getExpression(expr);
+        if (sql == null) {
+            int start = sb.length();
+            visit(expr);
+            cache.putExpression(expr, sb.substring(start));
+        } else {
+            sb.append(sql);
+        }
+    }
+
+    /**
+     * Visits a list of expressions that is a clause of a query, such as the fetch columns, using {@link #visit(List)}.
+     *
+     * @param clause
+     *            the name of the clause
+     * @param expressions
+     *            the expressions
+     */
+    protected void visitClause(String clause, List<T> expressions) {
+        visitClause(clause, expressions, () -> visit(expressions));
+    }
+
+    /**
+     * Visits a clause of a query and caches its SQL, so that it is rendered only once while a {@link FragmentCache} is
+     * open.
+     *
+     * @param clause
+     *            the name of the clause, which distinguishes the same list of expressions in different clauses
+     * @param fragment
+     *            the AST nodes of the clause, typically a list, whose identity is the key of the cache
+     * @param visitor
+     *            visits the nodes of the clause
+     */
+    protected void visitClause(String clause, Object fragment, Runnable visitor) {
+        FragmentCache cache = getFragmentCache();
+        if (cache == null) {
+            visitor.run();
+            return;
+        }
+        String sql = cache.getList(clause, fragment);
+        if (sql == null) {
+            int start = sb.length();
+            visitor.run();
+            cache.putList(clause, fragment, sb.substring(start));
+        } else {
+            sb.append(sql);
+        }
+    }
+
     public String get() {
         return sb.toString();
     }
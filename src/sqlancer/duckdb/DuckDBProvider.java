@@ -140,7 +140,8 @@ public class DuckDBProvider extends SQLProviderAdapter<DuckDBGlobalState, DuckDB
 
     @Override
     public SQLConnection createDatabase(DuckDBGlobalState globalState) throws SQLException {
-        String databaseFile = System.getProperty("duckdb.database.file", "");
+        String databaseFile = globalState.getOptions().isInMemory() ? ""
+                : System.getProperty("duckdb.database.file", "");
         String url = "jdbc:duckdb:" + databaseFile;
         tryDeleteDatabase(databaseFile);
 
@@ -156,6 +157,15 @@ public class DuckDBProvider extends SQLProviderAdapter<DuckDBGlobalState, DuckDB
         return new SQLConnection(conn);
     }
 
+    @Override
+    protected void saveDatabase(DuckDBGlobalState globalState, String name) throws SQLException {
+        // writes the schema and the data as SQL and CSV files into a directory
+        File directory = getDatabaseFile(name);
+        try (Statement s = globalState.getConnection().createStatement()) {
+            s.execute("EXPORT DATABASE '" + directory.getAbsolutePath() + "'");
+        }
+    }
+
     @Override
     public String getDBMSName() {
         return "duckdb";
@@ -8,6 +8,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import sqlancer.IgnoreMeException;
+import sqlancer.QueryNoveltyFilter;
 import sqlancer.Randomly;
 import sqlancer.SQLConnection;
 import sqlancer.common.ast.newast.ColumnReferenceNode;
@@ -45,14 +46,22 @@ public class DuckDBNoRECOracle extends NoRECBase<DuckDBGlobalState> implements T
 
     @Override
     public void check() throws SQLException {
-        DuckDBTables randomTables = s.getRandomTableNonEmptyTables();
-        List<DuckDBColumn> columns = randomTables.getColumns();
-        DuckDBExpressionGenerator gen = new DuckDBExpressionGenerator(state).setColumns(columns);
-        Node<DuckDBExpression> randomWhereCondition = gen.generateExpression();
-        List<DuckDBTable> tables = randomTables.getTables();
-        List<TableReferenceNode<DuckDBExpression, DuckDBTable>> tableList = tables.stream()
-                .map(t -> new TableReferenceNode<DuckDBExpression, DuckDBTable>(t)).collect(Collectors.toList());
-        List<Node<DuckDBExpression>> joins = DuckDBJoin.getJoins(tableList, state);
+        List<DuckDBColumn> columns;
+        Node<DuckDBExpression> randomWhereCondition;
+        List<TableReferenceNode<DuckDBExpression, DuckDBTable>> tableList;
+        List<Node<DuckDBExpression>> joins;
+        int attempt = 0;
+        do {
+            DuckDBTables randomTables = s.getRandomTableNonEmptyTables();
+            columns = randomTables.getColumns();
+            DuckDBExpressionGenerator gen = new DuckDBExpressionGenerator(state).setColumns(columns);
+            randomWhereCondition = gen.generateExpression();
+            List<DuckDBTable> tables = randomTables.getTables();
+            tableList = tables.stream().map(t -> new TableReferenceNode<DuckDBExpression, DuckDBTable>(t))
+                    .collect(Collectors.toList());
+            joins = DuckDBJoin.getJoins(tableList, state);
+        } while (QueryNoveltyFilter.isDuplicate(state, getQueryShape(tableList, joins, randomWhereCondition),
+                attempt++));
         int secondCount = getSecondQuery(tableList.stream().collect(Collectors.toList()), randomWhereCondition, joins);
         int firstCount = getFirstQueryCount(con, tableList.stream().collect(Collectors.toList()), columns,
                 randomWhereCondition, joins);
@@ -65,6 +74,19 @@ public class DuckDBNoRECOracle extends NoRECBase<DuckDBGlobalState> implements T
         }
     }
 
+    private static String getQueryShape(List<TableReferenceNode<DuckDBExpression, DuckDBTable>> tableList,
+            List<Node<DuckDBExpression>> joins, Node<DuckDBExpression> randomWhereCondition) {
+        StringBuilder sb = new StringBuilder("FROM ");
+        sb.append(tableList.stream().map(t -> t.getTable().getName()).collect(Collectors.joining(", ")));
+        for (Node<DuckDBExpression> join : joins) {
+            sb.append(' ');
+            sb.append(DuckDBToStringVisitor.asString(join));
+        }
+        sb.append(" WHERE ");
+        sb.append(DuckDBToStringVisitor.asString(randomWhereCondition));
+        return sb.toString();
+    }
+
     private int getSecondQuery(List<Node<DuckDBExpression>> tableList, Node<DuckDBExpression> randomWhereCondition,
             List<Node<DuckDBExpression>> joins) throws SQLException {
         DuckDBSelect select = new DuckDBSelect();
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import sqlancer.ComparatorHelper;
+import sqlancer.QueryNoveltyFilter;
 import sqlancer.Randomly;
 import sqlancer.duckdb.DuckDBErrors;
 import sqlancer.duckdb.DuckDBProvider.DuckDBGlobalState;
@@ -19,22 +20,30 @@ public class DuckDBQueryPartitioningWhereTester extends DuckDBQueryPartitioningB
 
     @Override
     public void check() throws SQLException {
-        super.check();
-        select.setWhereClause(null);
-        String originalQueryString = DuckDBToStringVisitor.asString(select);
+        String originalQueryString;
+        boolean orderBy;
+        String firstQueryString;
+        String secondQueryString;
+        String thirdQueryString;
+        int attempt = 0;
+        do {
+            super.check();
+            select.setWhereClause(null);
+            originalQueryString = DuckDBToStringVisitor.asString(select);
+
+            orderBy = Randomly.getBooleanWithRatherLowProbability();
+            if (orderBy) {
+                select.setOrderByClauses(gen.generateOrderBys());
+            }
+            select.setWhereClause(predicate);
+            firstQueryString = DuckDBToStringVisitor.asString(select);
+            select.setWhereClause(negatedPredicate);
+            secondQueryString = DuckDBToStringVisitor.asString(select);
+            select.setWhereClause(isNullPredicate);
+            thirdQueryString = DuckDBToStringVisitor.asString(select);
+        } while (QueryNoveltyFilter.isDuplicate(state, firstQueryString, attempt++));
 
         List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-
-        boolean orderBy = Randomly.getBooleanWithRatherLowProbability();
-        if (orderBy) {
-            select.setOrderByClauses(gen.generateOrderBys());
-        }
-        select.setWhereClause(predicate);
-        String firstQueryString = DuckDBToStringVisitor.asString(select);
-        select.setWhereClause(negatedPredicate);
-        String secondQueryString = DuckDBToStringVisitor.asString(select);
-        select.setWhereClause(isNullPredicate);
-        String thirdQueryString = DuckDBToStringVisitor.asString(select);
         List<String> combinedString = new ArrayList<>();
         List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
                 thirdQueryString, combinedString, !orderBy, state, errors);
@@ -1,8 +1,10 @@
 package sqlancer.h2;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 import com.google.auto.service.AutoService;
 
@@ -99,6 +101,11 @@ public class H2Provider extends SQLProviderAdapter<H2GlobalState, H2Options> {
 
     @Override
     public SQLConnection createDatabase(H2GlobalState globalState) throws SQLException {
+        if (globalState.getOptions().isInMemory()) {
+            // the database is discarded when its last connection is closed
+            return new SQLConnection(
+                    DriverManager.getConnection("jdbc:h2:mem:" + globalState.getDatabaseName(), "sa", ""));
+        }
         String connectionString = "jdbc:h2:~/" + globalState.getDatabaseName() + ";DB_CLOSE_ON_EXIT=FALSE";
         Connection connection = DriverManager.getConnection(connectionString, "sa", "");
         connection.createStatement().execute("DROP ALL OBJECTS DELETE FILES");
@@ -107,6 +114,14 @@ public class H2Provider extends SQLProviderAdapter<H2GlobalState, H2Options> {
         return new SQLConnection(connection);
     }
 
+    @Override
+    protected void saveDatabase(H2GlobalState globalState, String name) throws SQLException {
+        File script = getDatabaseFile(name + ".sql");
+        try (Statement s = globalState.getConnection().createStatement()) {
+            s.execute("SCRIPT TO '" + script.getAbsolutePath() + "'");
+        }
+    }
+
     @Override
     public String getDBMSName() {
         return "h2";
@@ -1,5 +1,6 @@
 package sqlancer.hsqldb;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -49,7 +50,7 @@ public class HSQLDBProvider extends SQLProviderAdapter<HSQLDBProvider.HSQLDBGlob
     @Override
     public SQLConnection createDatabase(HSQLDBGlobalState globalState) throws Exception {
         String databaseName = globalState.getDatabaseName();
-        String url = "jdbc:hsqldb:file:" + databaseName;
+        String url = (globalState.getOptions().isInMemory() ? "jdbc:hsqldb:mem:" : "jdbc:hsqldb:file:") + databaseName;
         MainOptions options = globalState.getOptions();
         Connection connection = DriverManager.getConnection(url, options.getUserName(), options.getPassword());
         // When a server instance is started, or when a connection is made to an in-process database,
@@ -61,6 +62,17 @@ public class HSQLDBProvider extends SQLProviderAdapter<HSQLDBProvider.HSQLDBGlob
         return new SQLConnection(connection);
     }
 
+    @Override
+    protected void saveDatabase(HSQLDBGlobalState globalState, String name) throws SQLException {
+        File script = getDatabaseFile(name + ".sql");
+        if (script.exists()) {
+            script.delete();
+        }
+        try (Statement s = globalState.getConnection().createStatement()) {
+            s.execute("SCRIPT '" + script.getAbsolutePath() + "'");
+        }
+    }
+
     @Override
     public String getDBMSName() {
         return HSQLDB;
@@ -4,10 +4,15 @@ package sqlancer.mysql;
 import java.sql.SQLException;
 
 import sqlancer.SQLGlobalState;
+import sqlancer.common.schema.PivotRowSampler;
 import sqlancer.mysql.MySQLOptions.MySQLOracleFactory;
+import sqlancer.mysql.MySQLSchema.MySQLColumn;
+import sqlancer.mysql.ast.MySQLConstant;
 
 public class MySQLGlobalState extends SQLGlobalState<MySQLOptions, MySQLSchema> {
 
+    private final PivotRowSampler<MySQLColumn, MySQLConstant> pivotRowSampler = new PivotRowSampler<>();
+
     @Override
     protected MySQLSchema readSchema() throws SQLException {
         return MySQLSchema.fromConnection(getConnection(), getDatabaseName());
@@ -17,4 +22,8 @@ public class MySQLGlobalState extends SQLGlobalState<MySQLOptions, MySQLSchema>
         return getDbmsSpecificOptions().oracles.stream().anyMatch(o -> o == MySQLOracleFactory.PQS);
     }
 
+    public PivotRowSampler<MySQLColumn, MySQLConstant> getPivotRowSampler() {
+        return pivotRowSampler;
+    }
+
 }
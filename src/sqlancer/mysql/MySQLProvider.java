@@ -10,6 +10,9 @@ import java.util.stream.Collectors;
 import com.google.auto.service.AutoService;
 
 import sqlancer.AbstractAction;
+import sqlancer.DatabasePool;
+import sqlancer.DatabasePool.DatabaseCreator;
+import sqlancer.DatabasePool.PooledDatabase;
 import sqlancer.DatabaseProvider;
 import sqlancer.IgnoreMeException;
 import sqlancer.MainOptions;
@@ -176,6 +179,50 @@ public class MySQLProvider extends SQLProviderAdapter<MySQLGlobalState, MySQLOpt
     public SQLConnection createDatabase(MySQLGlobalState globalState) throws SQLException {
         String username = globalState.getOptions().getUserName();
         String password = globalState.getOptions().getPassword();
+        String databaseName = globalState.getDatabaseName();
+        String url = getURL(globalState);
+        SQLConnection con;
+        if (globalState.getOptions().getDatabasePoolSize() > 0) {
+            String databasePrefix = globalState.getOptions().getDatabasePrefix();
+            DatabasePool pool = DatabasePool.get(getDBMSName() + "/" + databasePrefix, databasePrefix,
+                    globalState.getOptions().getDatabasePoolSize(), new DatabaseCreator() {
+
+                        @Override
+                        public SQLConnection create(String name, String createOptions) throws SQLException {
+                            return createDatabase(url, username, password, name);
+                        }
+
+                        @Override
+                        public void drop(String name) throws SQLException {
+                            try (Connection c = DriverManager.getConnection(url, username, password);
+                                    Statement s = c.createStatement()) {
+                                s.execute("DROP DATABASE IF EXISTS " + name);
+                            }
+                        }
+
+                    });
+            PooledDatabase database = pool.acquire(() -> "");
+            databaseName = database.getName();
+            globalState.setDatabaseName(databaseName);
+            con = database.getConnection();
+        } else {
+            con = createDatabase(url, username, password, databaseName);
+        }
+        globalState.getState().logStatement("DROP DATABASE IF EXISTS " + databaseName);
+        globalState.getState().logStatement("CREATE DATABASE " + databaseName);
+        globalState.getState().logStatement("USE " + databaseName);
+        return con;
+    }
+
+    @Override
+    public void dropDatabase(MySQLGlobalState globalState) throws SQLException {
+        try (Connection con = DriverManager.getConnection(getURL(globalState), globalState.getOptions().getUserName(),
+                globalState.getOptions().getPassword()); Statement s = con.createStatement()) {
+            s.execute("DROP DATABASE IF EXISTS " + globalState.getDatabaseName());
+        }
+    }
+
+    private static String getURL(MySQLGlobalState globalState) {
         String host = globalState.getOptions().getHost();
         int port = globalState.getOptions().getPort();
         if (host == null) {
@@ -184,12 +231,12 @@ public class MySQLProvider extends SQLProviderAdapter<MySQLGlobalState, MySQLOpt
         if (port == MainOptions.NO_SET_PORT) {
             port = MySQLOptions.DEFAULT_PORT;
         }
-        String databaseName = globalState.getDatabaseName();
-        globalState.getState().logStatement("DROP DATABASE IF EXISTS " + databaseName);
-        globalState.getState().logStatement("CREATE DATABASE " + databaseName);
-        globalState.getState().logStatement("USE " + databaseName);
-        String url = String.format("jdbc:mysql://%s:%d?serverTimezone=UTC&useSSL=false&allowPublicKeyRetrieval=true",
-                host, port);
+        return String.format("jdbc:mysql://%s:%d?serverTimezone=UTC&useSSL=false&allowPublicKeyRetrieval=true", host,
+                port);
+    }
+
+    private static SQLConnection createDatabase(String url, String username, String password, String databaseName)
+            throws SQLException {
         Connection con = DriverManager.getConnection(url, username, password);
         try (Statement s = con.createStatement()) {
             s.execute("DROP DATABASE IF EXISTS " + databaseName);
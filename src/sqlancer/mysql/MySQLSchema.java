@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import sqlancer.Randomly;
@@ -88,46 +89,37 @@ public class MySQLSchema extends AbstractSchema<MySQLGlobalState, MySQLTable> {
             super(tables);
         }
 
-        public MySQLRowValue getRandomRowValue(SQLConnection con) throws SQLException {
-            String randomRow = String.format("SELECT %s FROM %s ORDER BY RAND() LIMIT 1", columnNamesAsString(
-                    c -> c.getTable().getName() + "." + c.getName() + " AS " + c.getTable().getName() + c.getName()),
-                    // columnNamesAsString(c -> "typeof(" + c.getTable().getName() + "." +
-                    // c.getName() + ")")
-                    tableNamesAsString());
+        public MySQLRowValue getRandomRowValue(MySQLGlobalState globalState) {
             Map<MySQLColumn, MySQLConstant> values = new HashMap<>();
-            try (Statement s = con.createStatement()) {
-                ResultSet randomRowValues = s.executeQuery(randomRow);
-                if (!randomRowValues.next()) {
-                    throw new AssertionError("could not find random row! " + randomRow + "\n");
-                }
-                for (int i = 0; i < getColumns().size(); i++) {
-                    MySQLColumn column = getColumns().get(i);
-                    Object value;
-                    int columnIndex = randomRowValues.findColumn(column.getTable().getName() + column.getName());
-                    assert columnIndex == i + 1;
-                    MySQLConstant constant;
-                    if (randomRowValues.getString(columnIndex) == null) {
-                        constant = MySQLConstant.createNullConstant();
-                    } else {
-                        switch (column.getType()) {
-                        case INT:
-                            value = randomRowValues.getLong(columnIndex);
-                            constant = MySQLConstant.createIntConstant((long) value);
-                            break;
-                        case VARCHAR:
-                            value = randomRowValues.getString(columnIndex);
-                            constant = MySQLConstant.createStringConstant((String) value);
-                            break;
-                        default:
-                            throw new AssertionError(column.getType());
-                        }
+            for (MySQLTable table : getTables()) {
+                List<MySQLColumn> columns = table.getColumns();
+                String query = String.format("SELECT %s FROM %s", columns.stream()
+                        .map(c -> table.getName() + "." + c.getName()).collect(Collectors.joining(", ")),
+                        table.getName());
+                values.putAll(globalState.getPivotRowSampler().getRandomRow(globalState, table, query, rs -> {
+                    List<MySQLConstant> row = new ArrayList<>();
+                    for (int i = 0; i < columns.size(); i++) {
+                        row.add(getConstant(rs, i + 1, columns.get(i)));
                     }
-                    values.put(column, constant);
-                }
-                assert !randomRowValues.next();
-                return new MySQLRowValue(this, values);
+                    return row;
+                }));
             }
+            return new MySQLRowValue(this, values);
+        }
 
+        private static MySQLConstant getConstant(ResultSet rs, int columnIndex, MySQLColumn column)
+                throws SQLException {
+            if (rs.getString(columnIndex) == null) {
+                return MySQLConstant.createNullConstant();
+            }
+            switch (column.getType()) {
+            case INT:
+                return MySQLConstant.createIntConstant(rs.getLong(columnIndex));
+            case VARCHAR:
+                return MySQLConstant.createStringConstant(rs.getString(columnIndex));
+            default:
+                throw new AssertionError(column.getType());
+            }
         }
 
     }
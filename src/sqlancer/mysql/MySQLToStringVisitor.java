@@ -1,6 +1,5 @@
 package sqlancer.mysql;
 
-import java.util.List;
 import java.util.stream.Collectors;
 
 import sqlancer.Randomly;
@@ -75,41 +74,27 @@ public class MySQLToStringVisitor extends ToStringVisitor<MySQLExpression> imple
             }
         }
         sb.append(" FROM ");
-        for (int i = 0; i < s.getFromList().size(); i++) {
-            if (i != 0) {
-                sb.append(", ");
+        // the fetch columns are not cached, since their aliases are numbered by the visitor
+        visitClause("FROM", s.getFromList());
+        visitClause("JOIN", s.getJoinList(), () -> {
+            for (MySQLExpression j : s.getJoinList()) {
+                visit(j);
             }
-            visit(s.getFromList().get(i));
-        }
-        for (MySQLExpression j : s.getJoinList()) {
-            visit(j);
-        }
+        });
 
         if (s.getWhereClause() != null) {
             MySQLExpression whereClause = s.getWhereClause();
             sb.append(" WHERE ");
-            visit(whereClause);
+            visitClause(whereClause);
         }
         if (s.getGroupByExpressions() != null && s.getGroupByExpressions().size() > 0) {
             sb.append(" ");
             sb.append("GROUP BY ");
-            List<MySQLExpression> groupBys = s.getGroupByExpressions();
-            for (int i = 0; i < groupBys.size(); i++) {
-                if (i != 0) {
-                    sb.append(", ");
-                }
-                visit(groupBys.get(i));
-            }
+            visitClause("GROUP BY", s.getGroupByExpressions());
         }
         if (!s.getOrderByClauses().isEmpty()) {
             sb.append(" ORDER BY ");
-            List<MySQLExpression> orderBys = s.getOrderByClauses();
-            for (int i = 0; i < orderBys.size(); i++) {
-                if (i != 0) {
-                    sb.append(", ");
-                }
-                visit(s.getOrderByClauses().get(i));
-            }
+            visitClause("ORDER BY", s.getOrderByClauses());
         }
         if (s.getLimitClause() != null) {
             sb.append(" LIMIT ");
@@ -9,6 +9,7 @@ import sqlancer.Randomly;
 import sqlancer.common.oracle.TestOracle;
 import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.common.visitor.FragmentCache;
 import sqlancer.mysql.MySQLErrors;
 import sqlancer.mysql.MySQLGlobalState;
 import sqlancer.mysql.MySQLSchema.MySQLTables;
@@ -66,19 +67,23 @@ public class MySQLDQPOracle implements TestOracle<MySQLGlobalState> {
                 .collect(Collectors.toList());
         select.setFromList(tableList);
 
-        // Get the result of the first query
-        String originalQueryString = MySQLVisitor.asString(select);
-        List<String> originalResult = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors,
-                state);
+        String originalQueryString;
+        List<String> originalResult;
+        // the queries differ only in their hint
+        try (FragmentCache cache = FragmentCache.open()) {
+            // Get the result of the first query
+            originalQueryString = MySQLVisitor.asString(select);
+            originalResult = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
 
-        // Check hints
-        List<MySQLText> hintList = MySQLHintGenerator.generateAllHints(select, tables.getTables());
-        for (MySQLText hint : hintList) {
-            select.setHint(hint);
-            String queryString = MySQLVisitor.asString(select);
-            List<String> result = ComparatorHelper.getResultSetFirstColumnAsString(queryString, errors, state);
-            ComparatorHelper.assumeResultSetsAreEqual(originalResult, result, originalQueryString, List.of(queryString),
-                    state);
+            // Check hints
+            List<MySQLText> hintList = MySQLHintGenerator.generateAllHints(select, tables.getTables());
+            for (MySQLText hint : hintList) {
+                select.setHint(hint);
+                String queryString = MySQLVisitor.asString(select);
+                List<String> result = ComparatorHelper.getResultSetFirstColumnAsString(queryString, errors, state);
+                ComparatorHelper.assumeResultSetsAreEqual(originalResult, result, originalQueryString,
+                        List.of(queryString), state);
+            }
         }
 
         // Check optimizer variables
@@ -9,17 +9,26 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import sqlancer.Randomly;
 import sqlancer.SQLConnection;
 import sqlancer.SQLGlobalState;
+import sqlancer.common.schema.PivotRowSampler;
+import sqlancer.postgres.PostgresSchema.PostgresColumn;
+import sqlancer.postgres.ast.PostgresConstant;
 
 public class PostgresGlobalState extends SQLGlobalState<PostgresOptions, PostgresSchema> {
 
+    private final PivotRowSampler<PostgresColumn, PostgresConstant> pivotRowSampler = new PivotRowSampler<>();
+
     public static final char IMMUTABLE = 'i';
     public static final char STABLE = 's';
     public static final char VOLATILE = 'v';
 
+    private static final Map<String, List<List<String>>> CATALOGS = new ConcurrentHashMap<>();
+
     private List<String> operators = Collections.emptyList();
     private List<String> collates = Collections.emptyList();
     private List<String> opClasses = Collections.emptyList();
@@ -41,56 +50,67 @@ public class PostgresGlobalState extends SQLGlobalState<PostgresOptions, Postgre
         }
     }
 
-    private List<String> getCollnames(SQLConnection con) throws SQLException {
-        List<String> collNames = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s
-                    .executeQuery("SELECT collname FROM pg_collation WHERE collname LIKE '%utf8' or collname = 'C';")) {
-                while (rs.next()) {
-                    collNames.add(rs.getString(1));
-                }
-            }
-        }
-        return collNames;
+    private static List<String> getCollnames(SQLConnection con) throws SQLException {
+        return readCatalogColumn(con,
+                "SELECT collname FROM pg_collation WHERE collname LIKE '%utf8' or collname = 'C';");
     }
 
-    private List<String> getOpclasses(SQLConnection con) throws SQLException {
-        List<String> opClasses = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s.executeQuery("select opcname FROM pg_opclass;")) {
-                while (rs.next()) {
-                    opClasses.add(rs.getString(1));
-                }
-            }
-        }
-        return opClasses;
+    private static List<String> getOpclasses(SQLConnection con) throws SQLException {
+        return readCatalogColumn(con, "select opcname FROM pg_opclass;");
     }
 
-    private List<String> getOperators(SQLConnection con) throws SQLException {
-        List<String> operators = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s.executeQuery("SELECT oprname FROM pg_operator;")) {
-                while (rs.next()) {
-                    operators.add(rs.getString(1));
-                }
-            }
-        }
-        return operators;
+    private static List<String> getOperators(SQLConnection con) throws SQLException {
+        return readCatalogColumn(con, "SELECT oprname FROM pg_operator;");
+    }
+
+    private static List<String> getTableAccessMethods(SQLConnection con) throws SQLException {
+        /*
+         * pg_am includes both index and table access methods so we need to filter with amtype = 't'
+         */
+        return readCatalogColumn(con, "SELECT amname FROM pg_am WHERE amtype = 't';");
+    }
+
+    private static List<String> readCatalogColumn(SQLConnection con, String query) throws SQLException {
+        return readCatalog(con, query).stream().map(row -> row.get(0)).collect(Collectors.toList());
     }
 
-    private List<String> getTableAccessMethods(SQLConnection con) throws SQLException {
-        List<String> tableAccessMethods = new ArrayList<>();
+    /**
+     * Reads the result of a query on the system catalogs, which is cached per server version, since the catalogs of
+     * newly created databases only depend on the server and the template database. The query is thus executed only for
+     * the first database that is created.
+     *
+     * @param con
+     *            the connection to the database
+     * @param query
+     *            the query
+     *
+     * @return the rows of the result, each consisting of the values of its columns as strings
+     *
+     * @throws SQLException
+     *             if the query fails
+     */
+    public static List<List<String>> readCatalog(SQLConnection con, String query) throws SQLException {
+        String key = con.getDatabaseVersion() + "\n" + query;
+        List<List<String>> rows = CATALOGS.get(key);
+        if (rows != null) {
+            return rows;
+        }
+        rows = new ArrayList<>();
         try (Statement s = con.createStatement()) {
-            /*
-             * pg_am includes both index and table access methods so we need to filter with amtype = 't'
-             */
-            try (ResultSet rs = s.executeQuery("SELECT amname FROM pg_am WHERE amtype = 't';")) {
+            try (ResultSet rs = s.executeQuery(query)) {
+                int nrColumns = rs.getMetaData().getColumnCount();
                 while (rs.next()) {
-                    tableAccessMethods.add(rs.getString(1));
+                    List<String> row = new ArrayList<>();
+                    for (int i = 1; i <= nrColumns; i++) {
+                        row.add(rs.getString(i));
+                    }
+                    rows.add(Collections.unmodifiableList(row));
                 }
             }
         }
-        return tableAccessMethods;
+        rows = Collections.unmodifiableList(rows);
+        CATALOGS.putIfAbsent(key, rows);
+        return rows;
     }
 
     public List<String> getOperators() {
@@ -130,6 +150,11 @@ public class PostgresGlobalState extends SQLGlobalState<PostgresOptions, Postgre
         return PostgresSchema.fromConnection(getConnection(), getDatabaseName());
     }
 
+    @Override
+    protected boolean supportsBatchedStatements() {
+        return true;
+    }
+
     public void addFunctionAndType(String functionName, Character functionType) {
         this.functionsAndTypes.put(functionName, functionType);
     }
@@ -150,4 +175,8 @@ public class PostgresGlobalState extends SQLGlobalState<PostgresOptions, Postgre
         return this.allowedFunctionTypes;
     }
 
+    public PivotRowSampler<PostgresColumn, PostgresConstant> getPivotRowSampler() {
+        return pivotRowSampler;
+    }
+
 }
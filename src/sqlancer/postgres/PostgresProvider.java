@@ -7,10 +7,14 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Arrays;
+import java.util.List;
 
 import com.google.auto.service.AutoService;
 
 import sqlancer.AbstractAction;
+import sqlancer.DatabasePool;
+import sqlancer.DatabasePool.DatabaseCreator;
+import sqlancer.DatabasePool.PooledDatabase;
 import sqlancer.DatabaseProvider;
 import sqlancer.IgnoreMeException;
 import sqlancer.MainOptions;
@@ -21,7 +25,6 @@ import sqlancer.StatementExecutor;
 import sqlancer.common.DBMSCommon;
 import sqlancer.common.query.SQLQueryAdapter;
 import sqlancer.common.query.SQLQueryProvider;
-import sqlancer.common.query.SQLancerResultSet;
 import sqlancer.postgres.PostgresOptions.PostgresOracleFactory;
 import sqlancer.postgres.gen.PostgresAlterTableGenerator;
 import sqlancer.postgres.gen.PostgresAnalyzeGenerator;
@@ -265,10 +268,14 @@ public class PostgresProvider extends SQLProviderAdapter<PostgresGlobalState, Po
         } catch (URISyntaxException e) {
             throw new AssertionError(e);
         }
+        int poolSize = globalState.getOptions().getDatabasePoolSize();
+        if (poolSize > 0 && usesDatabasePool()) {
+            return createPooledDatabase(globalState, entryDatabaseName, poolSize);
+        }
         Connection con = DriverManager.getConnection("jdbc:" + entryURL, username, password);
         globalState.getState().logStatement(String.format("\\c %s;", entryDatabaseName));
         globalState.getState().logStatement("DROP DATABASE IF EXISTS " + databaseName);
-        createDatabaseCommand = getCreateDatabaseCommand(globalState);
+        createDatabaseCommand = "CREATE DATABASE " + databaseName + " " + getCreateDatabaseOptions(globalState);
         globalState.getState().logStatement(createDatabaseCommand);
         try (Statement s = con.createStatement()) {
             s.execute("DROP DATABASE IF EXISTS " + databaseName);
@@ -277,23 +284,87 @@ public class PostgresProvider extends SQLProviderAdapter<PostgresGlobalState, Po
             s.execute(createDatabaseCommand);
         }
         con.close();
+        testURL = getTestURL(entryURL, entryDatabaseName, databaseName);
+        globalState.getState().logStatement(String.format("\\c %s;", databaseName));
+
+        return connect("jdbc:" + testURL, username, password);
+    }
+
+    @Override
+    public void dropDatabase(PostgresGlobalState globalState) throws SQLException {
+        // the entry URL and the credentials were determined when the database was created
+        try (Connection con = DriverManager.getConnection("jdbc:" + entryURL, username, password);
+                Statement s = con.createStatement()) {
+            s.execute("DROP DATABASE IF EXISTS " + globalState.getDatabaseName());
+        }
+    }
+
+    private static SQLConnection connect(String url, String user, String pass) throws SQLException {
+        // the side connection connects to the same database
+        return new SQLConnection(DriverManager.getConnection(url, user, pass),
+                () -> DriverManager.getConnection(url, user, pass));
+    }
+
+    private SQLConnection createPooledDatabase(PostgresGlobalState globalState, String entryDatabaseName, int poolSize)
+            throws SQLException {
+        String url = entryURL;
+        String user = username;
+        String pass = password;
+        String databasePrefix = globalState.getOptions().getDatabasePrefix();
+        DatabasePool pool = DatabasePool.get(getDBMSName() + "/" + databasePrefix, databasePrefix, poolSize,
+                new DatabaseCreator() {
+
+                    @Override
+                    public SQLConnection create(String name, String createOptions) throws SQLException {
+                        try (Connection con = DriverManager.getConnection("jdbc:" + url, user, pass);
+                                Statement s = con.createStatement()) {
+                            s.execute("DROP DATABASE IF EXISTS " + name);
+                            s.execute("CREATE DATABASE " + name + " " + createOptions);
+                        }
+                        return connect("jdbc:" + getTestURL(url, entryDatabaseName, name), user, pass);
+                    }
+
+                    @Override
+                    public void drop(String name) throws SQLException {
+                        try (Connection con = DriverManager.getConnection("jdbc:" + url, user, pass);
+                                Statement s = con.createStatement()) {
+                            s.execute("DROP DATABASE IF EXISTS " + name);
+                        }
+                    }
+
+                });
+        PooledDatabase database = pool.acquire(() -> getCreateDatabaseOptions(globalState));
+        databaseName = database.getName();
+        globalState.setDatabaseName(databaseName);
+        createDatabaseCommand = "CREATE DATABASE " + databaseName + " " + database.getCreateOptions();
+        testURL = getTestURL(entryURL, entryDatabaseName, databaseName);
+        globalState.getState().logStatement(String.format("\\c %s;", entryDatabaseName));
+        globalState.getState().logStatement("DROP DATABASE IF EXISTS " + databaseName);
+        globalState.getState().logStatement(createDatabaseCommand);
+        globalState.getState().logStatement(String.format("\\c %s;", databaseName));
+        return database.getConnection();
+    }
+
+    private static String getTestURL(String entryURL, String entryDatabaseName, String databaseName) {
         int databaseIndex = entryURL.indexOf(entryDatabaseName);
         String preDatabaseName = entryURL.substring(0, databaseIndex);
         String postDatabaseName = entryURL.substring(databaseIndex + entryDatabaseName.length());
-        testURL = preDatabaseName + databaseName + postDatabaseName;
-        globalState.getState().logStatement(String.format("\\c %s;", databaseName));
+        return preDatabaseName + databaseName + postDatabaseName;
+    }
 
-        con = DriverManager.getConnection("jdbc:" + testURL, username, password);
-        return new SQLConnection(con);
+    /**
+     * Returns whether the databases can be created in advance by a {@link DatabasePool}.
+     *
+     * @return whether {@link MainOptions#getDatabasePoolSize()} is respected
+     */
+    protected boolean usesDatabasePool() {
+        return true;
     }
 
     protected void readFunctions(PostgresGlobalState globalState) throws SQLException {
-        SQLQueryAdapter query = new SQLQueryAdapter("SELECT proname, provolatile FROM pg_proc;");
-        SQLancerResultSet rs = query.executeAndGet(globalState);
-        while (rs.next()) {
-            String functionName = rs.getString(1);
-            Character functionType = rs.getString(2).charAt(0);
-            globalState.addFunctionAndType(functionName, functionType);
+        for (List<String> function : PostgresGlobalState.readCatalog(globalState.getConnection(),
+                "SELECT proname, provolatile FROM pg_proc;")) {
+            globalState.addFunctionAndType(function.get(0), function.get(1).charAt(0));
         }
     }
 
@@ -322,9 +393,8 @@ public class PostgresProvider extends SQLProviderAdapter<PostgresGlobalState, Po
         globalState.executeStatement(new SQLQueryAdapter("SET SESSION statement_timeout = 5000;\n"));
     }
 
-    private String getCreateDatabaseCommand(PostgresGlobalState state) {
+    private static String getCreateDatabaseOptions(PostgresGlobalState state) {
         StringBuilder sb = new StringBuilder();
-        sb.append("CREATE DATABASE " + databaseName + " ");
         if (((PostgresOptions) state.getDbmsSpecificOptions()).testCollations) {
             if (Randomly.getBoolean()) {
                 if (Randomly.getBoolean()) {
@@ -9,8 +9,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
-import org.postgresql.util.PSQLException;
+import java.util.stream.Collectors;
 
 import sqlancer.IgnoreMeException;
 import sqlancer.Randomly;
@@ -66,48 +65,39 @@ public class PostgresSchema extends AbstractSchema<PostgresGlobalState, Postgres
             super(tables);
         }
 
-        public PostgresRowValue getRandomRowValue(SQLConnection con) throws SQLException {
-            String randomRow = String.format("SELECT %s FROM %s ORDER BY RANDOM() LIMIT 1", columnNamesAsString(
-                    c -> c.getTable().getName() + "." + c.getName() + " AS " + c.getTable().getName() + c.getName()),
-                    // columnNamesAsString(c -> "typeof(" + c.getTable().getName() + "." +
-                    // c.getName() + ")")
-                    tableNamesAsString());
+        public PostgresRowValue getRandomRowValue(PostgresGlobalState globalState) {
             Map<PostgresColumn, PostgresConstant> values = new HashMap<>();
-            try (Statement s = con.createStatement()) {
-                ResultSet randomRowValues = s.executeQuery(randomRow);
-                if (!randomRowValues.next()) {
-                    throw new AssertionError("could not find random row! " + randomRow + "\n");
-                }
-                for (int i = 0; i < getColumns().size(); i++) {
-                    PostgresColumn column = getColumns().get(i);
-                    int columnIndex = randomRowValues.findColumn(column.getTable().getName() + column.getName());
-                    assert columnIndex == i + 1;
-                    PostgresConstant constant;
-                    if (randomRowValues.getString(columnIndex) == null) {
-                        constant = PostgresConstant.createNullConstant();
-                    } else {
-                        switch (column.getType()) {
-                        case INT:
-                            constant = PostgresConstant.createIntConstant(randomRowValues.getLong(columnIndex));
-                            break;
-                        case BOOLEAN:
-                            constant = PostgresConstant.createBooleanConstant(randomRowValues.getBoolean(columnIndex));
-                            break;
-                        case TEXT:
-                            constant = PostgresConstant.createTextConstant(randomRowValues.getString(columnIndex));
-                            break;
-                        default:
-                            throw new IgnoreMeException();
-                        }
+            for (PostgresTable table : getTables()) {
+                List<PostgresColumn> columns = table.getColumns();
+                String query = String.format("SELECT %s FROM %s", columns.stream()
+                        .map(c -> table.getName() + "." + c.getName()).collect(Collectors.joining(", ")),
+                        table.getName());
+                values.putAll(globalState.getPivotRowSampler().getRandomRow(globalState, table, query, rs -> {
+                    List<PostgresConstant> row = new ArrayList<>();
+                    for (int i = 0; i < columns.size(); i++) {
+                        row.add(getConstant(rs, i + 1, columns.get(i)));
                     }
-                    values.put(column, constant);
-                }
-                assert !randomRowValues.next();
-                return new PostgresRowValue(this, values);
-            } catch (PSQLException e) {
-                throw new IgnoreMeException();
+                    return row;
+                }));
             }
+            return new PostgresRowValue(this, values);
+        }
 
+        private static PostgresConstant getConstant(ResultSet rs, int columnIndex, PostgresColumn column)
+                throws SQLException {
+            if (rs.getString(columnIndex) == null) {
+                return PostgresConstant.createNullConstant();
+            }
+            switch (column.getType()) {
+            case INT:
+                return PostgresConstant.createIntConstant(rs.getLong(columnIndex));
+            case BOOLEAN:
+                return PostgresConstant.createBooleanConstant(rs.getBoolean(columnIndex));
+            case TEXT:
+                return PostgresConstant.createTextConstant(rs.getString(columnIndex));
+            default:
+                throw new IgnoreMeException();
+            }
         }
 
     }
@@ -120,59 +120,61 @@ public final class PostgresToStringVisitor extends ToStringVisitor<PostgresExpre
         if (s.getFetchColumns() == null) {
             sb.append("*");
         } else {
-            visit(s.getFetchColumns());
+            visitClause("SELECT", s.getFetchColumns());
         }
         sb.append(" FROM ");
-        visit(s.getFromList());
-
-        for (PostgresJoin j : s.getJoinClauses()) {
-            sb.append(" ");
-            switch (j.getType()) {
-            case INNER:
-                if (Randomly.getBoolean()) {
-                    sb.append("INNER ");
+        visitClause("FROM", s.getFromList());
+
+        visitClause("JOIN", s.getJoinClauses(), () -> {
+            for (PostgresJoin j : s.getJoinClauses()) {
+                sb.append(" ");
+                switch (j.getType()) {
+                case INNER:
+                    if (Randomly.getBoolean()) {
+                        sb.append("INNER ");
+                    }
+                    sb.append("JOIN");
+                    break;
+                case LEFT:
+                    sb.append("LEFT OUTER JOIN");
+                    break;
+                case RIGHT:
+                    sb.append("RIGHT OUTER JOIN");
+                    break;
+                case FULL:
+                    sb.append("FULL OUTER JOIN");
+                    break;
+                case CROSS:
+                    sb.append("CROSS JOIN");
+                    break;
+                default:
+                    throw new AssertionError(j.getType());
+                }
+                sb.append(" ");
+                visit(j.getTableReference());
+                if (j.getType() != PostgresJoinType.CROSS) {
+                    sb.append(" ON ");
+                    visit(j.getOnClause());
                 }
-                sb.append("JOIN");
-                break;
-            case LEFT:
-                sb.append("LEFT OUTER JOIN");
-                break;
-            case RIGHT:
-                sb.append("RIGHT OUTER JOIN");
-                break;
-            case FULL:
-                sb.append("FULL OUTER JOIN");
-                break;
-            case CROSS:
-                sb.append("CROSS JOIN");
-                break;
-            default:
-                throw new AssertionError(j.getType());
-            }
-            sb.append(" ");
-            visit(j.getTableReference());
-            if (j.getType() != PostgresJoinType.CROSS) {
-                sb.append(" ON ");
-                visit(j.getOnClause());
             }
-        }
+        });
 
         if (s.getWhereClause() != null) {
             sb.append(" WHERE ");
-            visit(s.getWhereClause());
+            visitClause(s.getWhereClause());
         }
         if (s.getGroupByExpressions().size() > 0) {
             sb.append(" GROUP BY ");
-            visit(s.getGroupByExpressions());
+            visitClause("GROUP BY", s.getGroupByExpressions());
         }
         if (s.getHavingClause() != null) {
             sb.append(" HAVING ");
-            visit(s.getHavingClause());
+            visitClause(s.getHavingClause());
 
         }
         if (!s.getOrderByClauses().isEmpty()) {
             sb.append(" ORDER BY ");
-            visit(s.getOrderByClauses());
+            visitClause("ORDER BY", s.getOrderByClauses());
         }
         if (s.getLimitClause() != null) {
             sb.append(" LIMIT ");
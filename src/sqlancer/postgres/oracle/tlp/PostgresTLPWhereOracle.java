@@ -6,7 +6,9 @@ import java.util.Collections;
 import java.util.List;
 
 import sqlancer.ComparatorHelper;
+import sqlancer.ConcurrentQuery;
 import sqlancer.Randomly;
+import sqlancer.ResultSetFingerprint;
 import sqlancer.postgres.PostgresGlobalState;
 import sqlancer.postgres.PostgresVisitor;
 
@@ -27,7 +29,8 @@ public class PostgresTLPWhereOracle extends PostgresTLPBase {
             select.setOrderByClauses(gen.generateOrderBy());
         }
         String originalQueryString = PostgresVisitor.asString(select);
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
+        ConcurrentQuery<ResultSetFingerprint> resultSet = ComparatorHelper
+                .submitResultSetFirstColumnFingerprint(originalQueryString, errors, state);
 
         select.setOrderByClauses(Collections.emptyList());
         select.setWhereClause(predicate);
@@ -37,9 +40,9 @@ public class PostgresTLPWhereOracle extends PostgresTLPBase {
         select.setWhereClause(isNullPredicate);
         String thirdQueryString = PostgresVisitor.asString(select);
         List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, Randomly.getBoolean(), state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
+        ResultSetFingerprint secondResultSet = ComparatorHelper.getCombinedResultSetFingerprint(firstQueryString,
+                secondQueryString, thirdQueryString, combinedString, Randomly.getBoolean(), state, errors);
+        ComparatorHelper.assumeResultSetFingerprintsAreEqual(resultSet.get(), secondResultSet, originalQueryString,
+                combinedString, state, errors);
     }
 }
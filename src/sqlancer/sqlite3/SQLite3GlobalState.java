@@ -3,13 +3,38 @@ package sqlancer.sqlite3;
 import java.sql.SQLException;
 
 import sqlancer.SQLGlobalState;
+import sqlancer.common.schema.PivotRowSampler;
+import sqlancer.sqlite3.ast.SQLite3Constant;
 import sqlancer.sqlite3.schema.SQLite3Schema;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Column;
 
 public class SQLite3GlobalState extends SQLGlobalState<SQLite3Options, SQLite3Schema> {
 
+    private final PivotRowSampler<SQLite3Column, SQLite3Constant> pivotRowSampler = new PivotRowSampler<>();
+
     @Override
     protected SQLite3Schema readSchema() throws SQLException {
-        return SQLite3Schema.fromConnection(this);
+        return SQLite3Schema.fromConnection(this, getCachedSchema());
+    }
+
+    @Override
+    protected boolean failedStatementsCanAffectSchema() {
+        // DDL statements are transactional in SQLite
+        return false;
+    }
+
+    @Override
+    protected boolean canTrackRowCounts() {
+        return true;
+    }
+
+    @Override
+    protected boolean supportsBatchedStatements() {
+        return true;
+    }
+
+    public PivotRowSampler<SQLite3Column, SQLite3Constant> getPivotRowSampler() {
+        return pivotRowSampler;
     }
 
 }
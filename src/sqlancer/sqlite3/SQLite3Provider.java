@@ -3,10 +3,16 @@ package sqlancer.sqlite3;
 import java.io.File;
 import java.io.IOException;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import com.google.auto.service.AutoService;
@@ -17,9 +23,11 @@ import sqlancer.IgnoreMeException;
 import sqlancer.Randomly;
 import sqlancer.SQLConnection;
 import sqlancer.SQLProviderAdapter;
+import sqlancer.SnapshotSupport;
 import sqlancer.StatementExecutor;
 import sqlancer.common.DBMSCommon;
 import sqlancer.common.query.ExpectedErrors;
+import sqlancer.common.query.Query;
 import sqlancer.common.query.SQLQueryAdapter;
 import sqlancer.common.query.SQLQueryProvider;
 import sqlancer.common.query.SQLancerResultSet;
@@ -47,7 +55,8 @@ import sqlancer.sqlite3.gen.dml.SQLite3UpdateGenerator;
 import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Table;
 
 @AutoService(DatabaseProvider.class)
-public class SQLite3Provider extends SQLProviderAdapter<SQLite3GlobalState, SQLite3Options> {
+public class SQLite3Provider extends SQLProviderAdapter<SQLite3GlobalState, SQLite3Options>
+        implements SnapshotSupport<SQLite3GlobalState, SQLConnection> {
 
     public static boolean allowFloatingPointFp = true;
     public static boolean mustKnowResult;
@@ -56,6 +65,18 @@ public class SQLite3Provider extends SQLProviderAdapter<SQLite3GlobalState, SQLi
     private static final List<String> DEFAULT_PRAGMAS = Arrays.asList("PRAGMA cache_size = 50000;",
             "PRAGMA temp_store=MEMORY;", "PRAGMA synchronous=off;");
 
+    private static final Pattern PRAGMA_NAME = Pattern.compile("\\s*PRAGMA\\s+(?:\\w+\\s*\\.\\s*)?(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+
+    // the PRAGMAs whose settings belong to the connection and are thus not included in a snapshot, unlike, for
+    // example, user_version, auto_vacuum, encoding, or journal_mode=WAL, which are stored in the database file
+    private static final Set<String> CONNECTION_PRAGMAS = Set.of("automatic_index", "busy_timeout", "cache_size",
+            "cache_spill", "case_sensitive_like", "cell_size_check", "checkpoint_fullsync", "count_changes",
+            "defer_foreign_keys", "foreign_keys", "full_column_names", "ignore_check_constraints", "journal_size_limit",
+            "legacy_alter_table", "locking_mode", "mmap_size", "query_only", "read_uncommitted", "recursive_triggers",
+            "reverse_unordered_selects", "secure_delete", "short_column_names", "soft_heap_limit", "synchronous",
+            "temp_store", "threads", "trusted_schema", "wal_autocheckpoint");
+
     public SQLite3Provider() {
         super(SQLite3GlobalState.class, SQLite3Options.class);
     }
@@ -286,11 +307,10 @@ public class SQLite3Provider extends SQLProviderAdapter<SQLite3GlobalState, SQLi
 
     @Override
     public SQLConnection createDatabase(SQLite3GlobalState globalState) throws SQLException {
-        File dir = new File("." + File.separator + "databases");
-        if (!dir.exists()) {
-            dir.mkdir();
+        if (globalState.getOptions().isInMemory()) {
+            return new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"));
         }
-        File dataBase = new File(dir, globalState.getDatabaseName() + ".db");
+        File dataBase = getDatabaseFile(globalState.getDatabaseName() + ".db");
         if (dataBase.exists() && ((SQLite3GlobalState) globalState).getDbmsSpecificOptions().deleteIfExists) {
             dataBase.delete();
         }
@@ -298,11 +318,65 @@ public class SQLite3Provider extends SQLProviderAdapter<SQLite3GlobalState, SQLi
         return new SQLConnection(DriverManager.getConnection(url));
     }
 
+    @Override
+    public void dropDatabase(SQLite3GlobalState globalState) {
+        if (!globalState.getOptions().isInMemory()) {
+            getDatabaseFile(globalState.getDatabaseName() + ".db").delete();
+        }
+    }
+
+    @Override
+    protected void saveDatabase(SQLite3GlobalState globalState, String name) throws SQLException {
+        File dataBase = getDatabaseFile(name + ".db");
+        if (dataBase.exists()) {
+            dataBase.delete();
+        }
+        // fails if a transaction is open; unlike a backup, which would silently result in an empty database
+        try (Statement s = globalState.getConnection().createStatement()) {
+            s.execute("VACUUM INTO '" + dataBase.getAbsolutePath() + "'");
+        }
+    }
+
     @Override
     public String getDBMSName() {
         return "sqlite3";
     }
 
+    @Override
+    public boolean canCreateSnapshot(SQLite3GlobalState globalState) {
+        try (Statement s = globalState.getConnection().createStatement()) {
+            // BEGIN fails if a transaction is open, whose changes would not be included in the backup
+            s.execute("BEGIN");
+            s.execute("ROLLBACK");
+            // the backup only includes the main database
+            try (ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM temp.sqlite_master")) {
+                return rs.next() && rs.getInt(1) == 0;
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void createSnapshot(SQLite3GlobalState globalState, File snapshot) throws SQLException {
+        try (Statement s = globalState.getConnection().createStatement()) {
+            s.execute("backup to '" + snapshot.getAbsolutePath() + "'");
+        }
+    }
+
+    @Override
+    public void restoreSnapshot(SQLite3GlobalState globalState, File snapshot) throws SQLException {
+        try (Statement s = globalState.getConnection().createStatement()) {
+            s.execute("restore from '" + snapshot.getAbsolutePath() + "'");
+        }
+    }
+
+    @Override
+    public boolean isConnectionSetting(Query<SQLConnection> query) {
+        Matcher matcher = PRAGMA_NAME.matcher(query.getQueryString());
+        return matcher.lookingAt() && CONNECTION_PRAGMAS.contains(matcher.group(1).toLowerCase(Locale.ROOT));
+    }
+
     @Override
     public String getQueryPlan(String selectStr, SQLite3GlobalState globalState) throws Exception {
         String queryPlan = "";
@@ -3,6 +3,7 @@ package sqlancer.sqlite3;
 import java.util.Arrays;
 
 import sqlancer.Randomly;
+import sqlancer.common.visitor.FragmentCache;
 import sqlancer.common.visitor.ToStringVisitor;
 import sqlancer.sqlite3.ast.SQLite3Aggregate;
 import sqlancer.sqlite3.ast.SQLite3Aggregate.SQLite3AggregateFunction;
@@ -40,6 +41,12 @@ public class SQLite3ToStringVisitor extends ToStringVisitor<SQLite3Expression> i
 
     public boolean fullyQualifiedNames = true;
 
+    @Override
+    protected FragmentCache getFragmentCache() {
+        // the cached fragments contain fully-qualified names
+        return fullyQualifiedNames ? super.getFragmentCache() : null;
+    }
+
     @Override
     public void visitSpecific(SQLite3Expression expr) {
         SQLite3Visitor.super.visit(expr);
@@ -113,44 +120,48 @@ public class SQLite3ToStringVisitor extends ToStringVisitor<SQLite3Expression> i
         if (s.getFetchColumns() == null) {
             sb.append("*");
         } else {
-            visit(s.getFetchColumns());
+            visitClause("SELECT", s.getFetchColumns());
         }
         sb.append(" FROM ");
-        for (int i = 0; i < s.getFromList().size(); i++) {
-            if (i != 0) {
-                sb.append(", ");
+        visitClause("FROM", s.getFromList(), () -> {
+            for (int i = 0; i < s.getFromList().size(); i++) {
+                if (i != 0) {
+                    sb.append(", ");
+                }
+                if (s.getFromList().get(i) instanceof SQLite3Select) {
+                    sb.append("(");
+                    // TODO: fix this workaround
+                    visit(s.getFromList().get(i));
+                    sb.append(")");
+                } else {
+                    visit(s.getFromList().get(i));
+                }
             }
-            if (s.getFromList().get(i) instanceof SQLite3Select) {
-                sb.append("(");
-                // TODO: fix this workaround
-                visit(s.getFromList().get(i));
-                sb.append(")");
-            } else {
-                visit(s.getFromList().get(i));
+        });
+        visitClause("JOIN", s.getJoinClauses(), () -> {
+            for (Join j : s.getJoinClauses()) {
+                visit(j);
             }
-        }
-        for (Join j : s.getJoinClauses()) {
-            visit(j);
-        }
+        });
 
         if (s.getWhereClause() != null) {
             SQLite3Expression whereClause = s.getWhereClause();
             sb.append(" WHERE (");
-            visit(whereClause);
+            visitClause(whereClause);
             sb.append(")");
         }
         if (s.getGroupByClause().size() > 0) {
             sb.append(" ");
             sb.append("GROUP BY ");
-            visit(s.getGroupByClause());
+            visitClause("GROUP BY", s.getGroupByClause());
         }
         if (s.getHavingClause() != null) {
             sb.append(" HAVING ");
-            visit(s.getHavingClause());
+            visitClause(s.getHavingClause());
         }
         if (!s.getOrderByClauses().isEmpty()) {
             sb.append(" ORDER BY ");
-            visit(s.getOrderByClauses());
+            visitClause("ORDER BY", s.getOrderByClauses());
         }
         if (s.getLimitClause() != null) {
             sb.append(" LIMIT ");
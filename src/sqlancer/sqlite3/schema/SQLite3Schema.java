@@ -34,6 +34,9 @@ public class SQLite3Schema extends AbstractSchema<SQLite3GlobalState, SQLite3Tab
     public static final List<String> ROWID_STRINGS = Collections
             .unmodifiableList(Arrays.asList("rowid", "_rowid_", "oid"));
     private final List<String> indexNames;
+    // the category and CREATE statement from which each table was read, keyed by the schema (main or temp) and the
+    // name of the table, to detect which tables have changed
+    private final Map<String, String> tableDefinitions;
 
     public List<String> getIndexNames() {
         return indexNames;
@@ -155,36 +158,26 @@ public class SQLite3Schema extends AbstractSchema<SQLite3GlobalState, SQLite3Tab
             super(tables);
         }
 
-        public SQLite3RowValue getRandomRowValue(SQLConnection con) throws SQLException {
-            String randomRow = String.format("SELECT %s, %s FROM %s ORDER BY RANDOM() LIMIT 1", columnNamesAsString(
-                    c -> c.getTable().getName() + "." + c.getName() + " AS " + c.getTable().getName() + c.getName()),
-                    columnNamesAsString(c -> "typeof(" + c.getTable().getName() + "." + c.getName() + ")"),
-                    tableNamesAsString());
+        public SQLite3RowValue getRandomRowValue(SQLite3GlobalState globalState) {
             Map<SQLite3Column, SQLite3Constant> values = new HashMap<>();
-            try (Statement s = con.createStatement()) {
-                ResultSet randomRowValues;
-                try {
-                    randomRowValues = s.executeQuery(randomRow);
-                } catch (SQLException e) {
-                    throw new IgnoreMeException();
-                }
-                if (!randomRowValues.next()) {
-                    throw new IgnoreMeException();
-                    // throw new AssertionError("could not find random row! " + randomRow);
-                }
-                for (int i = 0; i < getColumns().size(); i++) {
-                    SQLite3Column column = getColumns().get(i);
-                    int columnIndex = randomRowValues.findColumn(column.getTable().getName() + column.getName());
-                    assert columnIndex == i + 1;
-                    String typeString = randomRowValues.getString(columnIndex + getColumns().size());
-                    SQLite3DataType valueType = getColumnType(typeString);
-                    SQLite3Constant constant = getConstant(randomRowValues, columnIndex, valueType);
-                    values.put(column, constant);
-                }
-                assert !randomRowValues.next();
-                return new SQLite3RowValue(this, values);
+            for (SQLite3Table table : getTables()) {
+                List<SQLite3Column> columns = table.getColumns();
+                String query = String.format("SELECT %s, %s FROM %s",
+                        columns.stream().map(c -> table.getName() + "." + c.getName())
+                                .collect(Collectors.joining(", ")),
+                        columns.stream().map(c -> "typeof(" + table.getName() + "." + c.getName() + ")")
+                                .collect(Collectors.joining(", ")),
+                        table.getName());
+                values.putAll(globalState.getPivotRowSampler().getRandomRow(globalState, table, query, rs -> {
+                    List<SQLite3Constant> row = new ArrayList<>();
+                    for (int i = 0; i < columns.size(); i++) {
+                        SQLite3DataType valueType = getColumnType(rs.getString(i + 1 + columns.size()));
+                        row.add(getConstant(rs, i + 1, valueType));
+                    }
+                    return row;
+                }));
             }
-
+            return new SQLite3RowValue(this, values);
         }
 
     }
@@ -254,8 +247,14 @@ public class SQLite3Schema extends AbstractSchema<SQLite3GlobalState, SQLite3Tab
     }
 
     public SQLite3Schema(List<SQLite3Table> databaseTables, List<String> indexNames) {
+        this(databaseTables, indexNames, Collections.emptyMap());
+    }
+
+    private SQLite3Schema(List<SQLite3Table> databaseTables, List<String> indexNames,
+            Map<String, String> tableDefinitions) {
         super(databaseTables);
         this.indexNames = indexNames;
+        this.tableDefinitions = tableDefinitions;
     }
 
     @Override
@@ -268,9 +267,67 @@ public class SQLite3Schema extends AbstractSchema<SQLite3GlobalState, SQLite3Tab
         return sb.toString();
     }
 
+    // a temporary table can have the same name as a table of the main database
+    private static String getTableKey(boolean isTemp, String tableName) {
+        return (isTemp ? "temp." : "main.") + tableName;
+    }
+
+    // copies a reused table, so that the schemas that still refer to it are not changed when the copy gets a new alias
+    // of
+    // the rowid
+    private static SQLite3Table copyWithoutRowid(SQLite3Table t) {
+        List<SQLite3Column> columns = new ArrayList<>();
+        for (SQLite3Column c : t.getColumns()) {
+            SQLite3Column copy = new SQLite3Column(c.getName(), c.getType(), c.isInteger, c.isPrimaryKey, c.collate);
+            copy.generated = c.generated;
+            columns.add(copy);
+        }
+        SQLite3Table copy = new SQLite3Table(t.getName(), columns, t.tableType, t.withoutRowid, t.isView(), t.isVirtual,
+                t.isReadOnly);
+        for (SQLite3Column c : columns) {
+            c.setTable(copy);
+        }
+        return copy;
+    }
+
+    private static void addRowid(SQLite3Table t) {
+        String rowId = Randomly.fromList(ROWID_STRINGS);
+        SQLite3Column rowid = new SQLite3Column(rowId, SQLite3DataType.INT, true, null, true);
+        t.addRowid(rowid);
+        rowid.setTable(t);
+    }
+
     public static SQLite3Schema fromConnection(SQLite3GlobalState globalState) throws SQLException {
+        return fromConnection(globalState, null);
+    }
+
+    /**
+     * Reads the schema, but reuses the tables of the previous schema whose definition in sqlite_master has not changed
+     * since, rather than reading their columns again. Views are always read again, since their columns depend on the
+     * tables that they query. The alias of the rowid of a reused table is chosen anew, like for a table that is read
+     * again, for which the table is copied.
+     *
+     * @param globalState
+     *            the state whose connection is used
+     * @param previous
+     *            the schema that was last read, or null
+     *
+     * @return the current schema
+     *
+     * @throws SQLException
+     *             if the schema cannot be read
+     */
+    public static SQLite3Schema fromConnection(SQLite3GlobalState globalState, SQLite3Schema previous)
+            throws SQLException {
         List<SQLite3Table> databaseTables = new ArrayList<>();
         List<String> indexNames = new ArrayList<>();
+        Map<String, String> tableDefinitions = new HashMap<>();
+        Map<String, SQLite3Table> previousTables = new HashMap<>();
+        if (previous != null) {
+            for (SQLite3Table t : previous.getDatabaseTables()) {
+                previousTables.put(getTableKey(t.isTemp(), t.getName()), t);
+            }
+        }
         SQLConnection con = globalState.getConnection();
 
         try (Statement s = con.createStatement()) {
@@ -284,6 +341,7 @@ public class SQLite3Schema extends AbstractSchema<SQLite3GlobalState, SQLite3Tab
                         continue;
                     }
                     String sqlString = rs.getString("sql") == null ? "" : rs.getString("sql").toLowerCase();
+                    String definition = tableType + ":" + rs.getString("sql");
                     if (tableName.startsWith("sqlite_") || tableType.equals("index") || tableType.equals("trigger")
                             || tableName.endsWith("_idx") || tableName.endsWith("_docsize")
                             || tableName.endsWith("_content") || tableName.endsWith("_data")
@@ -300,23 +358,34 @@ public class SQLite3Schema extends AbstractSchema<SQLite3GlobalState, SQLite3Tab
                     }
                     boolean withoutRowid = sqlString.contains("without rowid");
                     boolean isView = tableType.contentEquals("view");
+                    boolean isTemp = tableType.contentEquals("temp_table");
+                    String key = getTableKey(isTemp, tableName);
+                    if (!isView && previousTables.containsKey(key)
+                            && definition.equals(previous.tableDefinitions.get(key))) {
+                        SQLite3Table t = previousTables.get(key);
+                        if (t.getRowid() != null) {
+                            // like for a table that is read again, the alias of the rowid is chosen anew
+                            t = copyWithoutRowid(t);
+                            addRowid(t);
+                        }
+                        databaseTables.add(t);
+                        tableDefinitions.put(key, definition);
+                        continue;
+                    }
                     boolean isVirtual = sqlString.contains("virtual");
                     boolean isDbStatsTable = sqlString.contains("using dbstat");
                     List<SQLite3Column> databaseColumns = getTableColumns(con, tableName, sqlString, isView,
                             isDbStatsTable);
                     SQLite3Table t = new SQLite3Table(tableName, databaseColumns,
-                            tableType.contentEquals("temp_table") ? TableKind.TEMP : TableKind.MAIN, withoutRowid,
-                            isView, isVirtual, isReadOnly);
+                            isTemp ? TableKind.TEMP : TableKind.MAIN, withoutRowid, isView, isVirtual, isReadOnly);
                     if (isRowIdTable(withoutRowid, isView, isVirtual)) {
-                        String rowId = Randomly.fromList(ROWID_STRINGS);
-                        SQLite3Column rowid = new SQLite3Column(rowId, SQLite3DataType.INT, true, null, true);
-                        t.addRowid(rowid);
-                        rowid.setTable(t);
+                        addRowid(t);
                     }
                     for (SQLite3Column c : databaseColumns) {
                         c.setTable(t);
                     }
                     databaseTables.add(t);
+                    tableDefinitions.put(key, definition);
                 }
             } catch (SQLException e) {
                 // ignore
@@ -337,7 +406,7 @@ public class SQLite3Schema extends AbstractSchema<SQLite3GlobalState, SQLite3Tab
             }
         }
 
-        return new SQLite3Schema(databaseTables, indexNames);
+        return new SQLite3Schema(databaseTables, indexNames, tableDefinitions);
     }
 
     // https://www.sqlite.org/rowidtable.html
@@ -80,6 +80,16 @@ public class TiDBProvider extends SQLProviderAdapter<TiDBGlobalState, TiDBOption
             return TiDBSchema.fromConnection(getConnection(), getDatabaseName());
         }
 
+        @Override
+        protected boolean canTrackRowCounts() {
+            return true;
+        }
+
+        @Override
+        protected boolean supportsBatchedStatements() {
+            return true;
+        }
+
     }
 
     private static int mapActions(TiDBGlobalState globalState, Action a) {
@@ -201,9 +211,13 @@ public class TiDBProvider extends SQLProviderAdapter<TiDBGlobalState, TiDBOption
             s.execute(createDatabaseCommand);
         }
         con.close();
-        con = DriverManager.getConnection(url + databaseName, globalState.getOptions().getUserName(),
-                globalState.getOptions().getPassword());
-        return new SQLConnection(con);
+        // otherwise, the driver sends the statements of a batch one by one
+        String databaseURL = url + databaseName
+                + (globalState.getOptions().getBatchSize() > 1 ? "?rewriteBatchedStatements=true" : "");
+        String userName = globalState.getOptions().getUserName();
+        String password = globalState.getOptions().getPassword();
+        con = DriverManager.getConnection(databaseURL, userName, password);
+        return new SQLConnection(con, () -> DriverManager.getConnection(databaseURL, userName, password));
     }
 
     @Override
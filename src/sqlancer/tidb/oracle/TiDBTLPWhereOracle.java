@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import sqlancer.ComparatorHelper;
+import sqlancer.ConcurrentQuery;
 import sqlancer.Randomly;
 import sqlancer.Reproducer;
 import sqlancer.tidb.TiDBErrors;
@@ -62,7 +63,8 @@ public class TiDBTLPWhereOracle extends TiDBTLPBase {
         select.setWhereClause(null);
         String originalQueryString = TiDBVisitor.asString(select);
         generatedQueryString = originalQueryString;
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
+        ConcurrentQuery<List<String>> originalResultSet = ComparatorHelper
+                .submitResultSetFirstColumnAsString(originalQueryString, errors, state);
 
         boolean orderBy = Randomly.getBooleanWithRatherLowProbability();
         if (orderBy) {
@@ -77,6 +79,7 @@ public class TiDBTLPWhereOracle extends TiDBTLPBase {
         List<String> combinedString = new ArrayList<>();
         List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
                 thirdQueryString, combinedString, !orderBy, state, errors);
+        List<String> resultSet = originalResultSet.get();
         ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
                 state);
         reproducer = new TiDBTLPWhereReproducer(firstQueryString, secondQueryString, thirdQueryString,
@@ -53,30 +53,30 @@ public class TiDBToStringVisitor extends ToStringVisitor<TiDBExpression> impleme
             visit(select.getHint());
             sb.append("*/");
         }
-        visit(select.getFetchColumns());
+        visitClause("SELECT", select.getFetchColumns());
         sb.append(" FROM ");
-        visit(select.getFromList());
+        visitClause("FROM", select.getFromList());
         if (!select.getFromList().isEmpty() && !select.getJoinList().isEmpty()) {
             sb.append(", ");
         }
         if (!select.getJoinList().isEmpty()) {
-            visit(select.getJoinList());
+            visitClause("JOIN", select.getJoinList());
         }
         if (select.getWhereClause() != null) {
             sb.append(" WHERE ");
-            visit(select.getWhereClause());
+            visitClause(select.getWhereClause());
         }
         if (!select.getGroupByExpressions().isEmpty()) {
             sb.append(" GROUP BY ");
-            visit(select.getGroupByExpressions());
+            visitClause("GROUP BY", select.getGroupByExpressions());
         }
         if (select.getHavingClause() != null) {
             sb.append(" HAVING ");
-            visit(select.getHavingClause());
+            visitClause(select.getHavingClause());
         }
         if (!select.getOrderByClauses().isEmpty()) {
             sb.append(" ORDER BY ");
-            visit(select.getOrderByClauses());
+            visitClause("ORDER BY", select.getOrderByClauses());
         }
     }
 
@@ -1,6 +1,5 @@
 package sqlancer.transformations;
 
-import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.statement.Statement;
 
 /**
@@ -17,20 +16,19 @@ public class JSQLParserBasedTransformation extends Transformation {
 
     @Override
     protected void onStatementChanged() {
+        String sql = this.statement.toString();
+        context.statementChanged(statementIndex, sql);
         if (statementChangedHandler != null) {
-            statementChangedHandler.accept(this.statement.toString());
+            statementChangedHandler.accept(sql);
         }
     }
 
     @Override
     public boolean init(String sql) {
         this.current = sql;
-        try {
-            statement = CCJSqlParserUtil.parse(current);
-        } catch (Exception e) {
-            return false;
-        }
-        return true;
+        // reuses the tree that the previous transformations of the statement changed
+        statement = context.getStatement(statementIndex, current);
+        return statement != null;
     }
 
 }
@@ -0,0 +1,106 @@
+package sqlancer.transformations;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+
+/**
+ * The state of a single AST-based reduction, which is shared by its transformations: the judgement whether the bug
+ * still triggers, the number of reduction steps, and the parsed statements. A context must not be shared by reductions,
+ * but several reductions, each with its own context and transformations, can run concurrently.
+ *
+ * Each statement is parsed once. The transformations based on JSQLParser mutate the parsed tree in place and report the
+ * resulting SQL, so that the next transformation continues with the same tree. A statement is parsed again only if its
+ * SQL was changed otherwise, for example, by {@link RoundDoubleConstant}.
+ */
+public class ReductionContext {
+
+    private final Supplier<Boolean> bugJudgement;
+    private long reduceSteps;
+    private long nrParses;
+
+    // statement index -> the statement and the SQL that it was parsed from or changed to
+    private final Map<Integer, ParsedStatement> statements = new HashMap<>();
+
+    private static final class ParsedStatement {
+
+        private String sql;
+        // null if the statement could not be parsed
+        private final Statement statement;
+
+        ParsedStatement(String sql, Statement statement) {
+            this.sql = sql;
+            this.statement = statement;
+        }
+    }
+
+    public ReductionContext(Supplier<Boolean> bugJudgement) {
+        this.bugJudgement = bugJudgement;
+    }
+
+    public boolean bugStillTriggers() {
+        try {
+            return bugJudgement.get();
+        } catch (Exception ignored) {
+        }
+        return false;
+    }
+
+    public void incrementReduceSteps() {
+        reduceSteps++;
+    }
+
+    public long getReduceSteps() {
+        return reduceSteps;
+    }
+
+    public long getNrParses() {
+        return nrParses;
+    }
+
+    /**
+     * Returns the parsed tree of a statement, which is parsed only if it has not been parsed before, or if its SQL has
+     * changed since.
+     *
+     * @param index
+     *            the index of the statement
+     * @param sql
+     *            the current SQL of the statement
+     *
+     * @return the parsed statement, or null if it cannot be parsed
+     */
+    public Statement getStatement(int index, String sql) {
+        ParsedStatement parsed = statements.get(index);
+        if (parsed == null || !parsed.sql.equals(sql)) {
+            nrParses++;
+            Statement statement;
+            try {
+                statement = CCJSqlParserUtil.parse(sql);
+            } catch (Exception e) {
+                statement = null;
+            }
+            parsed = new ParsedStatement(sql, statement);
+            statements.put(index, parsed);
+        }
+        return parsed.statement;
+    }
+
+    /**
+     * Records the SQL of a parsed statement after a transformation changed it in place.
+     *
+     * @param index
+     *            the index of the statement
+     * @param sql
+     *            the SQL of the changed statement
+     */
+    public void statementChanged(int index, String sql) {
+        ParsedStatement parsed = statements.get(index);
+        if (parsed != null) {
+            parsed.sql = sql;
+        }
+    }
+
+}
@@ -4,15 +4,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
-import java.util.function.Supplier;
 
 /**
  * The base class of transformations. Defines APIs to remove, replace, remove elements of a list.
  */
 public class Transformation {
 
-    private static Supplier<Boolean> bugJudgement;
-    private static long reduceSteps;
+    protected ReductionContext context;
+    protected int statementIndex;
 
     protected boolean isChanged;
     protected String current;
@@ -28,16 +27,30 @@ public class Transformation {
     protected Transformation() {
     }
 
-    public static void setBugJudgement(Supplier<Boolean> judgement) {
-        bugJudgement = judgement;
-    }
-
     @Override
     public String toString() {
         return desc;
     }
 
-    public boolean init(String sql) {
+    /**
+     * Prepares the transformation of a statement of a reduction.
+     *
+     * @param context
+     *            the context of the reduction
+     * @param index
+     *            the index of the statement
+     * @param sql
+     *            the current SQL of the statement
+     *
+     * @return whether the statement can be transformed
+     */
+    public boolean init(ReductionContext context, int index, String sql) {
+        this.context = context;
+        this.statementIndex = index;
+        return init(sql);
+    }
+
+    protected boolean init(String sql) {
         isChanged = false;
         return true;
     }
@@ -50,7 +63,7 @@ public class Transformation {
             onStatementChanged();
             return false;
         }
-        reduceSteps++;
+        context.incrementReduceSteps();
         isChanged = true;
         return true;
     }
@@ -63,7 +76,7 @@ public class Transformation {
             onStatementChanged();
             return false;
         }
-        reduceSteps++;
+        context.incrementReduceSteps();
         isChanged = true;
         return true;
     }
@@ -86,18 +99,14 @@ public class Transformation {
             }
             isChanged |= observeChange;
             setter.accept(parent, elms);
-            reduceSteps++;
+            context.incrementReduceSteps();
             onStatementChanged();
         } while (observeChange);
 
     }
 
     public boolean bugStillTriggers() {
-        try {
-            return Transformation.bugJudgement.get();
-        } catch (Exception ignored) {
-        }
-        return false;
+        return context.bugStillTriggers();
     }
 
     public void apply() {
@@ -108,10 +117,6 @@ public class Transformation {
         return isChanged;
     }
 
-    public static long getReduceSteps() {
-        return reduceSteps;
-    }
-
     protected void onStatementChanged() {
     }
 
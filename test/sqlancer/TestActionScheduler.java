@@ -0,0 +1,55 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TestActionScheduler {
+
+    private static final String[] NAMES = { "INSERT", "VACUUM", "DISABLED" };
+
+    @Test
+    public void testMappedCountsWithoutStatistics() {
+        int[] nrDrawn = schedule("test-uniform", new int[] { 30, 10, 0 }, false);
+        assertEquals(40, nrDrawn[0] + nrDrawn[1]);
+        assertEquals(0, nrDrawn[2]);
+        assertTrue(nrDrawn[0] <= 60 && nrDrawn[1] <= 20);
+    }
+
+    @Test
+    public void testExpensiveFailingActionsAreRebalanced() {
+        String dbms = "test-adaptive";
+        // warm up, so that the weights are learned
+        for (int i = 0; i < 10; i++) {
+            schedule(dbms, new int[] { 50, 50, 0 }, true);
+        }
+        int[] nrDrawn = new int[NAMES.length];
+        for (int i = 0; i < 10; i++) {
+            int[] drawn = schedule(dbms, new int[] { 50, 50, 0 }, true);
+            for (int j = 0; j < drawn.length; j++) {
+                nrDrawn[j] += drawn[j];
+            }
+        }
+        assertEquals(1000, nrDrawn[0] + nrDrawn[1]);
+        assertTrue(nrDrawn[1] < 200, String.valueOf(nrDrawn[1]));
+        String report = ActionScheduler.getReport();
+        assertTrue(report.contains(dbms), report);
+        assertTrue(report.contains("VACUUM"), report);
+    }
+
+    private static int[] schedule(String dbms, int[] counts, boolean record) {
+        ActionScheduler scheduler = new ActionScheduler(dbms, NAMES, counts);
+        int[] nrDrawn = new int[NAMES.length];
+        for (int i = scheduler.next(); i != -1; i = scheduler.next()) {
+            nrDrawn[i]++;
+            if (record) {
+                // INSERT succeeds within a microsecond, while VACUUM takes a millisecond and fails
+                boolean isInsert = i == 0;
+                scheduler.record(NAMES[i], isInsert, isInsert ? 1_000 : 1_000_000);
+            }
+        }
+        return nrDrawn;
+    }
+
+}
@@ -0,0 +1,68 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.MainOptions.LogDurability;
+
+public class TestAsyncLogWriter {
+
+    private static final int NR_THREADS = 4;
+    private static final int NR_LINES = 10_000;
+
+    @Test
+    public void testConcurrentWrites() throws Exception {
+        StringWriter target = new StringWriter();
+        AsyncLogWriter writer = AsyncLogWriter.create(target, LogDurability.GROUP_COMMIT);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < NR_THREADS; i++) {
+            int thread = i;
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < NR_LINES; j++) {
+                    try {
+                        writer.write(thread + " " + j + "\n");
+                    } catch (IOException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        writer.sync();
+        // the lines of each thread are written in order
+        int[] next = new int[NR_THREADS];
+        String[] lines = target.toString().split("\n");
+        assertEquals(NR_THREADS * NR_LINES, lines.length);
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+            int thread = Integer.parseInt(parts[0]);
+            assertEquals(next[thread]++, Integer.parseInt(parts[1]));
+        }
+        writer.close();
+    }
+
+    @Test
+    public void testSyncWritesPendingStrings() throws IOException {
+        StringWriter target = new StringWriter();
+        AsyncLogWriter writer = AsyncLogWriter.create(target, LogDurability.ASYNC);
+        writer.write("SELECT 1;");
+        writer.append("\n");
+        writer.sync();
+        assertEquals("SELECT 1;\n", target.toString());
+        writer.write("SELECT 2;\n");
+        writer.close();
+        assertEquals("SELECT 1;\nSELECT 2;\n", target.toString());
+    }
+
+}
@@ -0,0 +1,118 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.query.ExpectedErrors;
+import sqlancer.common.query.Query;
+import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.sqlite3.SQLite3GlobalState;
+import sqlancer.sqlite3.SQLite3Options;
+import sqlancer.sqlite3.SQLite3Provider;
+
+public class TestBatchedStatements {
+
+    private static final ExpectedErrors UNIQUE = ExpectedErrors.from("UNIQUE constraint failed");
+
+    @Test
+    public void testFailingStatementsAreExecutedOnTheirOwn() throws Exception {
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            SQLite3GlobalState state = createState(con);
+            List<Query<SQLConnection>> queries = Arrays.asList(insert("INSERT INTO t0 VALUES (1)"),
+                    insert("INSERT INTO t0 VALUES (1)"), insert("INSERT INTO t0 VALUES (2)"),
+                    insert("INSERT OR ROLLBACK INTO t0 VALUES (2)"), insert("INSERT INTO t0 VALUES (3)"));
+            List<String> notified = new ArrayList<>();
+            boolean[] success = SQLQueryAdapter.executeBatch(state, queries, (i, executed, nanos) -> {
+                // a failed statement could be retried in its place
+                notified.add(i + ":" + executed + ":" + sum(con));
+            });
+            assertArrayEquals(new boolean[] { true, false, true, false, true }, success);
+            assertEquals(List.of("0:true:1", "1:false:1", "2:true:3", "3:false:3", "4:true:6"), notified);
+            assertEquals(6, sum(con));
+
+            // the update counts of a successful batch are tracked
+            state.getRowCountEstimate().setNrRows("t0", 3);
+
+            assertArrayEquals(new boolean[] { true, true },
+                    SQLQueryAdapter.executeBatch(state, Arrays.asList(insert("INSERT INTO t0 VALUES (4)"),
+                            new SQLQueryAdapter("DELETE FROM t0 WHERE c0 > 2")), (i, executed, nanos) -> {
+                            }));
+            assertEquals(2, state.getRowCountEstimate().getNrRows("t0"));
+        }
+    }
+
+    @Test
+    public void testUnexpectedErrorIsAttributedToItsStatement() throws Exception {
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            SQLite3GlobalState state = createState(con);
+            List<Query<SQLConnection>> queries = Arrays.asList(insert("INSERT INTO t0 VALUES (1)"),
+                    insert("INSERT INTO t0 VALUES (2)"), new SQLQueryAdapter("INSERT INTO t0 VALUES (1)"),
+                    insert("INSERT INTO t0 VALUES (3)"));
+            List<Integer> notified = new ArrayList<>();
+            AssertionError error = assertThrows(AssertionError.class,
+                    () -> SQLQueryAdapter.executeBatch(state, queries, (i, executed, nanos) -> notified.add(i)));
+            assertEquals("INSERT INTO t0 VALUES (1);", error.getMessage());
+            // the statements that took effect before the error can be logged
+            assertEquals(List.of(0, 1), notified);
+            assertEquals(3, sum(con));
+        }
+    }
+
+    @Test
+    public void testLatenciesOfBatchedStatementsAreRecorded() throws Exception {
+        StatementMetrics.clear();
+        StatementMetrics.setEnabled(true);
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            SQLite3GlobalState state = createState(con);
+            SQLite3Provider provider = new SQLite3Provider();
+            state.setState(new StateToReproduce("batch", provider));
+            state.setStateLogger(new Main.StateLogger("batch", provider, state.getOptions()));
+            state.setManager(new Main.QueryManager<>(state));
+            List<Query<SQLConnection>> queries = Arrays.asList(insert("INSERT INTO t0 VALUES (1)"),
+                    insert("INSERT INTO t0 VALUES (1)"), insert("INSERT INTO t0 VALUES (2)"));
+            state.executeStatements(queries, List.of("BATCHED_INSERT", "BATCHED_INSERT", "BATCHED_INSERT_OR_FAIL"),
+                    (i, executed, nanos) -> {
+                    });
+
+            Map<String, Map<String, LatencyHistogram>> histograms = StatementMetrics.getHistograms();
+            assertEquals(1, histograms.get("BATCHED_INSERT").get(StatementMetrics.SUCCESS).getCount());
+            assertEquals(1, histograms.get("BATCHED_INSERT").get(StatementMetrics.EXPECTED_ERROR).getCount());
+            assertEquals(1, histograms.get("BATCHED_INSERT_OR_FAIL").get(StatementMetrics.SUCCESS).getCount());
+        } finally {
+            StatementMetrics.setEnabled(false);
+            StatementMetrics.clear();
+        }
+    }
+
+    private static SQLite3GlobalState createState(SQLConnection con) throws Exception {
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        state.setDbmsSpecificOptions(new SQLite3Options());
+        state.setMainOptions(new MainOptions());
+        state.setConnection(con);
+        new SQLQueryAdapter("CREATE TABLE t0(c0 INT UNIQUE)", true).execute(state);
+        return state;
+    }
+
+    private static int sum(SQLConnection con) throws Exception {
+        try (Statement s = con.createStatement(); ResultSet rs = s.executeQuery("SELECT SUM(c0) FROM t0")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static SQLQueryAdapter insert(String sql) {
+        return new SQLQueryAdapter(sql, UNIQUE);
+    }
+
+}
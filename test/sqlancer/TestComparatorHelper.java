@@ -1,15 +1,21 @@
 package sqlancer;
 
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import sqlancer.common.query.ExpectedErrors;
 import sqlancer.h2.H2Options;
 import sqlancer.h2.H2Schema;
+import sqlancer.sqlite3.SQLite3GlobalState;
+import sqlancer.sqlite3.SQLite3Options;
+import sqlancer.sqlite3.SQLite3Provider;
 
 public class TestComparatorHelper {
     // TODO: Implement tests for the other ComparatorHelper methods
@@ -69,4 +75,29 @@ public class TestComparatorHelper {
         });
     }
 
+    @Test
+    public void testFingerprintMismatchThatDoesNotReproduceIsReported() throws Exception {
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            SQLite3GlobalState sqliteState = new SQLite3GlobalState();
+            sqliteState.setDbmsSpecificOptions(new SQLite3Options());
+            MainOptions options = new MainOptions();
+            sqliteState.setMainOptions(options);
+            sqliteState.setConnection(con);
+            SQLite3Provider provider = new SQLite3Provider();
+            StateToReproduce stateToReproduce = new StateToReproduce("comparator", provider);
+            stateToReproduce.createLocalState();
+            sqliteState.setState(stateToReproduce);
+            sqliteState.setStateLogger(new Main.StateLogger("comparator", provider, options));
+            // the first execution returned different rows than executing the queries again, which both return 1
+            ResultSetFingerprint first = new ResultSetFingerprint();
+            first.add("1");
+            ResultSetFingerprint second = new ResultSetFingerprint();
+            second.add("2");
+            AssertionError error = assertThrowsExactly(AssertionError.class,
+                    () -> ComparatorHelper.assumeResultSetFingerprintsAreEqual(first, second, "SELECT 1",
+                            Arrays.asList("SELECT 1"), sqliteState, new ExpectedErrors()));
+            assertTrue(error.getMessage().contains("differed when executing the queries again"), error.getMessage());
+        }
+    }
+
 }
@@ -0,0 +1,118 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.Test;
+import org.sqlite.SQLiteConfig;
+
+import com.beust.jcommander.JCommander;
+
+import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.sqlite3.SQLite3GlobalState;
+import sqlancer.sqlite3.SQLite3Options;
+import sqlancer.sqlite3.SQLite3Provider;
+
+public class TestConcurrentQueries {
+
+    @Test
+    public void testQueriesAreExecutedOnTheSideConnection() throws Exception {
+        File file = Files.createTempFile("concurrent", ".db").toFile();
+        String url = "jdbc:sqlite:" + file.getAbsolutePath();
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection(url), () -> openReadOnly(url))) {
+            SQLite3GlobalState state = createState(con);
+            execute(state, "CREATE TABLE t0(c0 TEXT)");
+            execute(state, "INSERT INTO t0 VALUES ('a')");
+
+            String mainThread = Thread.currentThread().getName();
+            ConcurrentQuery<String> query = ConcurrentQuery.submit(state,
+                    c -> Thread.currentThread().getName() + " " + count(c, "SELECT COUNT(*) FROM t0"));
+            assertEquals("sqlancer-side-connection 1", query.get());
+
+            // the session settings are repeated on the side connection
+            execute(state, "PRAGMA case_sensitive_like = 1");
+            assertEquals(0, (int) ConcurrentQuery
+                    .submit(state, c -> count(c, "SELECT COUNT(*) FROM t0 WHERE c0 LIKE 'A'")).get());
+
+            // a computation that fails on the side connection is repeated on the main connection
+            ConcurrentQuery<String> failing = ConcurrentQuery.submit(state, c -> {
+                if (c != con) {
+                    throw new IgnoreMeException();
+                }
+                return Thread.currentThread().getName();
+            });
+            assertEquals(mainThread, failing.get());
+
+            // the side connection would not see the uncommitted changes
+            execute(state, "BEGIN");
+            assertNull(state.getSideConnection());
+            execute(state, "INSERT INTO t0 VALUES ('b')");
+            assertEquals(mainThread, ConcurrentQuery.submit(state, c -> Thread.currentThread().getName()).get());
+            execute(state, "COMMIT");
+            assertNotNull(state.getSideConnection());
+
+            execute(state, "CREATE TEMP TABLE t1(c0 INT)");
+            assertNull(state.getSideConnection());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        File file = Files.createTempFile("concurrent", ".db").toFile();
+        String url = "jdbc:sqlite:" + file.getAbsolutePath();
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection(url), () -> openReadOnly(url))) {
+            SQLite3GlobalState state = createState(con);
+            state.setMainOptions(new MainOptions());
+            assertNull(state.getSideConnection());
+            assertNotEquals("sqlancer-side-connection",
+                    ConcurrentQuery.submit(state, c -> Thread.currentThread().getName()).get());
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static Connection openReadOnly(String url) throws SQLException {
+        // the SQLite driver cannot make a connection read-only after opening it
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        return config.createConnection(url);
+    }
+
+    private static SQLite3GlobalState createState(SQLConnection con) {
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        state.setDbmsSpecificOptions(new SQLite3Options());
+        MainOptions options = new MainOptions();
+        JCommander.newBuilder().addObject(options).build().parse("--concurrent-queries", "true");
+        state.setMainOptions(options);
+        state.setConnection(con);
+        SQLite3Provider provider = new SQLite3Provider();
+        state.setState(new StateToReproduce("concurrent", provider));
+        state.setStateLogger(new Main.StateLogger("concurrent", provider, options));
+        state.setManager(new Main.QueryManager<>(state));
+        return state;
+    }
+
+    private static void execute(SQLite3GlobalState state, String sql) throws Exception {
+        state.executeStatement(new SQLQueryAdapter(sql, sql.startsWith("CREATE")));
+    }
+
+    private static int count(SQLConnection con, String query) throws SQLException {
+        try (Statement s = con.createStatement(); ResultSet rs = s.executeQuery(query)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+}
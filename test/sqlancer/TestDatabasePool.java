@@ -0,0 +1,157 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.DatabasePool.DatabaseCreator;
+import sqlancer.DatabasePool.PooledDatabase;
+
+public class TestDatabasePool {
+
+    private static class FakeCreator implements DatabaseCreator {
+
+        private final Map<String, String> creatingThreads = new ConcurrentHashMap<>();
+        private final List<String> dropped = new CopyOnWriteArrayList<>();
+        private final Set<String> undroppable = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public SQLConnection create(String databaseName, String createOptions) throws SQLException {
+            creatingThreads.put(databaseName, Thread.currentThread().getName());
+            return new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"));
+        }
+
+        @Override
+        public void drop(String databaseName) throws SQLException {
+            if (undroppable.contains(databaseName)) {
+                throw new SQLException(databaseName);
+            }
+            dropped.add(databaseName);
+        }
+
+    }
+
+    @Test
+    public void testDatabasesAreCreatedInAdvance() throws Exception {
+        FakeCreator creator = new FakeCreator();
+        DatabasePool pool = DatabasePool.get("test/pool", "pool", 2, creator, null);
+        AtomicInteger nrOptions = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            PooledDatabase database = pool.acquire(() -> "options" + nrOptions.getAndIncrement());
+            assertEquals("pool_" + i, database.getName());
+            // the options are determined in the order in which the databases are requested
+            assertEquals("options" + i, database.getCreateOptions());
+            database.getConnection().close();
+        }
+        assertEquals(6, nrOptions.get());
+        assertEquals(Thread.currentThread().getName(), creator.creatingThreads.get("pool_0"));
+        assertNotEquals(Thread.currentThread().getName(), creator.creatingThreads.get("pool_3"));
+        pool.close();
+        assertEquals(Set.of("pool_0", "pool_1", "pool_2", "pool_3", "pool_4", "pool_5"), Set.copyOf(creator.dropped));
+    }
+
+    @Test
+    public void testWorkersDoNotWaitForEachOther() throws Exception {
+        CountDownLatch slowCreation = new CountDownLatch(1);
+        FakeCreator creator = new FakeCreator() {
+
+            @Override
+            public SQLConnection create(String databaseName, String createOptions) throws SQLException {
+                if (databaseName.equals("slow_0")) {
+                    try {
+                        slowCreation.await();
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+                return super.create(databaseName, createOptions);
+            }
+
+        };
+        DatabasePool pool = DatabasePool.get("test/slow", "slow", 1, creator, null);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<PooledDatabase> slow = executor.submit(() -> pool.acquire(() -> ""));
+            while (!creator.creatingThreads.containsKey("slow_1")) {
+                Thread.sleep(10);
+            }
+            // the database that was created in advance is handed out while slow_0 is still being created
+            PooledDatabase database = pool.acquire(() -> "");
+            assertEquals("slow_1", database.getName());
+            assertFalse(slow.isDone());
+            slowCreation.countDown();
+            assertEquals("slow_0", slow.get(10, TimeUnit.SECONDS).getName());
+        } finally {
+            slowCreation.countDown();
+            executor.shutdown();
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testDatabasesAreDroppedOnlyAfterTheyAreClosed() throws Exception {
+        FakeCreator creator = new FakeCreator();
+        DatabasePool pool = DatabasePool.get("test/shared", "shared", 1, creator, null);
+        // for example, the reducer requests databases while the worker's database is still open
+        PooledDatabase worker = pool.acquire(() -> "");
+        PooledDatabase reducer = pool.acquire(() -> "");
+        reducer.getConnection().close();
+        PooledDatabase next = pool.acquire(() -> "");
+        pool.close();
+        assertFalse(creator.dropped.contains(worker.getName()));
+        assertFalse(creator.dropped.contains(next.getName()));
+        assertTrue(creator.dropped.contains(reducer.getName()));
+        worker.getConnection().close();
+        next.getConnection().close();
+        assertTrue(creator.dropped.contains(worker.getName()));
+        assertTrue(creator.dropped.contains(next.getName()));
+    }
+
+    @Test
+    public void testDatabasesThatCannotBeDroppedAreDroppedOnClose() throws Exception {
+        FakeCreator creator = new FakeCreator();
+        DatabasePool pool = DatabasePool.get("test/undroppable", "undroppable", 1, creator, null);
+        creator.undroppable.add("undroppable_0");
+        pool.acquire(() -> "").getConnection().close();
+        pool.acquire(() -> "").getConnection().close();
+        creator.undroppable.clear();
+        pool.close();
+        assertTrue(creator.dropped.contains("undroppable_0"));
+    }
+
+    @Test
+    public void testDatabasesCreatedInAdvanceCountTowardsBudget() throws Exception {
+        FakeCreator creator = new FakeCreator();
+        ConnectionBudget budget = new ConnectionBudget(3);
+        budget.acquire();
+        DatabasePool pool = DatabasePool.get("test/budget", "budget", 5, creator, budget);
+        PooledDatabase database = pool.acquire(() -> "");
+        // the worker holds one connection, so only two databases can be created in advance
+        assertFalse(budget.tryReserve());
+        database.getConnection().close();
+        pool.close();
+        assertEquals(Set.of("budget_0", "budget_1", "budget_2"), Set.copyOf(creator.dropped));
+        // the connections of the databases that were created in advance are available again
+        assertTrue(budget.tryReserve());
+        assertTrue(budget.tryReserve());
+        assertFalse(budget.tryReserve());
+    }
+
+}
@@ -0,0 +1,53 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.ExecutionCounters.Counter;
+
+public class TestExecutionCounters {
+
+    private static final int NR_THREADS = 4;
+    private static final int NR_INCREMENTS = 10_000;
+
+    @Test
+    public void testCountsPerWorker() throws InterruptedException {
+        long before = ExecutionCounters.getTotal(Counter.SUCCESSFUL_STATEMENTS);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < NR_THREADS; i++) {
+            String worker = "testCountsPerWorker" + i;
+            threads.add(new Thread(() -> {
+                ExecutionCounters.bind("testdbms", worker);
+                for (int j = 0; j < NR_INCREMENTS; j++) {
+                    ExecutionCounters.increment(Counter.SUCCESSFUL_STATEMENTS);
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        // workers of other tests might still be running
+        assertTrue(ExecutionCounters.getTotal(Counter.SUCCESSFUL_STATEMENTS) >= before + NR_THREADS * NR_INCREMENTS);
+        assertTrue(ExecutionCounters.getTotalsByDBMS(Counter.SUCCESSFUL_STATEMENTS).get("testdbms") >= NR_THREADS
+                * NR_INCREMENTS);
+        int nrWorkers = 0;
+        for (ExecutionCounters counters : ExecutionCounters.getAll()) {
+            if (counters.getWorker().startsWith("testCountsPerWorker")) {
+                assertEquals("testdbms", counters.getDBMS());
+                assertEquals(NR_INCREMENTS, counters.get(Counter.SUCCESSFUL_STATEMENTS));
+                assertEquals(0, counters.get(Counter.QUERIES));
+                nrWorkers++;
+            }
+        }
+        assertEquals(NR_THREADS, nrWorkers);
+    }
+
+}
@@ -156,4 +156,57 @@ public class TestExpectedErrors {
         assertTrue(errors.errorIsExpected("c"));
         assertFalse(errors.errorIsExpected("aa"));
     }
+
+    @Test
+    public void testOverlappingStrings() {
+        ExpectedErrors errors = ExpectedErrors.from("abcd", "bce", "cf", "he", "she", "hers");
+        assertTrue(errors.errorIsExpected("xabcf"));
+        assertTrue(errors.errorIsExpected("abce"));
+        assertTrue(errors.errorIsExpected("ushers"));
+        assertTrue(errors.errorIsExpected("ahe"));
+        assertFalse(errors.errorIsExpected("abcbcd"));
+        assertFalse(errors.errorIsExpected("sh"));
+        assertTrue(ExpectedErrors.from("").errorIsExpected("a"));
+    }
+
+    @Test
+    public void testAddAfterCheck() {
+        ExpectedErrors errors = new ExpectedErrors();
+        errors.add("a");
+        assertFalse(errors.errorIsExpected("b"));
+        errors.add("b");
+        assertTrue(errors.errorIsExpected("b"));
+        errors.addRegexString("c\\d");
+        assertTrue(errors.errorIsExpected("c1"));
+    }
+
+    @Test
+    public void testCombinedRegexes() {
+        ExpectedErrors errors = new ExpectedErrors();
+        errors.addRegexString("(?i)abc");
+        errors.addRegexString("^x$");
+        errors.addRegexString("(y)\\1");
+        errors.addRegex(Pattern.compile("z", Pattern.CASE_INSENSITIVE));
+        assertTrue(errors.errorIsExpected("ABC"));
+        assertTrue(errors.errorIsExpected("x"));
+        assertFalse(errors.errorIsExpected("xX"));
+        assertFalse(errors.errorIsExpected("X"));
+        assertTrue(errors.errorIsExpected("yy"));
+        assertFalse(errors.errorIsExpected("y"));
+        assertTrue(errors.errorIsExpected("Z"));
+    }
+
+    @Test
+    public void testLiteralAndCommentedRegexesAreNotCombined() {
+        ExpectedErrors errors = new ExpectedErrors();
+        errors.addRegex(Pattern.compile("a.b", Pattern.LITERAL));
+        errors.addRegex(Pattern.compile("(c)", Pattern.LITERAL));
+        errors.addRegex(Pattern.compile("d # a comment", Pattern.COMMENTS));
+        errors.addRegex(Pattern.compile("e f", Pattern.COMMENTS));
+        assertTrue(errors.errorIsExpected("a.b"));
+        assertFalse(errors.errorIsExpected("axb"));
+        assertTrue(errors.errorIsExpected("(c)"));
+        assertTrue(errors.errorIsExpected("d"));
+        assertTrue(errors.errorIsExpected("ef"));
+    }
 }
@@ -0,0 +1,93 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.Test;
+
+import com.beust.jcommander.JCommander;
+
+import sqlancer.ExecutionCounters.Counter;
+import sqlancer.sqlite3.SQLite3GlobalState;
+import sqlancer.sqlite3.oracle.SQLite3NoRECOracle;
+import sqlancer.sqlite3.oracle.tlp.SQLite3TLPWhereOracle;
+
+public class TestFailureIndex {
+
+    @Test
+    public void testFingerprint() {
+        SQLite3GlobalState state = createState();
+        SQLite3NoRECOracle oracle = new SQLite3NoRECOracle(state);
+        String first = FailureIndex.getFingerprint(state, oracle, new AssertionError("SELECT * FROM t0 WHERE c0 > 3",
+                new SQLException("[SQLITE_CORRUPT] database disk image is malformed")));
+        String second = FailureIndex.getFingerprint(state, oracle, new AssertionError("SELECT * FROM t1 WHERE c2 > 'a'",
+                new SQLException("[SQLITE_CORRUPT] database disk image is malformed")));
+        assertEquals(first, second);
+        assertNotEquals(first,
+                FailureIndex.getFingerprint(state, oracle, new AssertionError("SELECT * FROM t0 WHERE c0 > 3",
+                        new SQLException("[SQLITE_ERROR] unknown function: abs()"))));
+        assertNotEquals(first,
+                FailureIndex.getFingerprint(state, null, new AssertionError("SELECT * FROM t0 WHERE c0 > 3",
+                        new SQLException("[SQLITE_CORRUPT] database disk image is malformed"))));
+
+        // the queries in the message are not part of the fingerprint
+        assertEquals(FailureIndex.getFingerprint(state, oracle, new AssertionError("the counts mismatch (1 and 2)!\n"
+                + "SELECT COUNT(*) FROM t0 WHERE (c0) IS NULL;\nSELECT SUM(count) FROM (SELECT ((c0) IS NULL) FROM t0)")),
+                FailureIndex.getFingerprint(state, oracle,
+                        new AssertionError(
+                                "the counts mismatch (0 and 3)!\nSELECT COUNT(*) FROM t1 WHERE (c1) BETWEEN 1 AND 2;\n"
+                                        + "SELECT SUM(count) FROM (SELECT ((c1) BETWEEN 1 AND 2) FROM t1)")));
+        assertNotEquals(
+                FailureIndex.getFingerprint(state, oracle, new AssertionError("the counts mismatch (1 and 2)!")),
+                FailureIndex.getFingerprint(state, oracle, new AssertionError("the counts mismatch (1 and 2)!",
+                        new SQLException("[SQLITE_CORRUPT] database disk image is malformed"))));
+    }
+
+    @Test
+    public void testMismatchesOfDifferentQueriesAreDuplicates() {
+        SQLite3GlobalState state = createState();
+        SQLite3TLPWhereOracle oracle = new SQLite3TLPWhereOracle(state);
+        String first = FailureIndex.getFingerprint(state, oracle,
+                new AssertionError("The size of the result sets mismatch (1 and 2)!\n"
+                        + "First query: \"SELECT t0.c0 FROM t0\", whose cardinality is: 1\n"
+                        + "Second query:\"SELECT t0.c0 FROM t0 WHERE (t0.c0 > 1) UNION ALL SELECT t0.c0 FROM t0 WHERE "
+                        + "(NOT (t0.c0 > 1)) UNION ALL SELECT t0.c0 FROM t0 WHERE ((t0.c0 > 1) ISNULL)\", whose "
+                        + "cardinality is: 2"));
+        String second = FailureIndex.getFingerprint(state, oracle,
+                new AssertionError("The size of the result sets mismatch (3 and 0)!\n"
+                        + "First query: \"SELECT t1.c1, t2.c0 FROM t1, t2\", whose cardinality is: 3\n"
+                        + "Second query:\"SELECT t1.c1, t2.c0 FROM t1, t2 WHERE (t1.c1 LIKE 'a%') UNION ALL SELECT t1.c1, "
+                        + "t2.c0 FROM t1, t2 WHERE (NOT (t1.c1 LIKE 'a%')) UNION ALL SELECT t1.c1, t2.c0 FROM t1, t2 "
+                        + "WHERE ((t1.c1 LIKE 'a%') ISNULL)\", whose cardinality is: 0"));
+        assertEquals(first, second);
+        assertNotEquals(first, FailureIndex.getFingerprint(state, oracle,
+                new AssertionError("The content of the result sets mismatch!\n"
+                        + "First query : \"SELECT t0.c0 FROM t0\"\nSecond query: \"-- Query: \"SELECT t0.c0 FROM t0 "
+                        + "WHERE (t0.c0 > 1) UNION ALL SELECT t0.c0 FROM t0 WHERE (NOT (t0.c0 > 1))\"\"")));
+    }
+
+    @Test
+    public void testDuplicatesAreIgnored() {
+        FailureIndex.clear();
+        SQLite3GlobalState state = createState();
+        long duplicates = ExecutionCounters.current().get(Counter.DUPLICATE_FAILURES);
+        FailureIndex.ignoreIfKnown(state, null, new AssertionError("unexpected error in t0"));
+        assertThrows(IgnoreMeException.class,
+                () -> FailureIndex.ignoreIfKnown(state, null, new AssertionError("unexpected error in t1")));
+        FailureIndex.ignoreIfKnown(state, null, new AssertionError("another error in t0"));
+        assertEquals(duplicates + 1, ExecutionCounters.current().get(Counter.DUPLICATE_FAILURES));
+        FailureIndex.clear();
+    }
+
+    private static SQLite3GlobalState createState() {
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        MainOptions options = new MainOptions();
+        JCommander.newBuilder().addObject(options).build().parse("--continue-after-bug", "true");
+        state.setMainOptions(options);
+        return state;
+    }
+
+}
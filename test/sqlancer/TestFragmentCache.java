@@ -0,0 +1,109 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.visitor.FragmentCache;
+import sqlancer.sqlite3.SQLite3ToStringVisitor;
+import sqlancer.sqlite3.SQLite3Visitor;
+import sqlancer.sqlite3.ast.SQLite3Constant;
+import sqlancer.sqlite3.ast.SQLite3Expression;
+import sqlancer.sqlite3.ast.SQLite3Expression.BinaryComparisonOperation;
+import sqlancer.sqlite3.ast.SQLite3Expression.BinaryComparisonOperation.BinaryComparisonOperator;
+import sqlancer.sqlite3.ast.SQLite3Expression.SQLite3ColumnName;
+import sqlancer.sqlite3.ast.SQLite3Expression.SQLite3PostfixUnaryOperation;
+import sqlancer.sqlite3.ast.SQLite3Expression.SQLite3PostfixUnaryOperation.PostfixUnaryOperator;
+import sqlancer.sqlite3.ast.SQLite3Expression.SQLite3TableReference;
+import sqlancer.sqlite3.ast.SQLite3Select;
+import sqlancer.sqlite3.ast.SQLite3Select.SelectType;
+import sqlancer.sqlite3.ast.SQLite3UnaryOperation;
+import sqlancer.sqlite3.ast.SQLite3UnaryOperation.UnaryOperator;
+import sqlancer.sqlite3.schema.SQLite3DataType;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Column;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Column.SQLite3CollateSequence;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Table;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Table.TableKind;
+
+public class TestFragmentCache {
+
+    private final SQLite3Column c0 = new SQLite3Column("c0", SQLite3DataType.INT, false, false,
+            SQLite3CollateSequence.BINARY);
+    private final SQLite3Column c1 = new SQLite3Column("c1", SQLite3DataType.TEXT, false, false,
+            SQLite3CollateSequence.BINARY);
+    private final SQLite3Table t0 = new SQLite3Table("t0", Arrays.asList(c0, c1), TableKind.MAIN, false, false, false,
+            false);
+
+    @Test
+    public void testVariantsAreRenderedAsWithoutCache() {
+        SQLite3Expression predicate = createPredicate();
+        List<SQLite3Expression> variants = List.of(predicate, new SQLite3UnaryOperation(UnaryOperator.NOT, predicate),
+                new SQLite3PostfixUnaryOperation(PostfixUnaryOperator.ISNULL, predicate));
+        List<String> expected = new ArrayList<>();
+        SQLite3Select select = createSelect();
+        for (SQLite3Expression variant : variants) {
+            select.setWhereClause(variant);
+            expected.add(SQLite3Visitor.asString(select));
+        }
+        List<String> actual = new ArrayList<>();
+        try (FragmentCache cache = FragmentCache.open()) {
+            for (SQLite3Expression variant : variants) {
+                select.setWhereClause(variant);
+                actual.add(SQLite3Visitor.asString(select));
+            }
+        }
+        assertEquals(expected, actual);
+        assertEquals("SELECT DISTINCT t0.c0 FROM t0 INDEXED BY i0 WHERE ((NOT (((t0.c0)>(1)))))", actual.get(1));
+    }
+
+    @Test
+    public void testClausesAreCachedWhileOpen() {
+        SQLite3Select select = createSelect();
+        select.setWhereClause(createPredicate());
+        String first;
+        String cached;
+        try (FragmentCache cache = FragmentCache.open()) {
+            first = SQLite3Visitor.asString(select);
+            // modifying a printed clause in place is not reflected while the cache is open
+            select.getFetchColumns().add(new SQLite3ColumnName(c1, null));
+            cached = SQLite3Visitor.asString(select);
+        }
+        assertEquals(first, cached);
+        assertEquals("SELECT DISTINCT t0.c0, t0.c1 FROM t0 INDEXED BY i0 WHERE (((t0.c0)>(1)))",
+                SQLite3Visitor.asString(select));
+    }
+
+    @Test
+    public void testUnqualifiedNamesAreNotCached() {
+        SQLite3Select select = createSelect();
+        select.setWhereClause(createPredicate());
+        try (FragmentCache cache = FragmentCache.open()) {
+            SQLite3Visitor.asString(select);
+            SQLite3ToStringVisitor visitor = new SQLite3ToStringVisitor();
+            visitor.fullyQualifiedNames = false;
+            visitor.visit(select, false);
+            assertEquals("SELECT DISTINCT c0 FROM t0 INDEXED BY i0 WHERE (((c0)>(1)))", visitor.get());
+        }
+    }
+
+    private SQLite3Expression createPredicate() {
+        return BinaryComparisonOperation.create(new SQLite3ColumnName(c0, null), SQLite3Constant.createIntConstant(1),
+                BinaryComparisonOperator.GREATER);
+    }
+
+    private SQLite3Select createSelect() {
+        c0.setTable(t0);
+        c1.setTable(t0);
+        SQLite3Select select = new SQLite3Select();
+        // DISTINCT and an index are printed deterministically
+        select.setSelectType(SelectType.DISTINCT);
+        select.setFetchColumns(new ArrayList<>(List.of(new SQLite3ColumnName(c0, null))));
+        select.setFromList(List.of(new SQLite3TableReference("i0", t0)));
+        return select;
+    }
+
+}
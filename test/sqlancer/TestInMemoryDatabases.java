@@ -0,0 +1,112 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.Test;
+
+import com.beust.jcommander.JCommander;
+
+import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.duckdb.DuckDBOptions;
+import sqlancer.duckdb.DuckDBProvider;
+import sqlancer.duckdb.DuckDBProvider.DuckDBGlobalState;
+import sqlancer.h2.H2Options;
+import sqlancer.h2.H2Provider;
+import sqlancer.h2.H2Provider.H2GlobalState;
+import sqlancer.hsqldb.HSQLDBOptions;
+import sqlancer.hsqldb.HSQLDBProvider;
+import sqlancer.hsqldb.HSQLDBProvider.HSQLDBGlobalState;
+import sqlancer.sqlite3.SQLite3GlobalState;
+import sqlancer.sqlite3.SQLite3Options;
+import sqlancer.sqlite3.SQLite3Provider;
+
+public class TestInMemoryDatabases {
+
+    private static final String DATABASE_NAME = "inmemorytest";
+
+    @Test
+    public void testSQLite3() throws Exception {
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        state.setDbmsSpecificOptions(new SQLite3Options());
+        File file = prepare(state, DATABASE_NAME + ".db");
+        ProviderAdapter<SQLite3GlobalState, SQLite3Options, SQLConnection> provider = new SQLite3Provider();
+        try (SQLConnection con = provider.createDatabase(state)) {
+            fill(state, con);
+            provider.saveDatabase(state, DATABASE_NAME);
+        }
+        try (Connection con = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+                Statement s = con.createStatement(); ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM t0")) {
+            rs.next();
+            assertEquals(2, rs.getInt(1));
+        }
+        file.delete();
+    }
+
+    @Test
+    public void testDuckDB() throws Exception {
+        DuckDBGlobalState state = new DuckDBGlobalState();
+        state.setDbmsSpecificOptions(new DuckDBOptions());
+        File directory = prepare(state, DATABASE_NAME);
+        ProviderAdapter<DuckDBGlobalState, DuckDBOptions, SQLConnection> provider = new DuckDBProvider();
+        try (SQLConnection con = provider.createDatabase(state)) {
+            fill(state, con);
+            provider.saveDatabase(state, DATABASE_NAME);
+        }
+        assertTrue(new File(directory, "schema.sql").exists());
+        for (File f : directory.listFiles()) {
+            f.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testH2() throws Exception {
+        H2GlobalState state = new H2GlobalState();
+        state.setDbmsSpecificOptions(new H2Options());
+        File file = prepare(state, DATABASE_NAME + ".sql");
+        ProviderAdapter<H2GlobalState, H2Options, SQLConnection> provider = new H2Provider();
+        try (SQLConnection con = provider.createDatabase(state)) {
+            fill(state, con);
+            provider.saveDatabase(state, DATABASE_NAME);
+        }
+        assertTrue(file.delete());
+    }
+
+    @Test
+    public void testHSQLDB() throws Exception {
+        HSQLDBGlobalState state = new HSQLDBGlobalState();
+        state.setDbmsSpecificOptions(new HSQLDBOptions());
+        File file = prepare(state, DATABASE_NAME + ".sql");
+        ProviderAdapter<HSQLDBGlobalState, HSQLDBOptions, SQLConnection> provider = new HSQLDBProvider();
+        try (SQLConnection con = provider.createDatabase(state)) {
+            fill(state, con);
+            provider.saveDatabase(state, DATABASE_NAME);
+        }
+        assertTrue(file.delete());
+    }
+
+    private static File prepare(SQLGlobalState<?, ?> state, String fileName) {
+        MainOptions options = new MainOptions();
+        JCommander.newBuilder().addObject(options).build().parse("--in-memory", "true");
+        state.setMainOptions(options);
+        state.setDatabaseName(DATABASE_NAME);
+        File file = ProviderAdapter.getDatabaseFile(fileName);
+        // the database is kept in memory until it is saved
+        assertTrue(!file.exists() || file.delete());
+        return file;
+    }
+
+    private static void fill(SQLGlobalState<?, ?> state, SQLConnection con) throws Exception {
+        state.setConnection(con);
+        new SQLQueryAdapter("CREATE TABLE t0(c0 INT)", true).execute(state);
+        new SQLQueryAdapter("INSERT INTO t0 VALUES (1), (2)").execute(state);
+    }
+
+}
@@ -0,0 +1,107 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.sqlite3.SQLite3GlobalState;
+import sqlancer.sqlite3.SQLite3Options;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3RowValue;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Table;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Tables;
+
+public class TestPivotRowSampler {
+
+    @Test
+    public void testSQLite3() throws Exception {
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        state.setMainOptions(new MainOptions());
+        state.setDbmsSpecificOptions(new SQLite3Options());
+        state.setRandomly(new Randomly(0));
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            state.setConnection(con);
+            execute(state, "CREATE TABLE t0(c0 INT, c1 TEXT)");
+            execute(state, "CREATE TABLE t1(c0 INT)");
+            execute(state, "WITH RECURSIVE r(x) AS (SELECT 0 UNION ALL SELECT x + 1 FROM r WHERE x < 999) "
+                    + "INSERT INTO t0 SELECT x, 'a' || x FROM r");
+            execute(state, "INSERT INTO t1 VALUES (-1)");
+            SQLite3Table t0 = state.getSchema().getDatabaseTable("t0");
+            SQLite3Table t1 = state.getSchema().getDatabaseTable("t1");
+            SQLite3Tables tables = new SQLite3Tables(Arrays.asList(t0, t1));
+            Set<Long> pivotValues = new HashSet<>();
+            for (int i = 0; i < 500; i++) {
+                SQLite3RowValue row = tables.getRandomRowValue(state);
+                long c0 = row.getValues().get(t0.getColumns().get(0)).asInt();
+                assertEquals("a" + c0, row.getValues().get(t0.getColumns().get(1)).asString());
+                assertEquals(-1, row.getValues().get(t1.getColumns().get(0)).asInt());
+                pivotValues.add(c0);
+            }
+            // the sample is redrawn after it has been used
+            assertTrue(pivotValues.size() > 100);
+
+            execute(state, "UPDATE t1 SET c0 = -2");
+            assertEquals(-2, tables.getRandomRowValue(state).getValues().get(t1.getColumns().get(0)).asInt());
+        }
+    }
+
+    @Test
+    public void testSQLite3ForeignKeyActions() throws Exception {
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        state.setMainOptions(new MainOptions());
+        state.setDbmsSpecificOptions(new SQLite3Options());
+        state.setRandomly(new Randomly(0));
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            state.setConnection(con);
+            execute(state, "CREATE TABLE t0(c0 INT PRIMARY KEY)");
+            execute(state, "CREATE TABLE t1(c0 INT REFERENCES t0(c0) ON DELETE SET NULL)");
+            execute(state, "INSERT INTO t0 VALUES (1)");
+            execute(state, "INSERT INTO t1 VALUES (1)");
+            SQLite3Table t1 = state.getSchema().getDatabaseTable("t1");
+            SQLite3Tables tables = new SQLite3Tables(Arrays.asList(t1));
+            assertEquals(1, tables.getRandomRowValue(state).getValues().get(t1.getColumns().get(0)).asInt());
+            execute(state, "PRAGMA foreign_keys = true");
+            execute(state, "DELETE FROM t0");
+            assertTrue(tables.getRandomRowValue(state).getValues().get(t1.getColumns().get(0)).isNull());
+        }
+    }
+
+    @Test
+    public void testSQLite3ConflictClauses() throws Exception {
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        state.setMainOptions(new MainOptions());
+        state.setDbmsSpecificOptions(new SQLite3Options());
+        state.setRandomly(new Randomly(0));
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            state.setConnection(con);
+            execute(state, "CREATE TABLE t0(c0 INT UNIQUE)");
+            execute(state, "INSERT INTO t0 VALUES (0)");
+            SQLite3Table t0 = state.getSchema().getDatabaseTable("t0");
+            SQLite3Tables tables = new SQLite3Tables(Arrays.asList(t0));
+            int value = 0;
+            for (String conflictClause : Arrays.asList("ROLLBACK", "ABORT", "FAIL", "IGNORE", "REPLACE")) {
+                assertEquals(value, tables.getRandomRowValue(state).getValues().get(t0.getColumns().get(0)).asInt());
+                value++;
+                execute(state, "UPDATE OR " + conflictClause + " t0 SET c0 = " + value);
+                assertEquals(value, tables.getRandomRowValue(state).getValues().get(t0.getColumns().get(0)).asInt(),
+                        conflictClause);
+                execute(state, "DELETE FROM t0");
+                value++;
+                execute(state, "INSERT OR " + conflictClause + " INTO t0 VALUES (" + value + ")");
+                assertEquals(value, tables.getRandomRowValue(state).getValues().get(t0.getColumns().get(0)).asInt(),
+                        conflictClause);
+            }
+        }
+    }
+
+    private static void execute(SQLite3GlobalState state, String sql) throws Exception {
+        new SQLQueryAdapter(sql, true).execute(state);
+    }
+
+}
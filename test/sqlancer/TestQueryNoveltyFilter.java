@@ -0,0 +1,59 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.beust.jcommander.JCommander;
+
+import sqlancer.ExecutionCounters.Counter;
+import sqlancer.sqlite3.SQLite3GlobalState;
+
+public class TestQueryNoveltyFilter {
+
+    @Test
+    public void testNormalize() {
+        assertEquals("SELECT t0.c0 FROM t0 WHERE (t0.c0)>(-0) AND t0.c0 LIKE ?",
+                QueryNoveltyFilter.normalize("SELECT t12.c3 FROM t12 WHERE (t12.c3)>(-0.5) AND t12.c3 LIKE 'a''b'"));
+        assertEquals(QueryNoveltyFilter.normalize("SELECT * FROM v1 JOIN i2 ON 1"),
+                QueryNoveltyFilter.normalize("SELECT * FROM v0 JOIN i9 ON 123"));
+    }
+
+    @Test
+    public void testDuplicates() {
+        QueryNoveltyFilter filter = new QueryNoveltyFilter(2000);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.add("SELECT " + i));
+        }
+        // the new queries are added as well, so that the filter contains at most its capacity
+        int falsePositives = 0;
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(filter.add("SELECT " + i));
+            if (!filter.add("SELECT -" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 50, String.valueOf(falsePositives));
+    }
+
+    @Test
+    public void testDuplicateQueriesAreRegenerated() {
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        MainOptions options = new MainOptions();
+        JCommander.newBuilder().addObject(options).build().parse("--novelty-filter", "true");
+        state.setMainOptions(options);
+        // the filter is shared by all tests of the same DBMS, so use a new query shape
+        String alias = Long.toString(System.nanoTime(), 36).replaceAll("[0-9]", "x");
+        String query = "SELECT c0 AS " + alias + " FROM t0 WHERE c0 = 'a'";
+        long duplicates = ExecutionCounters.current().get(Counter.DUPLICATE_QUERIES);
+        assertFalse(QueryNoveltyFilter.isDuplicate(state, query, 0));
+        assertTrue(QueryNoveltyFilter.isDuplicate(state, query.replace("t0", "t1"), 0));
+        assertThrows(IgnoreMeException.class,
+                () -> QueryNoveltyFilter.isDuplicate(state, query, QueryNoveltyFilter.MAX_ATTEMPTS - 1));
+        assertEquals(duplicates + 2, ExecutionCounters.current().get(Counter.DUPLICATE_QUERIES));
+    }
+
+}
@@ -0,0 +1,72 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class TestQueryPlanPool {
+
+    @Test
+    public void testAddIgnoresWhitespace() {
+        QueryPlanPool pool = new QueryPlanPool(10);
+        assertTrue(pool.add("SCAN t0;  USE INDEX i0;", "SELECT 1"));
+        assertFalse(pool.add("SCAN t0; USE INDEX i0;\n", "SELECT 2"));
+        assertTrue(pool.add("SCAN t1;", "SELECT 3"));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testMaxSize() {
+        QueryPlanPool pool = new QueryPlanPool(2);
+        assertTrue(pool.add("a", "SELECT 1"));
+        assertTrue(pool.add("b", "SELECT 2"));
+        assertFalse(pool.add("c", "SELECT 3"));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testQueriesCanBeReplacedWhileChecked() {
+        QueryPlanPool pool = new QueryPlanPool(100);
+        for (int i = 0; i < 10; i++) {
+            pool.add("plan" + i, "SELECT " + i);
+        }
+        Set<String> checked = new HashSet<>();
+        for (Map.Entry<Long, String> entry : pool.getQueries()) {
+            checked.add(entry.getValue());
+            assertTrue(pool.remove(entry.getKey(), entry.getValue()));
+            pool.add("new " + entry.getValue(), entry.getValue());
+        }
+        assertEquals(10, checked.size());
+        assertEquals(10, pool.size());
+        assertFalse(pool.remove(QueryPlanPool.fingerprint("plan0"), "SELECT 0"));
+    }
+
+    @Test
+    public void testConcurrentRewardUpdates() throws InterruptedException {
+        MutatorRewards rewards = new MutatorRewards(new double[2]);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    rewards.addReward(1, 1);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(0, rewards.getRewards()[0]);
+        assertEquals(40000, rewards.getRewards()[1]);
+        rewards.updateReward(0, 1, 0.25);
+        assertEquals(0.25, rewards.getRewards()[0]);
+    }
+
+}
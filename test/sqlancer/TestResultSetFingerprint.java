@@ -0,0 +1,50 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TestResultSetFingerprint {
+
+    private static ResultSetFingerprint of(List<String> values) {
+        ResultSetFingerprint fingerprint = new ResultSetFingerprint();
+        values.forEach(fingerprint::add);
+        return fingerprint;
+    }
+
+    @Test
+    public void testOrderInsensitive() {
+        ResultSetFingerprint first = of(Arrays.asList("a", null, "b", "c"));
+        ResultSetFingerprint second = of(Arrays.asList("c", "b", "a", null));
+        assertTrue(first.hasSameContent(second));
+        assertEquals(4, first.getNrRows());
+    }
+
+    @Test
+    public void testMultiplicity() {
+        ResultSetFingerprint first = of(Arrays.asList("a", "a", "b"));
+        ResultSetFingerprint second = of(Arrays.asList("a", "b", "b"));
+        assertFalse(first.hasSameContent(second));
+    }
+
+    @Test
+    public void testDifferentValues() {
+        assertFalse(of(Arrays.asList("ab")).hasSameContent(of(Arrays.asList("ba"))));
+        assertFalse(of(Arrays.asList("")).hasSameContent(of(Arrays.asList((String) null))));
+        assertFalse(of(Arrays.asList("1")).hasSameContent(of(Arrays.asList("1.0"))));
+    }
+
+    @Test
+    public void testAddAll() {
+        ResultSetFingerprint combined = new ResultSetFingerprint();
+        combined.addAll(of(Arrays.asList("c")));
+        combined.addAll(of(Arrays.asList("a", "b")));
+        assertTrue(combined.hasSameContent(of(Arrays.asList("a", "b", "c"))));
+    }
+
+}
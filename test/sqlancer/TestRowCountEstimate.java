@@ -0,0 +1,185 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.sql.DriverManager;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.query.ExpectedErrors;
+import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.common.schema.RowCountEstimate;
+import sqlancer.sqlite3.SQLite3GlobalState;
+import sqlancer.sqlite3.SQLite3Options;
+
+public class TestRowCountEstimate {
+
+    @Test
+    public void testClassification() {
+        RowCountEstimate estimate = new RowCountEstimate(true);
+        estimate.afterStatement("CREATE TABLE t0(c0 INT)", true, 0);
+        estimate.afterStatement("CREATE TABLE t1(c0 INT)", true, 0);
+        estimate.afterStatement("INSERT INTO t0 VALUES (1), (2), (3)", true, 3);
+        estimate.afterStatement("INSERT OR IGNORE INTO t0 VALUES (4)", true, 0);
+        estimate.afterStatement("DELETE FROM t0 WHERE c0 = 1", true, 1);
+        estimate.afterStatement("UPDATE t0 SET c0 = 5", true, 2);
+        estimate.afterStatement("INSERT INTO t0 VALUES (NULL)", false, -1);
+        estimate.afterStatement("SELECT * FROM t0", true, -1);
+        assertEquals(2, estimate.getNrRows("t0"));
+        assertEquals(0, estimate.getNrRows("T1"));
+
+        estimate.afterStatement("CREATE INDEX i0 ON t0(c0)", true, 0);
+        estimate.afterStatement("ALTER TABLE t1 ADD COLUMN c1 INT", true, 0);
+        assertEquals(2, estimate.getNrRows("t0"));
+        assertEquals(RowCountEstimate.UNKNOWN, estimate.getNrRows("t1"));
+
+        estimate.afterStatement("INSERT OR REPLACE INTO t0 VALUES (1)", true, 1);
+        assertEquals(RowCountEstimate.UNKNOWN, estimate.getNrRows("t0"));
+
+        estimate.setNrRows("t0", 3);
+        estimate.afterStatement("ROLLBACK", true, 0);
+        assertEquals(RowCountEstimate.UNKNOWN, estimate.getNrRows("t0"));
+
+        estimate.setNrRows("t0", 3);
+        estimate.afterStatement("CREATE TRIGGER tr0 AFTER INSERT ON t0 BEGIN DELETE FROM t1; END", true, 0);
+        assertFalse(estimate.isEnabled());
+        estimate.setNrRows("t0", 3);
+        assertEquals(RowCountEstimate.UNKNOWN, estimate.getNrRows("t0"));
+    }
+
+    @Test
+    public void testConflictClauses() {
+        RowCountEstimate estimate = new RowCountEstimate(true);
+        estimate.afterStatement("CREATE TABLE t0(c0 INT UNIQUE)", true, 0);
+        estimate.afterStatement("CREATE TABLE t1(c0 INT)", true, 0);
+        estimate.afterStatement("INSERT OR ABORT INTO t0 VALUES (1)", true, 1);
+        estimate.afterStatement("INSERT OR IGNORE INTO t0 VALUES (1), (2)", true, 1);
+        estimate.afterStatement("INSERT OR FAIL INTO t0 VALUES (3)", true, 1);
+        estimate.afterStatement("UPDATE OR IGNORE t0 SET c0 = 4", true, 1);
+        estimate.afterStatement("UPDATE OR ABORT t0 SET c0 = 5", false, -1);
+        estimate.afterStatement("UPDATE OR FAIL t0 SET c0 = c0 + 1", true, 3);
+        assertEquals(3, estimate.getNrRows("t0"));
+        assertEquals(0, estimate.getNrRows("t1"));
+
+        // the changes made before the failure are kept
+        estimate.afterStatement("INSERT OR FAIL INTO t0 VALUES (6), (6)", false, -1);
+        assertEquals(RowCountEstimate.UNKNOWN, estimate.getNrRows("t0"));
+        assertEquals(0, estimate.getNrRows("t1"));
+        estimate.setNrRows("t0", 3);
+        estimate.afterStatement("UPDATE OR FAIL t0 SET c0 = 7", false, -1);
+        assertEquals(RowCountEstimate.UNKNOWN, estimate.getNrRows("t0"));
+        assertEquals(0, estimate.getNrRows("t1"));
+
+        for (String statement : List.of("UPDATE OR REPLACE t0 SET c0 = 1", "UPDATE OR ROLLBACK t0 SET c0 = 1",
+                "INSERT OR REPLACE INTO t0 VALUES (1)", "INSERT OR ROLLBACK INTO t0 VALUES (1)",
+                "REPLACE INTO t0 VALUES (1)")) {
+            estimate.setNrRows("t0", 3);
+            estimate.setNrRows("t1", 0);
+            long version = estimate.getVersion("t1");
+            estimate.afterStatement(statement, true, 1);
+            assertEquals(RowCountEstimate.UNKNOWN, estimate.getNrRows("t0"), statement);
+            assertEquals(RowCountEstimate.UNKNOWN, estimate.getNrRows("t1"), statement);
+            assertNotEquals(version, estimate.getVersion("t1"), statement);
+        }
+    }
+
+    @Test
+    public void testCancelledStatements() {
+        RowCountEstimate estimate = new RowCountEstimate(true);
+        estimate.afterStatement("CREATE TABLE t0(c0 INT)", true, 0);
+        estimate.afterStatement("CREATE TABLE t1(c0 INT)", true, 0);
+        estimate.afterCancelledStatement("SELECT * FROM t0, t1");
+        assertEquals(0, estimate.getNrRows("t0"));
+        estimate.afterCancelledStatement("INSERT INTO t0 SELECT * FROM t1");
+        assertEquals(RowCountEstimate.UNKNOWN, estimate.getNrRows("t0"));
+        assertEquals(0, estimate.getNrRows("t1"));
+        estimate.afterCancelledStatement("UPDATE OR REPLACE t1 SET c0 = 1");
+        assertEquals(RowCountEstimate.UNKNOWN, estimate.getNrRows("t1"));
+    }
+
+    @Test
+    public void testVersions() {
+        RowCountEstimate estimate = new RowCountEstimate(false);
+        estimate.afterStatement("CREATE TABLE t0(c0 INT)", true, 0);
+        estimate.afterStatement("CREATE TABLE t1(c0 INT)", true, 0);
+        long t0 = estimate.getVersion("t0");
+        long t1 = estimate.getVersion("t1");
+        estimate.afterStatement("SELECT * FROM t0, t1", true, -1);
+        estimate.afterStatement("CREATE INDEX i0 ON t0(c0)", true, 0);
+        assertEquals(t0, estimate.getVersion("t0"));
+        estimate.afterStatement("UPDATE t0 SET c0 = 1", true, 0);
+        assertNotEquals(t0, estimate.getVersion("t0"));
+        assertEquals(t1, estimate.getVersion("t1"));
+        estimate.afterStatement("TRUNCATE t0", true, 0);
+        assertNotEquals(t1, estimate.getVersion("t1"));
+        assertEquals(RowCountEstimate.UNKNOWN, estimate.getNrRows("t0"));
+    }
+
+    @Test
+    public void testForeignKeyActions() {
+        for (String action : new String[] { "ON DELETE SET NULL", "ON UPDATE SET DEFAULT", "ON DELETE CASCADE" }) {
+            RowCountEstimate estimate = new RowCountEstimate(true);
+            estimate.afterStatement("CREATE TABLE t0(c0 INT PRIMARY KEY)", true, 0);
+            estimate.afterStatement("CREATE TABLE t1(c0 INT REFERENCES t0(c0) " + action + ")", true, 0);
+            long t1 = estimate.getVersion("t1");
+            estimate.afterStatement("DELETE FROM t0", true, 1);
+            // the referencing rows might have been changed
+            assertNotEquals(t1, estimate.getVersion("t1"), action);
+            assertFalse(estimate.isEnabled(), action);
+        }
+        RowCountEstimate estimate = new RowCountEstimate(true);
+        estimate.afterStatement("CREATE TABLE t0(c0 INT PRIMARY KEY)", true, 0);
+        estimate.afterStatement("CREATE TABLE t1(c0 INT REFERENCES t0(c0) ON DELETE RESTRICT)", true, 0);
+        long t1 = estimate.getVersion("t1");
+        estimate.afterStatement("DELETE FROM t0", true, 0);
+        assertEquals(t1, estimate.getVersion("t1"));
+    }
+
+    @Test
+    public void testStatementsOnViews() {
+        RowCountEstimate estimate = new RowCountEstimate(true);
+        estimate.afterStatement("CREATE TABLE t0(c0 INT)", true, 0);
+        estimate.afterStatement("CREATE TABLE t1(c0 INT)", true, 0);
+        estimate.afterStatement("CREATE OR REPLACE TEMP VIEW v0(c0) AS (SELECT t0.c0 FROM t0)", true, 0);
+        for (String statement : new String[] { "INSERT INTO v0(c0) VALUES (1)", "UPDATE v0 SET c0 = 2",
+                "DELETE FROM v0" }) {
+            long t0 = estimate.getVersion("t0");
+            estimate.setNrRows("t0", 1);
+            estimate.afterStatement(statement, true, 1);
+            // an updatable view changes the tables that it queries
+            assertNotEquals(t0, estimate.getVersion("t0"), statement);
+            assertEquals(RowCountEstimate.UNKNOWN, estimate.getNrRows("t0"), statement);
+        }
+        long t0 = estimate.getVersion("t0");
+        estimate.afterStatement("UPDATE t1 SET c0 = 2", true, 1);
+        assertEquals(t0, estimate.getVersion("t0"));
+    }
+
+    @Test
+    public void testSQLite3UpdateCounts() throws Exception {
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        state.setDbmsSpecificOptions(new SQLite3Options());
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            checkUpdateCounts(state, con);
+            assertEquals(1, state.getSchema().getDatabaseTable("t0").getNrRows(state));
+        }
+    }
+
+    private static void checkUpdateCounts(SQLGlobalState<?, ?> state, SQLConnection con) throws Exception {
+        state.setMainOptions(new MainOptions());
+        state.setConnection(con);
+        execute(state, "CREATE TABLE t0(c0 INT UNIQUE)");
+        execute(state, "INSERT INTO t0 VALUES (1), (2), (3)");
+        execute(state, "DELETE FROM t0 WHERE c0 > 1");
+        execute(state, "INSERT INTO t0 VALUES (1)");
+        assertEquals(1, state.getRowCountEstimate().getNrRows("t0"));
+    }
+
+    private static void execute(SQLGlobalState<?, ?> state, String sql) throws Exception {
+        new SQLQueryAdapter(sql, ExpectedErrors.from("UNIQUE", "Duplicate", "Constraint"), true).execute(state);
+    }
+
+}
@@ -0,0 +1,112 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.DriverManager;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.sqlite3.SQLite3GlobalState;
+import sqlancer.sqlite3.SQLite3Options;
+import sqlancer.sqlite3.schema.SQLite3Schema;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Table;
+
+public class TestSchemaCache {
+
+    @Test
+    public void testSQLite3ReusesUnchangedTables() throws Exception {
+        MainOptions options = new MainOptions();
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        state.setMainOptions(options);
+        state.setDbmsSpecificOptions(new SQLite3Options());
+        state.setRandomly(new Randomly(0));
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            state.setConnection(con);
+            // a table without a rowid is reused as it is
+            execute(state, "CREATE TABLE t0(c0 INT PRIMARY KEY) WITHOUT ROWID");
+            execute(state, "CREATE TABLE t1(c0 INT)");
+            SQLite3Schema schema = state.getSchema();
+            SQLite3Table t0 = schema.getDatabaseTable("t0");
+            SQLite3Table t1 = schema.getDatabaseTable("t1");
+
+            execute(state, "ALTER TABLE t1 ADD COLUMN c1 TEXT");
+            execute(state, "CREATE INDEX i0 ON t0(c0)");
+            execute(state, "CREATE VIEW v0 AS SELECT * FROM t0");
+            state.invalidateSchema();
+            schema = state.getSchema();
+            assertSame(t0, schema.getDatabaseTable("t0"));
+            assertNotSame(t1, schema.getDatabaseTable("t1"));
+            assertEquals(2, schema.getDatabaseTable("t1").getColumns().size());
+            assertEquals(1, schema.getIndexNames().size());
+            assertEquals(3, schema.getDatabaseTables().size());
+
+            execute(state, "DROP TABLE t1");
+            state.invalidateSchema();
+            schema = state.getSchema();
+            assertSame(t0, schema.getDatabaseTable("t0"));
+            assertEquals(2, schema.getDatabaseTables().size());
+        }
+    }
+
+    @Test
+    public void testSQLite3DistinguishesTempTables() throws Exception {
+        SQLite3GlobalState state = createState();
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            state.setConnection(con);
+            execute(state, "CREATE TABLE t0(c0 INT)");
+            SQLite3Table t0 = state.getSchema().getDatabaseTable("t0");
+            assertFalse(t0.isTemp());
+
+            execute(state, "DROP TABLE t0");
+            execute(state, "CREATE TEMP TABLE t0(c0 INT)");
+            state.invalidateSchema();
+            SQLite3Table tempT0 = state.getSchema().getDatabaseTable("t0");
+            assertNotSame(t0, tempT0);
+            assertTrue(tempT0.isTemp());
+        }
+    }
+
+    @Test
+    public void testSQLite3ChoosesRowidAliasOfReusedTables() throws Exception {
+        SQLite3GlobalState state = createState();
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            state.setConnection(con);
+            execute(state, "CREATE TABLE t0(c0 INT)");
+            SQLite3Table t0 = state.getSchema().getDatabaseTable("t0");
+            String alias = t0.getRowid().getName();
+            Set<String> aliases = new HashSet<>();
+            for (int i = 0; i < 20; i++) {
+                state.invalidateSchema();
+                SQLite3Table reused = state.getSchema().getDatabaseTable("t0");
+                assertNotSame(t0, reused);
+                assertSame(reused, reused.getColumns().get(0).getTable());
+                assertSame(reused, reused.getRowid().getTable());
+                aliases.add(reused.getRowid().getName());
+            }
+            assertEquals(Set.copyOf(SQLite3Schema.ROWID_STRINGS), aliases);
+            // the previous schema, which an oracle might still use, is not changed
+            assertEquals(alias, t0.getRowid().getName());
+            assertSame(t0, t0.getColumns().get(0).getTable());
+        }
+    }
+
+    private static SQLite3GlobalState createState() {
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        state.setMainOptions(new MainOptions());
+        state.setDbmsSpecificOptions(new SQLite3Options());
+        state.setRandomly(new Randomly(0));
+        return state;
+    }
+
+    private static void execute(SQLite3GlobalState state, String sql) throws Exception {
+        new SQLQueryAdapter(sql, true).execute(state);
+    }
+
+}
@@ -0,0 +1,85 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.query.Query;
+import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.common.query.SQLancerResultSet;
+import sqlancer.sqlite3.SQLite3GlobalState;
+import sqlancer.sqlite3.SQLite3Options;
+import sqlancer.sqlite3.SQLite3Provider;
+
+public class TestSnapshotCache {
+
+    private final SQLite3Provider provider = new SQLite3Provider();
+
+    private SQLite3GlobalState createState() {
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        state.setDatabaseName("snapshottest");
+        state.setMainOptions(new MainOptions());
+        state.setDbmsSpecificOptions(new SQLite3Options());
+        return state;
+    }
+
+    private static List<Query<SQLConnection>> getStatements(int nrInserts, int firstValue) {
+        List<Query<SQLConnection>> statements = new ArrayList<>();
+        statements.add(new SQLQueryAdapter("CREATE TABLE t0(c0 INT)", true));
+        statements.add(new SQLQueryAdapter("PRAGMA case_sensitive_like=ON"));
+        for (int i = 0; i < nrInserts; i++) {
+            statements.add(new SQLQueryAdapter("INSERT INTO t0(c0) VALUES (" + (firstValue + i) + ")"));
+        }
+        return statements;
+    }
+
+    private static long query(SQLite3GlobalState state, String query) throws SQLException {
+        try (SQLancerResultSet rs = new SQLQueryAdapter(query).executeAndGet(state)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    public void testReplayRestoresPrefix() throws Exception {
+        try (SnapshotCache<SQLite3GlobalState, SQLConnection> cache = new SnapshotCache<>(provider)) {
+            SQLite3GlobalState state = createState();
+            try (SQLConnection con = provider.createDatabase(state)) {
+                state.setConnection(con);
+                cache.replay(state, getStatements(32, 0));
+                assertEquals(32, query(state, "SELECT COUNT(*) FROM t0"));
+            }
+            // shares all but the last statement with the previous replay
+            List<Query<SQLConnection>> statements = getStatements(32, 0);
+            statements.set(statements.size() - 1, new SQLQueryAdapter("INSERT INTO t0(c0) VALUES (1000)"));
+            try (SQLConnection con = provider.createDatabase(state)) {
+                state.setConnection(con);
+                cache.replay(state, statements);
+                assertEquals(32, query(state, "SELECT COUNT(*) FROM t0"));
+                assertEquals(1000, query(state, "SELECT MAX(c0) FROM t0"));
+                // the connection setting is executed again after restoring the snapshot
+                assertEquals(0, query(state, "SELECT 'a' LIKE 'A'"));
+            }
+        }
+    }
+
+    @Test
+    public void testOnlyConnectionScopedPragmasAreConnectionSettings() {
+        assertTrue(provider.isConnectionSetting(new SQLQueryAdapter("PRAGMA case_sensitive_like=ON")));
+        assertTrue(provider.isConnectionSetting(new SQLQueryAdapter("PRAGMA main.cache_size = 100;")));
+        assertTrue(provider.isConnectionSetting(new SQLQueryAdapter("pragma temp.foreign_keys = true")));
+        // these settings are stored in the database file, which the snapshot includes
+        assertFalse(provider.isConnectionSetting(new SQLQueryAdapter("PRAGMA user_version = 3")));
+        assertFalse(provider.isConnectionSetting(new SQLQueryAdapter("PRAGMA auto_vacuum = FULL")));
+        assertFalse(provider.isConnectionSetting(new SQLQueryAdapter("PRAGMA journal_mode=WAL")));
+        assertFalse(provider.isConnectionSetting(new SQLQueryAdapter("PRAGMA encoding = 'UTF-16'")));
+        assertFalse(provider.isConnectionSetting(new SQLQueryAdapter("INSERT INTO t0(c0) VALUES (1)")));
+    }
+
+}
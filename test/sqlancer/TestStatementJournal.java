@@ -0,0 +1,76 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.StateToReproduce.OracleRunReproductionState;
+import sqlancer.common.query.Query;
+import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.sqlite3.SQLite3Provider;
+
+public class TestStatementJournal {
+
+    @Test
+    public void testStatementsAreReadBack() throws Exception {
+        try (StatementJournal journal = StatementJournal.forCurrentThread()) {
+            StringBuilder longStatement = new StringBuilder("SELECT '");
+            for (int i = 0; i < 100_000; i++) {
+                longStatement.append('ä');
+            }
+            longStatement.append("';");
+            for (int i = 0; i < 5000; i++) {
+                journal.append(i == 2500 ? longStatement.toString() : "INSERT INTO t0 VALUES (" + i + ");");
+            }
+            assertEquals(5000, journal.size());
+            assertEquals("INSERT INTO t0 VALUES (0);", journal.get(0));
+            assertEquals(longStatement.toString(), journal.get(2500));
+            assertEquals("INSERT INTO t0 VALUES (4999);", journal.get(4999));
+
+            // the journal is reused for the next database
+            assertSame(journal, StatementJournal.forCurrentThread());
+            assertEquals(0, journal.size());
+            journal.append("SELECT 1;");
+            assertEquals("SELECT 1;", journal.get(0));
+        }
+    }
+
+    @Test
+    public void testJournalIsClosedWithItsThread() throws Exception {
+        StatementJournal journal = StatementJournal.forCurrentThread();
+        journal.append("SELECT 1;");
+        assertTrue(Files.exists(journal.getFile()));
+        StatementJournal.closeForCurrentThread();
+        assertFalse(Files.exists(journal.getFile()));
+        try (StatementJournal next = StatementJournal.forCurrentThread()) {
+            assertNotSame(journal, next);
+            assertEquals(0, next.size());
+        }
+    }
+
+    @Test
+    public void testStateToReproduce() throws Exception {
+        try (StatementJournal journal = StatementJournal.forCurrentThread()) {
+            StateToReproduce state = new StateToReproduce("journal", new SQLite3Provider());
+            state.setJournal(journal);
+            state.logStatement(new SQLQueryAdapter("CREATE TABLE t0(c0 INT)", true));
+            state.logStatement("INSERT INTO t0 VALUES (1)");
+            try (OracleRunReproductionState localState = state.createLocalState()) {
+                localState.log("SELECT * FROM t0");
+            }
+            List<Query<?>> statements = state.getStatements();
+            assertEquals(3, statements.size());
+            assertEquals("CREATE TABLE t0(c0 INT);", statements.get(0).getLogString());
+            assertEquals(true, statements.get(0).couldAffectSchema());
+            assertEquals("SELECT * FROM t0;", statements.get(2).getLogString());
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+public class TestStatementMetrics {
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long value : new long[] { 0, 1, 31, 32, 33, 63, 64, 1000, 123_456_789, Long.MAX_VALUE }) {
+            int index = LatencyHistogram.getIndex(value);
+            assertTrue(LatencyHistogram.getLowestValue(index) <= value);
+            if (value != Long.MAX_VALUE) {
+                assertTrue(value < LatencyHistogram.getLowestValue(index + 1));
+            }
+        }
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        long median = histogram.getValueAtPercentile(50);
+        assertTrue(median >= 500_000 && median < 500_000 * 1.07, Long.toString(median));
+        assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testExport() throws IOException {
+        StatementMetrics.setEnabled(true);
+        try {
+            StatementMetrics.record("INSERT", StatementMetrics.SUCCESS, 2_000_000);
+            StatementMetrics.record("INSERT", StatementMetrics.EXPECTED_ERROR, 1_000_000);
+            StatementMetrics.record(null, StatementMetrics.SUCCESS, 1_000_000);
+
+            StringWriter openMetrics = new StringWriter();
+            StatementMetrics.writeOpenMetrics(openMetrics);
+            assertTrue(openMetrics.toString().contains(
+                    "sqlancer_statement_latency_seconds_count{kind=\"INSERT\",outcome=\"expected_error\"} 1\n"));
+            assertTrue(openMetrics.toString().endsWith("# EOF\n"));
+
+            StringWriter json = new StringWriter();
+            StatementMetrics.writeJson(json);
+            assertTrue(
+                    json.toString()
+                            .contains("{\"kind\":\"INSERT\",\"outcome\":\"success\",\"count\":1,\"total_ms\":2.000,"),
+                    json.toString());
+            assertTrue(json.toString().contains("\"kind\":\"" + StatementMetrics.UNKNOWN_KIND + "\""));
+        } finally {
+            StatementMetrics.setEnabled(false);
+            StatementMetrics.clear();
+        }
+    }
+
+}
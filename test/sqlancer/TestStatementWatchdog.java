@@ -0,0 +1,132 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.beust.jcommander.JCommander;
+
+import sqlancer.ExecutionCounters.Counter;
+import sqlancer.common.query.SQLQueryAdapter;
+import sqlancer.common.query.SQLancerResultSet;
+import sqlancer.sqlite3.SQLite3GlobalState;
+import sqlancer.sqlite3.SQLite3Options;
+
+public class TestStatementWatchdog {
+
+    private static final String RUNAWAY_QUERY = "WITH RECURSIVE c(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM c) SELECT COUNT(*) FROM c";
+
+    @Test
+    public void testRunawayStatementsAreCancelled() throws Exception {
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            SQLite3GlobalState state = createState(con, "--statement-timeout-ms", "200");
+            long timedOut = ExecutionCounters.current().get(Counter.TIMED_OUT_STATEMENTS);
+            long start = System.currentTimeMillis();
+            assertThrows(IgnoreMeException.class, () -> new SQLQueryAdapter(RUNAWAY_QUERY).executeAndGet(state));
+            assertThrows(IgnoreMeException.class,
+                    () -> new SQLQueryAdapter("CREATE TABLE t0 AS " + RUNAWAY_QUERY, true).execute(state));
+            assertTrue(System.currentTimeMillis() - start < 10_000);
+            assertEquals(timedOut + 2, ExecutionCounters.current().get(Counter.TIMED_OUT_STATEMENTS));
+
+            // the connection can still be used
+            try (SQLancerResultSet rs = new SQLQueryAdapter("SELECT 1").executeAndGet(state)) {
+                rs.next();
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    public void testRunawayBatchesAreCancelled() throws Exception {
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            SQLite3GlobalState state = createState(con, "--statement-timeout-ms", "100");
+            new SQLQueryAdapter("CREATE TABLE t0(c0)", true).execute(state);
+            long start = System.currentTimeMillis();
+            assertThrows(IgnoreMeException.class,
+                    () -> SQLQueryAdapter.executeBatch(state, List.of(new SQLQueryAdapter("INSERT INTO t0 VALUES (1)"),
+                            new SQLQueryAdapter("INSERT INTO t0 " + RUNAWAY_QUERY)), (i, executed, nanos) -> {
+                            }));
+            assertTrue(System.currentTimeMillis() - start < 10_000);
+
+            // the batch was rolled back
+            try (SQLancerResultSet rs = new SQLQueryAdapter("SELECT COUNT(*) FROM t0").executeAndGet(state)) {
+                rs.next();
+                assertEquals(0, rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    public void testSlowCancellationDoesNotDelayOtherTimeouts() throws Exception {
+        SQLite3GlobalState state = createState(null, "--statement-timeout-ms", "50");
+        CountDownLatch slowCancellation = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        // for example, the server of the first statement does not respond
+        StatementWatchdog slow = StatementWatchdog.watch(state, createStatement(() -> slowCancellation.await()));
+        Thread.sleep(100);
+        StatementWatchdog fast = StatementWatchdog.watch(state, createStatement(cancelled::countDown));
+        try {
+            assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+            assertTrue(fast.isTimedOut());
+        } finally {
+            slowCancellation.countDown();
+            slow.close();
+            fast.close();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Cancellation {
+        void cancel() throws Exception;
+    }
+
+    private static Statement createStatement(Cancellation cancellation) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { Statement.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("cancel")) {
+                        cancellation.cancel();
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    public void testAdaptiveTimeout() throws Exception {
+        StatementWatchdog.clear();
+        try (SQLConnection con = new SQLConnection(DriverManager.getConnection("jdbc:sqlite::memory:"))) {
+            SQLite3GlobalState state = createState(con, "--statement-timeout-ms", "60000",
+                    "--adaptive-statement-timeout", "true");
+            state.setStatementKind("FAST");
+            assertEquals(60_000, StatementWatchdog.getTimeoutMillis(state.getOptions(), "FAST"));
+            for (int i = 0; i < StatementWatchdog.MIN_SAMPLES; i++) {
+                new SQLQueryAdapter("SELECT 1").execute(state);
+            }
+            assertEquals(StatementWatchdog.MIN_ADAPTIVE_TIMEOUT_MILLIS,
+                    StatementWatchdog.getTimeoutMillis(state.getOptions(), "FAST"));
+            // the deadlines of other kinds are not affected
+            assertEquals(60_000, StatementWatchdog.getTimeoutMillis(state.getOptions(), "SLOW"));
+        } finally {
+            StatementWatchdog.clear();
+        }
+    }
+
+    private static SQLite3GlobalState createState(SQLConnection con, String... args) {
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        state.setDbmsSpecificOptions(new SQLite3Options());
+        MainOptions options = new MainOptions();
+        JCommander.newBuilder().addObject(options).build().parse(args);
+        state.setMainOptions(options);
+        state.setConnection(con);
+        return state;
+    }
+
+}
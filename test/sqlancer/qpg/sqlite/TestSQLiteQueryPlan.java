@@ -22,10 +22,10 @@ public class TestSQLiteQueryPlan {
         SQLite3Options sqlite3Option = provider.getOptionClass().getDeclaredConstructor().newInstance();
         state.setDbmsSpecificOptions(sqlite3Option);
         state.setDatabaseName(databaseName);
-        SQLConnection con = provider.createDatabase(state);
-        state.setConnection(con);
         MainOptions options = new MainOptions();
         state.setMainOptions(options);
+        SQLConnection con = provider.createDatabase(state);
+        state.setConnection(con);
         Main.StateLogger logger = new Main.StateLogger(databaseName, provider, options);
         state.setStateLogger(logger);
 
@@ -4,8 +4,15 @@ import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import org.junit.jupiter.api.Test;
 import sqlancer.common.query.Query;
+import sqlancer.transformations.ReductionContext;
+import sqlancer.transformations.RemoveClausesOfSelect;
+import sqlancer.transformations.SimplifyConstant;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -264,4 +271,56 @@ public class TestASTBasedReducer {
         assertEquals("SELECT * FROM t0 WHERE 2.143 IS NULL;", TestEnvironment.getQueriesString(reducedResult));
     }
 
+    @Test
+    void testStatementIsParsedOnce() {
+        ReductionContext context = new ReductionContext(() -> true);
+        SimplifyConstant simplifyConstant = new SimplifyConstant();
+        List<String> current = new ArrayList<>(List.of("SELECT * FROM t0 WHERE t0.v = 314598267 LIMIT 3 OFFSET 1;"));
+        simplifyConstant.setStatementChangedCallBack(s -> current.set(0, s));
+        assertTrue(simplifyConstant.init(context, 0, current.get(0)));
+        simplifyConstant.apply();
+
+        RemoveClausesOfSelect removeClauses = new RemoveClausesOfSelect();
+        removeClauses.setStatementChangedCallBack(s -> current.set(0, s));
+        assertTrue(removeClauses.init(context, 0, current.get(0)));
+        removeClauses.apply();
+        assertEquals("SELECT * FROM t0", current.get(0));
+        assertEquals(1, context.getNrParses());
+        assertTrue(context.getReduceSteps() > 0);
+
+        // a statement that was changed as a string is parsed again
+        assertTrue(removeClauses.init(context, 0, "SELECT * FROM t1"));
+        assertEquals(2, context.getNrParses());
+    }
+
+    @Test
+    void testConcurrentReductions() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (String keyword : List.of("LIKE", "t0.v = ")) {
+                results.add(executor.submit(() -> {
+                    TestEnvironment env = TestEnvironment.getASTBasedReducerEnv();
+                    env.setInitialStatementsFromStrings(
+                            List.of("SELECT DISTINCT * FROM t0 WHERE v LIKE '[vQ3㭫oQ' AND t0.v = 314598267;"));
+                    env.setBugInducingCondition(statements -> {
+                        String queriesString = TestEnvironment.getQueriesString(statements);
+                        try {
+                            CCJSqlParserUtil.parse(queriesString);
+                        } catch (JSQLParserException e) {
+                            return false;
+                        }
+                        return queriesString.contains(keyword);
+                    });
+                    env.runReduce();
+                    return TestEnvironment.getQueriesString(env.getReducedStatements());
+                }));
+            }
+            assertEquals("SELECT * FROM t0 WHERE v LIKE '_';", results.get(0).get());
+            assertEquals("SELECT * FROM t0 WHERE t0.v = 0;", results.get(1).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
 }
@@ -10,6 +10,7 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ServiceLoader;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -110,6 +111,12 @@ public class TestEnvironment {
         }
     }
 
+    public void setReducerThreads(int reducerThreads) throws Exception {
+        Field field = options.getClass().getDeclaredField("reducerThreads");
+        field.setAccessible(true);
+        field.set(options, reducerThreads);
+    }
+
     public void setInitialStatementsFromStrings(List<String> statements) {
         List<Query<?>> queries = new ArrayList<>();
         for (String s : statements) {
@@ -133,6 +140,10 @@ public class TestEnvironment {
         return newGlobalState.getState().getStatements();
     }
 
+    public Set<String> getDatabases() {
+        return provider.getDatabases();
+    }
+
     public List<Query<?>> getInitialStatements() {
         return state.getState().getStatements();
     }
@@ -4,11 +4,14 @@ import org.junit.jupiter.api.Test;
 import sqlancer.Main;
 import sqlancer.common.query.Query;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestStatementReducer {
 
@@ -73,10 +76,48 @@ public class TestStatementReducer {
         assertEquals(queriesString, "Statement_2;\nStatement_318;\nStatement_990;");
     }
 
+    @Test
+    void testParallelDeltaDebuggingWithStatementsCombination() throws Exception {
+        TestEnvironment env = TestEnvironment.getStatementReducerEnv();
+        env.setReducerThreads(4);
+        List<String> fakeStatements = new ArrayList<>();
+
+        String pattern = "(.*\\n)*(Statement_2;)\\n(.*\\n)*(Statement_318);\\n(.*\\n)*(Statement_990;)(.*\\n)*.*";
+        for (int i = 0; i < 1000; i++) {
+            String statement = "Statement_" + i + ";";
+            fakeStatements.add(statement);
+        }
+
+        env.setInitialStatementsFromStrings(fakeStatements);
+        env.setBugInducingCondition(queryList -> {
+            String queries = TestEnvironment.getQueriesString(queryList);
+            return Pattern.matches(pattern, queries);
+        });
+
+        env.runReduce();
+        List<Query<?>> reducedQueries = env.getReducedStatements();
+        String queriesString = TestEnvironment.getQueriesString(reducedQueries);
+        assertEquals(queriesString, "Statement_2;\nStatement_318;\nStatement_990;");
+        // the scratch databases of the reduction threads are dropped
+        assertEquals(Set.of("virtual_db"), env.getDatabases());
+    }
+
     @Test
     void testSQLite3WithStatementReducer() {
         Main.executeMain(new String[] { "--random-seed", "0", "--use-reducer", "--timeout-seconds", "60",
                 "--num-threads", "4", "sqlite3", "--oracle", "NoREC" });
     }
 
+    @Test
+    void testSQLite3WithParallelStatementReducer() {
+        assertEquals(0,
+                Main.executeMain(new String[] { "--random-seed", "1", "--use-reducer", "--reducer-threads", "4",
+                        "--timeout-seconds", "60", "--num-threads", "4", "--database-prefix", "parallelreducer",
+                        "sqlite3", "--oracle", "NoREC" }));
+        // the scratch databases of the reduction threads are deleted
+        File[] scratchDatabases = new File("databases")
+                .listFiles((dir, name) -> name.startsWith("parallelreducer") && name.contains("_reduce"));
+        assertTrue(scratchDatabases == null || scratchDatabases.length == 0);
+    }
+
 }
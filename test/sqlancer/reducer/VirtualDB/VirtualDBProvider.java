@@ -1,5 +1,8 @@
 package sqlancer.reducer.VirtualDB;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.google.auto.service.AutoService;
 import sqlancer.DatabaseProvider;
 import sqlancer.Reproducer;
@@ -10,6 +13,7 @@ import sqlancer.SQLProviderAdapter;
 public class VirtualDBProvider extends SQLProviderAdapter<VirtualDBGlobalState, VirtualDBOptions> {
 
     private Reproducer<VirtualDBGlobalState> reproducerForTesting;
+    private final Set<String> databases = ConcurrentHashMap.newKeySet();
 
     public VirtualDBProvider() {
         super(VirtualDBGlobalState.class, VirtualDBOptions.class);
@@ -17,9 +21,22 @@ public class VirtualDBProvider extends SQLProviderAdapter<VirtualDBGlobalState,
 
     @Override
     public SQLConnection createDatabase(VirtualDBGlobalState globalState) throws Exception {
+        databases.add(globalState.getDatabaseName());
         return new VirtualDBConnection(null);
     }
 
+    @Override
+    public void dropDatabase(VirtualDBGlobalState globalState) {
+        databases.remove(globalState.getDatabaseName());
+    }
+
+    /**
+     * @return the names of the databases that were created and have not been dropped
+     */
+    public Set<String> getDatabases() {
+        return databases;
+    }
+
     @Override
     public String getDBMSName() {
         return "virtual_db";
@@ -35,7 +52,7 @@ public class VirtualDBProvider extends SQLProviderAdapter<VirtualDBGlobalState,
         return state -> {
             if (globalState.getBugInducingCondition() == null)
                 return false;
-            return globalState.getBugInducingCondition().apply(globalState.getState().getStatements());
+            return globalState.getBugInducingCondition().apply(state.getState().getStatements());
         };
     }
 